@@ -0,0 +1,145 @@
+package com.openclassrooms.tourguide.benchmark;
+
+import com.openclassrooms.tourguide.configuration.ApplicationConfiguation;
+import com.openclassrooms.tourguide.service.RewardsService;
+import com.openclassrooms.tourguide.spatial.DistanceEngine;
+import com.openclassrooms.tourguide.spatial.DistanceMode;
+import com.openclassrooms.tourguide.spatial.GeoMath;
+import com.openclassrooms.tourguide.spatial.GeoPoint;
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Distance from a user location to an attraction, the way the rewards are evaluated.
+ * {@code lawOfCosinesBaseline} is the formula RewardsService used before the distance engine.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class DistanceBenchmark {
+
+  private static final int LOCATIONS = 1024;
+
+  private final Location[] locations = new Location[LOCATIONS];
+  private List<Attraction> attractions;
+  private RewardsService rewardsService;
+  private DistanceEngine haversine;
+  private DistanceEngine lawOfCosines;
+  private DistanceEngine.Proximity proximity;
+  private int index;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    StubGpsUtil gpsUtil = new StubGpsUtil();
+    attractions = gpsUtil.getAttractions();
+    rewardsService = new RewardsService(gpsUtil, new StubRewardCentral());
+    haversine = new DistanceEngine(attractions, DistanceMode.HAVERSINE);
+    lawOfCosines = new DistanceEngine(attractions, DistanceMode.SPHERICAL_LAW_OF_COSINES);
+    proximity = haversine.proximity(ApplicationConfiguation.ATTRACTION_PROXIMITY_RANGE);
+    Random random = new Random(42);
+    for (int i = 0; i < LOCATIONS; i++) {
+      locations[i] = new Location(random.nextDouble(-85, 85), random.nextDouble(-180, 180));
+    }
+  }
+
+  @Benchmark
+  public double lawOfCosinesBaseline() {
+    return lawOfCosines(nextLocation(), nextAttraction());
+  }
+
+  @Benchmark
+  public double getDistance() {
+    return rewardsService.getDistance(nextLocation(), nextAttraction());
+  }
+
+  @Benchmark
+  public double lawOfCosinesEngine() {
+    return lawOfCosines.distance(nextLocation(), nextAttraction());
+  }
+
+  @Benchmark
+  public double haversineEngine() {
+    return haversine.distance(nextLocation(), nextAttraction());
+  }
+
+  @Benchmark
+  public boolean isWithinAttractionProximity() {
+    return rewardsService.isWithinAttractionProximity(nextAttraction(), nextLocation());
+  }
+
+  @Benchmark
+  public boolean proximityOfPreparedPoints() {
+    return proximity.contains(haversine.pointOf(nextAttraction()), haversine.pointOf(nextLocation()));
+  }
+
+  /**
+   * Checks one user location against every attraction, one distance after the other.
+   */
+  @Benchmark
+  public int allAttractionsBaseline() {
+    Location location = nextLocation();
+    int within = 0;
+    for (Attraction attraction : attractions) {
+      if (lawOfCosines(attraction, location) <= ApplicationConfiguation.ATTRACTION_PROXIMITY_RANGE) {
+        within++;
+      }
+    }
+    return within;
+  }
+
+  /**
+   * Checks one user location against every attraction, the location prepared once.
+   */
+  @Benchmark
+  public int allAttractionsEngine() {
+    GeoPoint point = haversine.pointOf(nextLocation());
+    int within = 0;
+    for (Attraction attraction : attractions) {
+      if (proximity.contains(haversine.pointOf(attraction), point)) {
+        within++;
+      }
+    }
+    return within;
+  }
+
+  private Location nextLocation() {
+    index = (index + 1) & (LOCATIONS - 1);
+    return locations[index];
+  }
+
+  private Attraction nextAttraction() {
+    return attractions.get(index % attractions.size());
+  }
+
+  private static double lawOfCosines(Location loc1, Location loc2) {
+    double lat1 = Math.toRadians(loc1.latitude);
+    double lon1 = Math.toRadians(loc1.longitude);
+    double lat2 = Math.toRadians(loc2.latitude);
+    double lon2 = Math.toRadians(loc2.longitude);
+
+    double angle = Math.acos(Math.sin(lat1) * Math.sin(lat2)
+            + Math.cos(lat1) * Math.cos(lat2) * Math.cos(lon1 - lon2));
+
+    double nauticalMiles = 60 * Math.toDegrees(angle);
+    return GeoMath.STATUTE_MILES_PER_NAUTICAL_MILE * nauticalMiles;
+  }
+
+}
@@ -0,0 +1,68 @@
+package com.openclassrooms.tourguide.benchmark;
+
+import com.openclassrooms.tourguide.user.LocationHistory;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Heap retained by the history of a user, as a plain list of VisitedLocation, the way users used to keep
+ * their locations, and as the primitive columns of LocationHistory.
+ * Both are filled with the same locations; the size of everything reachable from each history, measured
+ * with JOL, is divided by the number of points.
+ * <p>
+ * Run : java -Djol.magicFieldOffset=true -Djdk.attach.allowAttachSelf -cp benchmarks/target/benchmarks.jar
+ * com.openclassrooms.tourguide.benchmark.LocationHistoryFootprint [points...]
+ * <p>
+ * JOL reads the field offsets of the records through {@code jol.magicFieldOffset}, and attaches itself
+ * for exact object sizes.
+ */
+public class LocationHistoryFootprint {
+
+  private static final int[] DEFAULT_POINTS = {100, 500};
+
+  public static void main(String[] args) {
+    int[] pointCounts = args.length == 0 ? DEFAULT_POINTS : new int[args.length];
+    for (int i = 0; i < args.length; i++) {
+      pointCounts[i] = Integer.parseInt(args[i]);
+    }
+    System.out.printf("%8s %22s %22s%n", "points", "list (bytes/point)", "history (bytes/point)");
+    for (int points : pointCounts) {
+      VisitedLocation[] visitedLocations = visitedLocations(points);
+
+      List<VisitedLocation> list = new ArrayList<>();
+      LocationHistory history = new LocationHistory(visitedLocations[0].userId, points, Duration.ofDays(30));
+      for (VisitedLocation visitedLocation : visitedLocations) {
+        list.add(visitedLocation);
+        history.append(visitedLocation);
+      }
+
+      System.out.printf("%8d %22.1f %22.1f%n", points, bytesPerPoint(list, points), bytesPerPoint(history, points));
+    }
+  }
+
+  // every location is a new object handed over by the tracker, only the user ID is shared
+  private static VisitedLocation[] visitedLocations(int points) {
+    Random random = new Random(42);
+    UUID userId = UUID.randomUUID();
+    long now = System.currentTimeMillis();
+    VisitedLocation[] visitedLocations = new VisitedLocation[points];
+    for (int i = 0; i < points; i++) {
+      visitedLocations[i] = new VisitedLocation(userId,
+              new Location(random.nextDouble(-85, 85), random.nextDouble(-180, 180)), new Date(now + i));
+    }
+    return visitedLocations;
+  }
+
+  private static double bytesPerPoint(Object history, int points) {
+    return (double) GraphLayout.parseInstance(history).totalSize() / points;
+  }
+
+}
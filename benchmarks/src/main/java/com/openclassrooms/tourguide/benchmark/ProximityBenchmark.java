@@ -0,0 +1,98 @@
+package com.openclassrooms.tourguide.benchmark;
+
+import com.openclassrooms.tourguide.configuration.ApplicationConfiguation;
+import com.openclassrooms.tourguide.spatial.BatchProximity;
+import com.openclassrooms.tourguide.spatial.DistanceEngine;
+import com.openclassrooms.tourguide.spatial.DistanceMode;
+import com.openclassrooms.tourguide.spatial.GeoPoint;
+import com.openclassrooms.tourguide.spatial.ProximityKernel;
+import com.openclassrooms.tourguide.spatial.ScalarProximityKernel;
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Proximity phase of a tracking cycle: the latest location of every user against every attraction.
+ * {@code perLocation} checks each pair as RewardsService does for a single user,
+ * the batch benchmarks use the scalar and the SIMD kernels over primitive arrays.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+@State(Scope.Thread)
+public class ProximityBenchmark {
+
+  @Param({"1000", "100000"})
+  public int userCount;
+
+  private final List<Location> locations = new ArrayList<>();
+  private List<Attraction> attractions;
+  private DistanceEngine distanceEngine;
+  private DistanceEngine.Proximity proximity;
+  private BatchProximity scalar;
+  private BatchProximity vector;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    attractions = new StubGpsUtil().getAttractions();
+    distanceEngine = new DistanceEngine(attractions, DistanceMode.HAVERSINE);
+    proximity = distanceEngine.proximity(ApplicationConfiguation.ATTRACTION_PROXIMITY_RANGE);
+    scalar = new BatchProximity(attractions, new ScalarProximityKernel());
+    vector = new BatchProximity(attractions, ProximityKernel.create());
+    Random random = new Random(42);
+    for (int i = 0; i < userCount; i++) {
+      locations.add(new Location(random.nextDouble(-85, 85), random.nextDouble(-180, 180)));
+    }
+  }
+
+  @Benchmark
+  public int perLocation() {
+    int within = 0;
+    for (Location location : locations) {
+      GeoPoint point = distanceEngine.pointOf(location);
+      for (Attraction attraction : attractions) {
+        if (proximity.contains(distanceEngine.pointOf(attraction), point)) {
+          within++;
+        }
+      }
+    }
+    return within;
+  }
+
+  @Benchmark
+  public int batchScalar() {
+    return batch(scalar);
+  }
+
+  @Benchmark
+  public int batchVector() {
+    return batch(vector);
+  }
+
+  private int batch(BatchProximity batchProximity) {
+    int[] within = new int[1];
+    batchProximity.findWithin(locations, Function.identity(), ApplicationConfiguation.ATTRACTION_PROXIMITY_RANGE,
+            (locationIndex, attractionIndex) -> within[0]++);
+    return within[0];
+  }
+
+}
@@ -0,0 +1,41 @@
+package com.openclassrooms.tourguide.benchmark;
+
+import com.openclassrooms.tourguide.dto.AttractionNearbyUserDto;
+import com.openclassrooms.tourguide.user.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RewardsBenchmark {
+
+  /**
+   * Rewards a user for a location just tracked, the way the tracker does.
+   */
+  @Benchmark
+  public User calculateRewards(TourGuideState state) {
+    User user = state.user(ThreadLocalRandom.current().nextInt());
+    user.addToVisitedLocations(state.gpsUtil.getUserLocation(user.getUserId()));
+    state.rewardsService.calculateRewards(user);
+    return user;
+  }
+
+  @Benchmark
+  public List<AttractionNearbyUserDto> getNearByAttractions(TourGuideState state) {
+    User user = state.user(ThreadLocalRandom.current().nextInt());
+    return state.tourGuideService.getNearByAttractions(user.getLastVisitedLocation(), user);
+  }
+
+}
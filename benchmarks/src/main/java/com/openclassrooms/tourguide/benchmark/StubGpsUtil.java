@@ -0,0 +1,33 @@
+package com.openclassrooms.tourguide.benchmark;
+
+import gpsUtil.GpsUtil;
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * GpsUtil without its artificial latency.
+ * The attractions are read once from the real GpsUtil and returned as is afterward.
+ */
+public class StubGpsUtil extends GpsUtil {
+
+  private final List<Attraction> attractions = List.copyOf(super.getAttractions());
+
+  @Override
+  public VisitedLocation getUserLocation(UUID userId) {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    return new VisitedLocation(userId, new Location(random.nextDouble(-85.05112878, 85.05112878),
+            random.nextDouble(-180, 180)), new Date());
+  }
+
+  @Override
+  public List<Attraction> getAttractions() {
+    return attractions;
+  }
+
+}
@@ -0,0 +1,17 @@
+package com.openclassrooms.tourguide.benchmark;
+
+import rewardCentral.RewardCentral;
+
+import java.util.UUID;
+
+/**
+ * RewardCentral without its artificial latency, returning stable points for a user and an attraction.
+ */
+public class StubRewardCentral extends RewardCentral {
+
+  @Override
+  public int getAttractionRewardPoints(UUID attractionId, UUID userId) {
+    return Math.floorMod(attractionId.hashCode() * 31 + userId.hashCode(), 1000) + 1;
+  }
+
+}
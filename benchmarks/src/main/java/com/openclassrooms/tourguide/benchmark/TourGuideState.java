@@ -0,0 +1,75 @@
+package com.openclassrooms.tourguide.benchmark;
+
+import com.openclassrooms.tourguide.helper.InternalTestHelper;
+import com.openclassrooms.tourguide.service.RewardsService;
+import com.openclassrooms.tourguide.service.TourGuideService;
+import com.openclassrooms.tourguide.user.User;
+import gpsUtil.GpsUtil;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.List;
+
+/**
+ * TourGuide services backed by the stubs, with generated users.
+ * The user count and the number of visited locations per user are benchmark parameters.
+ */
+@State(Scope.Benchmark)
+public class TourGuideState {
+
+  @Param({"1000", "10000", "100000"})
+  public int userCount;
+
+  @Param({"3", "100"})
+  public int historyLength;
+
+  public GpsUtil gpsUtil;
+  public RewardsService rewardsService;
+  public TourGuideService tourGuideService;
+  public List<User> users;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    gpsUtil = new StubGpsUtil();
+    rewardsService = new RewardsService(gpsUtil, new StubRewardCentral());
+    InternalTestHelper.setInternalUserNumber(userCount);
+    tourGuideService = new TourGuideService(gpsUtil, rewardsService);
+    // the benchmarks drive the tracking themselves
+    tourGuideService.shutdown();
+    users = tourGuideService.getAllUsers();
+    addHistory(users);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    tourGuideService.shutdown();
+  }
+
+  /**
+   * Adds visited locations to the users until they have the history length.
+   *
+   * @param users the users
+   */
+  public void addHistory(List<User> users) {
+    for (User user : users) {
+      for (int i = user.getVisitedLocations().size(); i < historyLength; i++) {
+        user.addToVisitedLocations(gpsUtil.getUserLocation(user.getUserId()));
+      }
+    }
+  }
+
+  /**
+   * Gets a user picked at random.
+   *
+   * @param random a random number
+   * @return the user
+   */
+  public User user(int random) {
+    return users.get(Math.floorMod(random, users.size()));
+  }
+
+}
@@ -0,0 +1,33 @@
+package com.openclassrooms.tourguide.benchmark;
+
+import com.openclassrooms.tourguide.user.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserLookupBenchmark {
+
+  @Benchmark
+  public User getUser(TourGuideState state) {
+    return state.tourGuideService.getUser("internalUser" + ThreadLocalRandom.current().nextInt(state.userCount));
+  }
+
+  @Benchmark
+  public User getUserById(TourGuideState state) {
+    User user = state.user(ThreadLocalRandom.current().nextInt());
+    return state.tourGuideService.getUserById(user.getUserId());
+  }
+
+}
@@ -0,0 +1,25 @@
+package com.openclassrooms.tourguide.loadtest;
+
+import com.openclassrooms.tourguide.benchmark.StubGpsUtil;
+import gpsUtil.location.VisitedLocation;
+
+import java.util.UUID;
+
+/**
+ * GpsUtil answering after the latency of a profile.
+ */
+public class LatencyGpsUtil extends StubGpsUtil {
+
+  private final LatencyProfile latency;
+
+  public LatencyGpsUtil(LatencyProfile latency) {
+    this.latency = latency;
+  }
+
+  @Override
+  public VisitedLocation getUserLocation(UUID userId) {
+    latency.pause();
+    return super.getUserLocation(userId);
+  }
+
+}
@@ -0,0 +1,62 @@
+package com.openclassrooms.tourguide.loadtest;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Simulated latency of an external service, uniformly distributed between two bounds.
+ *
+ * @param minMillis the lowest latency
+ * @param maxMillis the highest latency
+ */
+public record LatencyProfile(long minMillis, long maxMillis) {
+
+  public static final LatencyProfile NONE = new LatencyProfile(0, 0);
+
+  /**
+   * Parses a latency profile: {@code none}, {@code fixed:<ms>} or {@code uniform:<min ms>-<max ms>}.
+   *
+   * @param profile the profile text
+   * @return the latency profile
+   */
+  public static LatencyProfile parse(String profile) {
+    if (profile.equals("none")) {
+      return NONE;
+    }
+    if (profile.startsWith("fixed:")) {
+      long millis = Long.parseLong(profile.substring("fixed:".length()));
+      return new LatencyProfile(millis, millis);
+    }
+    if (profile.startsWith("uniform:")) {
+      String[] bounds = profile.substring("uniform:".length()).split("-");
+      if (bounds.length == 2) {
+        return new LatencyProfile(Long.parseLong(bounds[0]), Long.parseLong(bounds[1]));
+      }
+    }
+    throw new IllegalArgumentException("Unknown latency profile: " + profile);
+  }
+
+  /**
+   * Sleeps for a latency drawn from the profile.
+   */
+  public void pause() {
+    long millis = minMillis == maxMillis ? minMillis : ThreadLocalRandom.current().nextLong(minMillis, maxMillis + 1);
+    if (millis <= 0) {
+      return;
+    }
+    try {
+      TimeUnit.MILLISECONDS.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Override
+  public String toString() {
+    if (maxMillis == 0) {
+      return "none";
+    }
+    return minMillis == maxMillis ? "fixed:" + minMillis : "uniform:" + minMillis + "-" + maxMillis;
+  }
+
+}
@@ -0,0 +1,56 @@
+package com.openclassrooms.tourguide.loadtest;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Collects the latencies of a stage, one per user, from any thread.
+ */
+public class LatencyRecorder {
+
+  private final long[] nanos;
+  private final AtomicInteger count = new AtomicInteger();
+
+  public LatencyRecorder(int capacity) {
+    this.nanos = new long[capacity];
+  }
+
+  /**
+   * Records a latency, ignored once the capacity is reached.
+   *
+   * @param latencyNanos the latency in nanoseconds
+   */
+  public void record(long latencyNanos) {
+    int index = count.getAndIncrement();
+    if (index < nanos.length) {
+      nanos[index] = latencyNanos;
+    }
+  }
+
+  /**
+   * Summarizes the recorded latencies.
+   *
+   * @param name        the stage name
+   * @param elapsedNanos the wall-clock time of the stage
+   * @param budget      the time budget of the stage in seconds, 0 if there is none
+   * @return the stage report
+   */
+  public StageReport report(String name, long elapsedNanos, long budget) {
+    int size = Math.min(count.get(), nanos.length);
+    long[] sorted = Arrays.copyOf(nanos, size);
+    Arrays.sort(sorted);
+    double seconds = elapsedNanos / 1e9;
+    return new StageReport(name, size, seconds, seconds > 0 ? size / seconds : 0,
+            percentile(sorted, 50), percentile(sorted, 99), size == 0 ? 0 : sorted[size - 1] / 1e6,
+            budget, budget == 0 || seconds <= budget);
+  }
+
+  private static double percentile(long[] sorted, int percentile) {
+    if (sorted.length == 0) {
+      return 0;
+    }
+    int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+    return sorted[Math.max(0, index)] / 1e6;
+  }
+
+}
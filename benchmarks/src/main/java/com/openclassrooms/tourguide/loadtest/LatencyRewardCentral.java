@@ -0,0 +1,24 @@
+package com.openclassrooms.tourguide.loadtest;
+
+import com.openclassrooms.tourguide.benchmark.StubRewardCentral;
+
+import java.util.UUID;
+
+/**
+ * RewardCentral answering after the latency of a profile.
+ */
+public class LatencyRewardCentral extends StubRewardCentral {
+
+  private final LatencyProfile latency;
+
+  public LatencyRewardCentral(LatencyProfile latency) {
+    this.latency = latency;
+  }
+
+  @Override
+  public int getAttractionRewardPoints(UUID attractionId, UUID userId) {
+    latency.pause();
+    return super.getAttractionRewardPoints(attractionId, userId);
+  }
+
+}
@@ -0,0 +1,34 @@
+package com.openclassrooms.tourguide.loadtest;
+
+import tripPricer.Provider;
+import tripPricer.TripPricer;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+/**
+ * TripPricer answering five providers after the latency of a profile.
+ */
+public class LatencyTripPricer extends TripPricer {
+
+  private final LatencyProfile latency;
+
+  public LatencyTripPricer(LatencyProfile latency) {
+    this.latency = latency;
+  }
+
+  @Override
+  public List<Provider> getPrice(String apiKey, UUID attractionId, int adults, int children, int nightsStay,
+                                 int rewardsPoints) {
+    latency.pause();
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    return IntStream.range(0, 5)
+            .mapToObj(i -> new Provider(UUID.randomUUID(), "Provider " + i,
+                    Math.max(0, (random.nextInt(100, 700) * adults + random.nextInt(100, 700) * children / 3.0)
+                            * nightsStay + 0.99 - rewardsPoints)))
+            .toList();
+  }
+
+}
@@ -0,0 +1,199 @@
+package com.openclassrooms.tourguide.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import com.openclassrooms.tourguide.client.RewardCentralClient;
+import com.openclassrooms.tourguide.client.RewardPointsCache;
+import com.openclassrooms.tourguide.client.TripDealsCache;
+import com.openclassrooms.tourguide.client.TripPricerClient;
+import com.openclassrooms.tourguide.configuration.ApplicationConfiguation;
+import com.openclassrooms.tourguide.configuration.ExecutorProperties;
+import com.openclassrooms.tourguide.configuration.TrackerProperties;
+import com.openclassrooms.tourguide.executor.ExecutionEngine;
+import com.openclassrooms.tourguide.helper.InternalTestHelper;
+import com.openclassrooms.tourguide.repository.InMemoryUserRepository;
+import com.openclassrooms.tourguide.service.RewardsService;
+import com.openclassrooms.tourguide.service.TourGuideService;
+import com.openclassrooms.tourguide.tracker.TrackingPipeline;
+import com.openclassrooms.tourguide.user.User;
+import gpsUtil.GpsUtil;
+import gpsUtil.location.Attraction;
+import gpsUtil.location.VisitedLocation;
+import io.micrometer.core.instrument.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Load test of the tracker, rewards and trip deals paths at several user counts.
+ * GpsUtil, RewardCentral and TripPricer are simulated with configurable latencies,
+ * and the measures of every run are written to a JSON report.
+ * <p>
+ * Run with {@code java -cp benchmarks/target/benchmarks.jar com.openclassrooms.tourguide.loadtest.LoadTest --users=1000,10000}.
+ */
+public class LoadTest {
+
+  // budgets of TestPerformance for 100,000 users
+  static final long TRACK_BUDGET_SECONDS = TimeUnit.MINUTES.toSeconds(15);
+  static final long REWARDS_BUDGET_SECONDS = TimeUnit.MINUTES.toSeconds(20);
+  static final int BUDGET_USERS = 100_000;
+
+  private static final Logger logger = LoggerFactory.getLogger(LoadTest.class);
+
+  private final LoadTestOptions options;
+
+  public LoadTest(LoadTestOptions options) {
+    this.options = options;
+  }
+
+  public static void main(String[] args) throws IOException {
+    LoadTestOptions options = LoadTestOptions.parse(args);
+    List<RunReport> runs = new LoadTest(options).runAll();
+
+    Map<String, Object> report = new LinkedHashMap<>();
+    report.put("generatedAt", Instant.now().toString());
+    report.put("options", options);
+    report.put("runs", runs);
+    ObjectMapper objectMapper = new ObjectMapper()
+            .enable(SerializationFeature.INDENT_OUTPUT)
+            .registerModule(new SimpleModule()
+                    .addSerializer(LatencyProfile.class, ToStringSerializer.instance)
+                    .addSerializer(Path.class, ToStringSerializer.instance));
+    if (options.report().getParent() != null) {
+      Files.createDirectories(options.report().getParent());
+    }
+    objectMapper.writeValue(options.report().toFile(), report);
+    logger.warn("Load test report written to {}", options.report().toAbsolutePath());
+
+    boolean missedBudget = runs.stream()
+            .filter(run -> run.users() <= BUDGET_USERS)
+            .flatMap(run -> run.stages().stream())
+            .anyMatch(stage -> !stage.withinBudget());
+    if (options.enforceBudgets() && missedBudget) {
+      logger.error("A run of up to {} users missed its time budget", BUDGET_USERS);
+      System.exit(1);
+    }
+  }
+
+  /**
+   * Runs the load test at every user count of the options.
+   *
+   * @return the measures of each run
+   */
+  public List<RunReport> runAll() {
+    List<RunReport> runs = new ArrayList<>();
+    for (int users : options.users()) {
+      runs.add(run(users));
+    }
+    return runs;
+  }
+
+  /**
+   * Runs the load test with fresh services and users.
+   *
+   * @param userCount the number of users
+   * @return the measures of the run
+   */
+  public RunReport run(int userCount) {
+    ExecutorProperties executorProperties = new ExecutorProperties();
+    executorProperties.getRewards().setConcurrency(options.rewardsConcurrency());
+    ExecutionEngine executionEngine = new ExecutionEngine(executorProperties);
+    TrackerProperties trackerProperties = new TrackerProperties();
+    GpsUtil gpsUtil = new LatencyGpsUtil(options.gpsLatency());
+    RewardCentralClient rewardCentralClient = new RewardCentralClient(new LatencyRewardCentral(options.rewardsLatency()),
+            executionEngine.getRewards(), new RewardPointsCache(ApplicationConfiguation.REWARD_POINTS_CACHE_MAX_SIZE,
+            ApplicationConfiguation.REWARD_POINTS_CACHE_TTL));
+    RewardsService rewardsService = new RewardsService(gpsUtil, rewardCentralClient);
+    TrackingPipeline trackingPipeline = new TrackingPipeline(gpsUtil, rewardsService, List.of(), trackerProperties,
+            executionEngine);
+    InternalTestHelper.setInternalUserNumber(userCount);
+    TripPricerClient tripPricerClient = new TripPricerClient(new LatencyTripPricer(options.tripPricerLatency()),
+            executionEngine.getTripPricing(), new TripDealsCache(ApplicationConfiguation.TRIP_DEALS_CACHE_MAX_SIZE,
+            ApplicationConfiguation.TRIP_DEALS_CACHE_TTL));
+    TourGuideService tourGuideService = new TourGuideService(rewardsService, trackingPipeline, trackerProperties,
+            new InMemoryUserRepository(), tripPricerClient, rewardsService.getAttractionCatalog(),
+            Metrics.globalRegistry);
+    // the load test drives the tracking itself
+    tourGuideService.shutdown();
+
+    try {
+      List<User> users = tourGuideService.getAllUsers();
+      for (User user : users) {
+        for (int i = user.getVisitedLocations().size(); i < options.historyDepth(); i++) {
+          user.addToVisitedLocations(new VisitedLocation(user.getUserId(),
+                  user.getLastVisitedLocation().location, new Date()));
+        }
+      }
+      resetHeapPeak();
+      logger.warn("Load test of {} users", userCount);
+
+      List<StageReport> stages = new ArrayList<>();
+      stages.add(runStage("track", users, TRACK_BUDGET_SECONDS, trackingPipeline::track));
+
+      Attraction attraction = gpsUtil.getAttractions().get(0);
+      users.forEach(user -> user.addToVisitedLocations(new VisitedLocation(user.getUserId(), attraction, new Date())));
+      stages.add(runStage("rewards", users, REWARDS_BUDGET_SECONDS, rewardsService::calculateRewardsAsync));
+
+      List<User> tripDealsUsers = users.subList(0, Math.min(options.tripDealsSample(), users.size()));
+      stages.add(runStage("tripDeals", tripDealsUsers, 0, tourGuideService::getTripDealsAsync));
+
+      RunReport runReport = new RunReport(userCount, options.historyDepth(), heapPeak(), stages);
+      stages.forEach(stage -> logger.warn("{} users, {}: {} s, {} users/s, p50 {} ms, p99 {} ms", userCount,
+              stage.name(), String.format("%.1f", stage.seconds()), String.format("%.0f", stage.throughputPerSecond()),
+              String.format("%.1f", stage.p50Millis()), String.format("%.1f", stage.p99Millis())));
+      return runReport;
+    } finally {
+      executionEngine.shutdown();
+    }
+  }
+
+  /**
+   * Submits every user to a stage and waits for all of them.
+   * The latency of a user runs from its submission, so it includes the time spent queued.
+   */
+  private StageReport runStage(String name, List<User> users, long budgetSeconds,
+                               Function<User, CompletableFuture<?>> stage) {
+    LatencyRecorder latencies = new LatencyRecorder(users.size());
+    List<CompletableFuture<?>> futures = new ArrayList<>(users.size());
+    long start = System.nanoTime();
+    for (User user : users) {
+      long submitted = System.nanoTime();
+      futures.add(stage.apply(user).whenComplete((result, throwable) -> latencies.record(System.nanoTime() - submitted)));
+    }
+    CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+    return latencies.report(name, System.nanoTime() - start, budgetSeconds);
+  }
+
+  private static void resetHeapPeak() {
+    System.gc();
+    heapPools().forEach(MemoryPoolMXBean::resetPeakUsage);
+  }
+
+  private static long heapPeak() {
+    return heapPools().stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+  }
+
+  private static List<MemoryPoolMXBean> heapPools() {
+    return ManagementFactory.getMemoryPoolMXBeans().stream()
+            .filter(pool -> pool.getType() == MemoryType.HEAP)
+            .toList();
+  }
+
+}
@@ -0,0 +1,65 @@
+package com.openclassrooms.tourguide.loadtest;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Options of a load test, given as {@code --name=value} arguments.
+ *
+ * @param users              the user counts to run, one run per count
+ * @param historyDepth       the number of visited locations per user before each run
+ * @param gpsLatency         the latency of GpsUtil
+ * @param rewardsLatency     the latency of RewardCentral
+ * @param tripPricerLatency  the latency of TripPricer
+ * @param tripDealsSample    the number of users asking for trip deals in each run
+ * @param rewardsConcurrency the RewardCentral calls running at the same time
+ * @param report             the file the JSON report is written to
+ * @param enforceBudgets     whether to fail when a run of up to 100,000 users misses a budget
+ */
+public record LoadTestOptions(List<Integer> users, int historyDepth, LatencyProfile gpsLatency,
+                              LatencyProfile rewardsLatency, LatencyProfile tripPricerLatency, int tripDealsSample,
+                              int rewardsConcurrency, Path report, boolean enforceBudgets) {
+
+  /**
+   * Parses the command line arguments, using the defaults for the missing ones.
+   * The default latencies are the ones of the real libraries.
+   *
+   * @param args the arguments
+   * @return the options
+   */
+  public static LoadTestOptions parse(String[] args) {
+    Map<String, String> values = new HashMap<>();
+    for (String arg : args) {
+      if (!arg.startsWith("--")) {
+        throw new IllegalArgumentException("Unexpected argument: " + arg);
+      }
+      int separator = arg.indexOf('=');
+      if (separator < 0) {
+        values.put(arg.substring(2), "true");
+      } else {
+        values.put(arg.substring(2, separator), arg.substring(separator + 1));
+      }
+    }
+    LoadTestOptions options = new LoadTestOptions(
+            Arrays.stream(values.getOrDefault("users", "1000,10000,100000,1000000").split(","))
+                    .map(String::trim).map(Integer::valueOf).toList(),
+            Integer.parseInt(values.getOrDefault("history-depth", "3")),
+            LatencyProfile.parse(values.getOrDefault("gps-latency", "uniform:30-100")),
+            LatencyProfile.parse(values.getOrDefault("rewards-latency", "uniform:1-1000")),
+            LatencyProfile.parse(values.getOrDefault("trip-pricer-latency", "uniform:1-50")),
+            Integer.parseInt(values.getOrDefault("trip-deals-sample", "1000")),
+            Integer.parseInt(values.getOrDefault("rewards-concurrency", "1000")),
+            Path.of(values.getOrDefault("report", "target/load-test-report.json")),
+            Boolean.parseBoolean(values.getOrDefault("enforce-budgets", "false")));
+    values.keySet().removeAll(List.of("users", "history-depth", "gps-latency", "rewards-latency",
+            "trip-pricer-latency", "trip-deals-sample", "rewards-concurrency", "report", "enforce-budgets"));
+    if (!values.isEmpty()) {
+      throw new IllegalArgumentException("Unknown options: " + values.keySet());
+    }
+    return options;
+  }
+
+}
@@ -0,0 +1,14 @@
+package com.openclassrooms.tourguide.loadtest;
+
+import java.util.List;
+
+/**
+ * Measures of a load test run at one user count.
+ *
+ * @param users         the number of users
+ * @param historyDepth  the number of visited locations per user before the run
+ * @param heapPeakBytes the peak heap usage during the run, summed over the heap pools
+ * @param stages        the measures of each stage
+ */
+public record RunReport(int users, int historyDepth, long heapPeakBytes, List<StageReport> stages) {
+}
@@ -0,0 +1,18 @@
+package com.openclassrooms.tourguide.loadtest;
+
+/**
+ * Measures of one stage of a load test run.
+ *
+ * @param name                the stage name
+ * @param count               the number of users processed
+ * @param seconds             the wall-clock time of the stage
+ * @param throughputPerSecond the users processed per second
+ * @param p50Millis           the median latency per user
+ * @param p99Millis           the 99th percentile latency per user
+ * @param maxMillis           the highest latency per user
+ * @param budgetSeconds       the time budget of the stage, 0 if there is none
+ * @param withinBudget        whether the stage finished within its budget
+ */
+public record StageReport(String name, int count, double seconds, double throughputPerSecond, double p50Millis,
+                          double p99Millis, double maxMillis, long budgetSeconds, boolean withinBudget) {
+}
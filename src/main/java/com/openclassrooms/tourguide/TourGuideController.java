@@ -1,24 +1,55 @@
 package com.openclassrooms.tourguide;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.openclassrooms.tourguide.dto.AttractionNearbyUserDto;
+import com.openclassrooms.tourguide.dto.CurrentLocationsDto;
+import com.openclassrooms.tourguide.dto.UserPageDto;
+import com.openclassrooms.tourguide.dto.UserView;
+import com.openclassrooms.tourguide.location.CurrentLocationPublisher;
+import com.openclassrooms.tourguide.location.CurrentLocationSnapshot;
 import com.openclassrooms.tourguide.service.TourGuideService;
 import com.openclassrooms.tourguide.user.User;
 import com.openclassrooms.tourguide.user.UserReward;
 import gpsUtil.location.VisitedLocation;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import tripPricer.Provider;
 
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 @RestController
 public class TourGuideController {
 
   private final TourGuideService tourGuideService;
+  private final CurrentLocationPublisher currentLocationPublisher;
+  // one line per user, the response stream is flushed by the controller only
+  private final ObjectWriter ndjsonWriter;
 
-  public TourGuideController(TourGuideService tourGuideService) {
+  public TourGuideController(TourGuideService tourGuideService, CurrentLocationPublisher currentLocationPublisher,
+                             ObjectMapper objectMapper) {
     this.tourGuideService = tourGuideService;
+    this.currentLocationPublisher = currentLocationPublisher;
+    this.ndjsonWriter = objectMapper.writer()
+            .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            .without(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
   }
 
   @RequestMapping("/")
@@ -27,35 +58,88 @@ public class TourGuideController {
   }
 
   @RequestMapping("/getUsers")
-  public List<User> getUsers() {
-    return tourGuideService.getAllUsers();
+  public UserPageDto getUsers(@RequestParam(required = false) String cursor,
+                              @RequestParam(defaultValue = "100") @Min(1) @Max(1000) int limit,
+                              @RequestParam(defaultValue = "FULL") UserView view) {
+    List<User> users = tourGuideService.getUsersPage(decodeCursor(cursor), limit);
+    String nextCursor = users.size() < limit ? null : encodeCursor(users.get(users.size() - 1).getUserName());
+    return new UserPageDto(users.stream().map(view::of).toList(), nextCursor);
   }
 
+  // every user, written one after the other without building the list
+  @RequestMapping(value = "/getUsers", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<StreamingResponseBody> streamUsers(@RequestParam(defaultValue = "FULL") UserView view) {
+    StreamingResponseBody body = outputStream -> {
+      OutputStream out = new BufferedOutputStream(outputStream, 64 * 1024);
+      try (Stream<User> users = tourGuideService.streamUsers()) {
+        Iterator<User> iterator = users.iterator();
+        while (iterator.hasNext()) {
+          ndjsonWriter.writeValue(out, view.of(iterator.next()));
+          out.write('\n');
+        }
+      }
+      out.flush();
+    };
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+  }
+
+  // the request thread is released while GpsUtil, RewardCentral or TripPricer answer,
+  // the response is written once the future completes
   @RequestMapping("/getLocation")
-  public VisitedLocation getLocation(@RequestParam String userName) {
-    return tourGuideService.getUserLocation(getUser(userName));
+  public CompletableFuture<VisitedLocation> getLocation(@RequestParam String userName) {
+    return tourGuideService.getUserLocationAsync(getUser(userName));
+  }
+
+  // served from the snapshot published by the tracker, unchanged until the next publication
+  @RequestMapping("/getAllCurrentLocations")
+  public ResponseEntity<CurrentLocationsDto> getAllCurrentLocations(
+          @RequestParam(defaultValue = "0") @Min(0) long sinceVersion, WebRequest webRequest) {
+    CurrentLocationSnapshot snapshot = currentLocationPublisher.getSnapshot();
+    String eTag = "\"" + snapshot.getVersion() + "\"";
+    if (webRequest.checkNotModified(eTag)) {
+      return null;
+    }
+    return ResponseEntity.ok().eTag(eTag)
+            .body(new CurrentLocationsDto(snapshot.getVersion(), snapshot.getLocationsSince(sinceVersion)));
   }
 
   @RequestMapping("/getNearbyUser")
-  public List<AttractionNearbyUserDto> getNearbyAttractions(@RequestParam String userName) {
+  public CompletableFuture<List<AttractionNearbyUserDto>> getNearbyAttractions(@RequestParam String userName) {
     User user = getUser(userName);
-    VisitedLocation visitedLocation = tourGuideService.getUserLocation(user);
-    return tourGuideService.getNearByAttractions(visitedLocation, user);
+    return tourGuideService.getUserLocationAsync(user)
+            .thenCompose(visitedLocation -> tourGuideService.getNearByAttractionsAsync(visitedLocation, user));
   }
 
+  // rewards are read from memory, nothing to wait for
   @RequestMapping("/getRewards")
   public List<UserReward> getRewards(@RequestParam String userName) {
     return tourGuideService.getUserRewards(getUser(userName));
   }
 
   @RequestMapping("/getTripDeals")
-  public List<Provider> getTripDeals(@RequestParam String userName) {
-    return tourGuideService.getTripDeals(getUser(userName));
+  public CompletableFuture<List<Provider>> getTripDeals(@RequestParam String userName) {
+    return tourGuideService.getTripDealsAsync(getUser(userName));
   }
 
   private User getUser(String userName) {
     return tourGuideService.getUser(userName);
   }
 
+  // the cursor is the username of the last user of the previous page, opaque to the clients
+  private static String encodeCursor(String userName) {
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(userName.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static String decodeCursor(String cursor) {
+    if (cursor == null || cursor.isEmpty()) {
+      return null;
+    }
+    try {
+      return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+    } catch (IllegalArgumentException e) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor", e);
+    }
+  }
+
 
 }
\ No newline at end of file
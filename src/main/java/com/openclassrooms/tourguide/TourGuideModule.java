@@ -1,22 +1,81 @@
 package com.openclassrooms.tourguide;
 
+import com.openclassrooms.tourguide.catalog.AttractionCatalog;
+import com.openclassrooms.tourguide.client.RewardCentralClient;
+import com.openclassrooms.tourguide.client.RewardPointsCache;
+import com.openclassrooms.tourguide.client.TripDealsCache;
+import com.openclassrooms.tourguide.client.TripPricerClient;
+import com.openclassrooms.tourguide.configuration.ApplicationConfiguation;
+import com.openclassrooms.tourguide.configuration.CatalogProperties;
+import com.openclassrooms.tourguide.configuration.ExecutorProperties;
+import com.openclassrooms.tourguide.configuration.InternalUsersProperties;
+import com.openclassrooms.tourguide.configuration.LocationHistoryProperties;
+import com.openclassrooms.tourguide.configuration.PersistenceProperties;
+import com.openclassrooms.tourguide.configuration.TrackerProperties;
+import com.openclassrooms.tourguide.executor.ExecutionEngine;
+import com.openclassrooms.tourguide.health.InternalUsersHealthIndicator;
+import com.openclassrooms.tourguide.location.CurrentLocationPublisher;
+import com.openclassrooms.tourguide.location.UserLocationIndex;
+import com.openclassrooms.tourguide.metrics.TourGuideMeterBinder;
+import com.openclassrooms.tourguide.persistence.FileUserStore;
+import com.openclassrooms.tourguide.persistence.LocationJournal;
+import com.openclassrooms.tourguide.persistence.WriteBehindPersister;
+import com.openclassrooms.tourguide.repository.InMemoryUserRepository;
+import com.openclassrooms.tourguide.repository.PersistentUserRepository;
+import com.openclassrooms.tourguide.repository.UserRepository;
+import com.openclassrooms.tourguide.service.CatalogRewardUpdater;
 import com.openclassrooms.tourguide.service.RewardsService;
+import com.openclassrooms.tourguide.service.TourGuideService;
+import com.openclassrooms.tourguide.tracker.TrackedLocationSink;
+import com.openclassrooms.tourguide.tracker.TrackingPipeline;
+import com.openclassrooms.tourguide.user.User;
 import gpsUtil.GpsUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import rewardCentral.RewardCentral;
+import tripPricer.TripPricer;
+
+import java.util.List;
 
 @Configuration
+@EnableConfigurationProperties({ExecutorProperties.class, TrackerProperties.class, CatalogProperties.class,
+        PersistenceProperties.class, InternalUsersProperties.class, LocationHistoryProperties.class})
 public class TourGuideModule {
 
+  private final ExecutorProperties executorProperties;
+  private final TrackerProperties trackerProperties;
+  private final CatalogProperties catalogProperties;
+  private final PersistenceProperties persistenceProperties;
+  private final MeterRegistry meterRegistry;
+
+  public TourGuideModule(ExecutorProperties executorProperties, TrackerProperties trackerProperties,
+                         CatalogProperties catalogProperties, PersistenceProperties persistenceProperties,
+                         LocationHistoryProperties locationHistoryProperties, MeterRegistry meterRegistry) {
+    this.executorProperties = executorProperties;
+    this.trackerProperties = trackerProperties;
+    this.catalogProperties = catalogProperties;
+    this.persistenceProperties = persistenceProperties;
+    this.meterRegistry = meterRegistry;
+    // before any user is generated or recovered
+    User.setLocationHistoryRetention(locationHistoryProperties.getMaxSize(), locationHistoryProperties.getMaxAge());
+  }
+
   @Bean
   public GpsUtil getGpsUtil() {
     return new GpsUtil();
   }
 
+  @Bean
+  public AttractionCatalog getAttractionCatalog() {
+    return new AttractionCatalog(getGpsUtil(), catalogProperties.getRefreshInterval(), meterRegistry);
+  }
+
   @Bean
   public RewardsService getRewardsService() {
-    return new RewardsService(getGpsUtil(), getRewardCentral());
+    return new RewardsService(getAttractionCatalog(), getRewardCentralClient(), meterRegistry);
   }
 
   @Bean
@@ -24,4 +83,94 @@ public class TourGuideModule {
     return new RewardCentral();
   }
 
+  @Bean
+  public RewardCentralClient getRewardCentralClient() {
+    return new RewardCentralClient(getRewardCentral(), getExecutionEngine().getRewards(), getRewardPointsCache(),
+            meterRegistry);
+  }
+
+  @Bean
+  public RewardPointsCache getRewardPointsCache() {
+    return new RewardPointsCache(ApplicationConfiguation.REWARD_POINTS_CACHE_MAX_SIZE,
+            ApplicationConfiguation.REWARD_POINTS_CACHE_TTL);
+  }
+
+  @Bean
+  public ExecutionEngine getExecutionEngine() {
+    return new ExecutionEngine(executorProperties);
+  }
+
+  @Bean
+  public TrackingPipeline getTrackingPipeline(List<TrackedLocationSink> trackedLocationSinks) {
+    return new TrackingPipeline(getGpsUtil(), getRewardsService(), trackedLocationSinks, trackerProperties,
+            getExecutionEngine(), meterRegistry);
+  }
+
+  @Bean
+  public CurrentLocationPublisher getCurrentLocationPublisher() {
+    return new CurrentLocationPublisher(getUserRepository(), trackerProperties.getSnapshotInterval());
+  }
+
+  @Bean
+  public UserLocationIndex getUserLocationIndex() {
+    return new UserLocationIndex(getUserRepository(), getRewardsService()::getRewardProximity);
+  }
+
+  @Bean
+  public CatalogRewardUpdater getCatalogRewardUpdater() {
+    CatalogRewardUpdater catalogRewardUpdater = new CatalogRewardUpdater(getRewardsService(), getUserLocationIndex(),
+            getUserRepository());
+    getAttractionCatalog().addChangeListener(catalogRewardUpdater::update);
+    return catalogRewardUpdater;
+  }
+
+  @Bean
+  public TourGuideMeterBinder getTourGuideMeterBinder(TrackingPipeline trackingPipeline) {
+    return new TourGuideMeterBinder(getExecutionEngine(), trackingPipeline, getRewardPointsCache(),
+            getTripDealsCache());
+  }
+
+  // the bean name gives the name of the health contributor, internalUsers
+  @Bean(name = "internalUsersHealthIndicator")
+  public InternalUsersHealthIndicator getInternalUsersHealthIndicator(TourGuideService tourGuideService) {
+    return new InternalUsersHealthIndicator(tourGuideService);
+  }
+
+  @Bean
+  public UserRepository getUserRepository() {
+    InMemoryUserRepository userRepository = new InMemoryUserRepository();
+    if (!persistenceProperties.isEnabled()) {
+      return userRepository;
+    }
+    // recovered before any user is added, the internal users are only generated into an empty repository
+    getWriteBehindPersister().recover(userRepository);
+    return new PersistentUserRepository(userRepository, getWriteBehindPersister());
+  }
+
+  @Bean
+  @ConditionalOnProperty(prefix = "tourguide.persistence", name = "enabled", havingValue = "true")
+  public WriteBehindPersister getWriteBehindPersister() {
+    return new WriteBehindPersister(new FileUserStore(persistenceProperties.getPath()),
+            new LocationJournal(persistenceProperties.getJournalDirectory(),
+                    persistenceProperties.getJournalSegmentSize().toBytes()),
+            persistenceProperties.getBatchSize(), persistenceProperties.getSnapshotInterval(), meterRegistry);
+  }
+
+  @Bean
+  public TripPricer getTripPricer() {
+    return new TripPricer();
+  }
+
+  @Bean
+  public TripDealsCache getTripDealsCache() {
+    return new TripDealsCache(ApplicationConfiguation.TRIP_DEALS_CACHE_MAX_SIZE,
+            ApplicationConfiguation.TRIP_DEALS_CACHE_TTL);
+  }
+
+  @Bean
+  public TripPricerClient getTripPricerClient() {
+    return new TripPricerClient(getTripPricer(), getExecutionEngine().getTripPricing(), getTripDealsCache(),
+            meterRegistry);
+  }
+
 }
@@ -0,0 +1,183 @@
+package com.openclassrooms.tourguide.catalog;
+
+import com.openclassrooms.tourguide.configuration.ApplicationConfiguation;
+import com.openclassrooms.tourguide.metrics.ExternalCalls;
+import com.openclassrooms.tourguide.spatial.AttractionIndex;
+import com.openclassrooms.tourguide.spatial.BatchProximity;
+import com.openclassrooms.tourguide.spatial.DistanceEngine;
+import com.openclassrooms.tourguide.spatial.ProximityKernel;
+import gpsUtil.GpsUtil;
+import gpsUtil.location.Attraction;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Attractions loaded once from GpsUtil and kept as an immutable {@link AttractionSnapshot}.
+ * The snapshot is rebuilt on a schedule or on demand and swapped atomically, readers never wait.
+ * <p>
+ * GpsUtil creates new attractions with new IDs on every call; an attraction unchanged by a refresh
+ * keeps its previous instance, so its ID, and the reward points cached for it, stay valid.
+ * Listeners are told about the attractions added, removed or moved by every new snapshot.
+ */
+@Slf4j
+public class AttractionCatalog {
+
+  private final GpsUtil gpsUtil;
+  private final MeterRegistry meterRegistry;
+  private final ProximityKernel proximityKernel = ProximityKernel.create();
+  private final AtomicReference<AttractionSnapshot> snapshot = new AtomicReference<>();
+  private final Object refreshLock = new Object();
+  private final ScheduledExecutorService scheduler;
+  private final List<Consumer<AttractionChanges>> changeListeners = new CopyOnWriteArrayList<>();
+
+  /**
+   * Constructor for AttractionCatalog, without scheduled refresh.
+   *
+   * @param gpsUtil the GPS utility service providing the attractions
+   */
+  public AttractionCatalog(GpsUtil gpsUtil) {
+    this(gpsUtil, Duration.ZERO, Metrics.globalRegistry);
+  }
+
+  /**
+   * Constructor for AttractionCatalog.
+   *
+   * @param gpsUtil         the GPS utility service providing the attractions
+   * @param refreshInterval the delay between two refreshes, no scheduled refresh when zero
+   * @param meterRegistry   the registry timing the GpsUtil calls
+   */
+  public AttractionCatalog(GpsUtil gpsUtil, Duration refreshInterval, MeterRegistry meterRegistry) {
+    this.gpsUtil = gpsUtil;
+    this.meterRegistry = meterRegistry;
+    refresh();
+    log.info("Attraction catalog loaded, batch proximity evaluated with the {} kernel", proximityKernel.getName());
+    if (refreshInterval.isPositive()) {
+      scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "attraction-catalog");
+        thread.setDaemon(true);
+        return thread;
+      });
+      long millis = refreshInterval.toMillis();
+      scheduler.scheduleWithFixedDelay(this::scheduledRefresh, millis, millis, TimeUnit.MILLISECONDS);
+    } else {
+      scheduler = null;
+    }
+  }
+
+  /**
+   * Gets the current snapshot.
+   *
+   * @return the snapshot
+   */
+  public AttractionSnapshot getSnapshot() {
+    return snapshot.get();
+  }
+
+  /**
+   * Gets the current attractions.
+   *
+   * @return the attractions
+   */
+  public List<Attraction> getAttractions() {
+    return snapshot.get().attractions();
+  }
+
+  /**
+   * Registers a listener called, on the refreshing thread, with the changes of every new snapshot.
+   *
+   * @param listener the listener
+   */
+  public void addChangeListener(Consumer<AttractionChanges> listener) {
+    changeListeners.add(listener);
+  }
+
+  /**
+   * Reloads the attractions from GpsUtil and swaps the snapshot if they changed.
+   *
+   * @return the current snapshot
+   */
+  public AttractionSnapshot refresh() {
+    List<Attraction> loaded = ExternalCalls.record(meterRegistry, ExternalCalls.GPS_UTIL, gpsUtil::getAttractions);
+    // refreshes are serialized, so each snapshot is built, logged and notified once, in version order
+    synchronized (refreshLock) {
+      AttractionSnapshot current = snapshot.get();
+      List<Attraction> attractions = reuseUnchanged(current, loaded);
+      if (current != null && current.attractions().equals(attractions)) {
+        return current;
+      }
+      long version = current == null ? 1 : current.version() + 1;
+      log.debug("Attraction catalog version {} with {} attractions", version, attractions.size());
+      AttractionSnapshot refreshed = new AttractionSnapshot(version, attractions, new AttractionIndex(attractions),
+              new DistanceEngine(attractions, ApplicationConfiguation.DISTANCE_MODE),
+              new BatchProximity(attractions, proximityKernel));
+      snapshot.set(refreshed);
+      if (current != null) {
+        notifyChange(AttractionChanges.between(current, refreshed));
+      }
+      return refreshed;
+    }
+  }
+
+  /**
+   * Stops the scheduled refresh.
+   */
+  public void shutdown() {
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+    }
+  }
+
+  private void notifyChange(AttractionChanges changes) {
+    log.info("Attraction catalog version {}: {} added, {} removed and {} moved attractions",
+            changes.current().version(), changes.added().size(), changes.removed().size(), changes.moved().size());
+    for (Consumer<AttractionChanges> listener : changeListeners) {
+      try {
+        listener.accept(changes);
+      } catch (RuntimeException e) {
+        log.error("Attraction catalog change listener failed", e);
+      }
+    }
+  }
+
+  private void scheduledRefresh() {
+    try {
+      refresh();
+    } catch (RuntimeException e) {
+      // keep serving the current snapshot, the next refresh may succeed
+      log.error("Attraction catalog refresh failed", e);
+    }
+  }
+
+  private static List<Attraction> reuseUnchanged(AttractionSnapshot current, List<Attraction> loaded) {
+    Map<String, Attraction> previous = new HashMap<>();
+    if (current != null) {
+      current.attractions().forEach(attraction -> previous.put(attraction.attractionName, attraction));
+    }
+    List<Attraction> attractions = new ArrayList<>(loaded.size());
+    for (Attraction attraction : loaded) {
+      Attraction known = previous.get(attraction.attractionName);
+      attractions.add(known != null && sameAttraction(known, attraction) ? known : attraction);
+    }
+    return List.copyOf(attractions);
+  }
+
+  private static boolean sameAttraction(Attraction a1, Attraction a2) {
+    return Objects.equals(a1.city, a2.city) && Objects.equals(a1.state, a2.state)
+            && a1.latitude == a2.latitude && a1.longitude == a2.longitude;
+  }
+
+}
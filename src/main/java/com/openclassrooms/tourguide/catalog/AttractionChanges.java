@@ -0,0 +1,59 @@
+package com.openclassrooms.tourguide.catalog;
+
+import gpsUtil.location.Attraction;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Difference between two versions of the attraction catalog, attractions being identified by name.
+ *
+ * @param previous the snapshot replaced
+ * @param current  the snapshot replacing it
+ * @param added    the attractions of the current snapshot whose name was not in the previous one
+ * @param removed  the attractions of the previous snapshot whose name is not in the current one
+ * @param moved    the attractions of the current snapshot whose name was in the previous one with
+ *                 another location, city or state
+ */
+public record AttractionChanges(AttractionSnapshot previous, AttractionSnapshot current, List<Attraction> added,
+                                List<Attraction> removed, List<Attraction> moved) {
+
+  /**
+   * Computes the changes from a snapshot to the next one.
+   * The catalog reuses the instance of an unchanged attraction, so any other instance is a change.
+   *
+   * @param previous the snapshot replaced
+   * @param current  the snapshot replacing it
+   * @return the changes
+   */
+  public static AttractionChanges between(AttractionSnapshot previous, AttractionSnapshot current) {
+    Map<String, Attraction> previousByName = new HashMap<>();
+    previous.attractions().forEach(attraction -> previousByName.put(attraction.attractionName, attraction));
+    List<Attraction> added = new ArrayList<>();
+    List<Attraction> moved = new ArrayList<>();
+    for (Attraction attraction : current.attractions()) {
+      Attraction known = previousByName.remove(attraction.attractionName);
+      if (known == null) {
+        added.add(attraction);
+      } else if (known != attraction) {
+        moved.add(attraction);
+      }
+    }
+    return new AttractionChanges(previous, current, List.copyOf(added), List.copyOf(previousByName.values()),
+            List.copyOf(moved));
+  }
+
+  /**
+   * Gets the attractions users may now be rewarded for.
+   *
+   * @return the added and moved attractions
+   */
+  public List<Attraction> getRewardable() {
+    List<Attraction> rewardable = new ArrayList<>(added);
+    rewardable.addAll(moved);
+    return rewardable;
+  }
+
+}
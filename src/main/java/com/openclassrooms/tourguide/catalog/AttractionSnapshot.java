@@ -0,0 +1,22 @@
+package com.openclassrooms.tourguide.catalog;
+
+import com.openclassrooms.tourguide.spatial.AttractionIndex;
+import com.openclassrooms.tourguide.spatial.BatchProximity;
+import com.openclassrooms.tourguide.spatial.DistanceEngine;
+import gpsUtil.location.Attraction;
+
+import java.util.List;
+
+/**
+ * Immutable state of the attraction catalog: the attractions and the spatial data derived from them.
+ * A calculation reads a single snapshot so that it never mixes two versions of the catalog.
+ *
+ * @param version         the version of the catalog, incremented by each refresh changing the attractions
+ * @param attractions     the attractions
+ * @param attractionIndex the index of the attractions by location
+ * @param distanceEngine  the distances with the trigonometry of the attractions computed once
+ * @param batchProximity  the proximity of many locations to the attractions at once
+ */
+public record AttractionSnapshot(long version, List<Attraction> attractions, AttractionIndex attractionIndex,
+                                 DistanceEngine distanceEngine, BatchProximity batchProximity) {
+}
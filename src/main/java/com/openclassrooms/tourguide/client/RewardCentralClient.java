@@ -0,0 +1,128 @@
+package com.openclassrooms.tourguide.client;
+
+import com.openclassrooms.tourguide.executor.TaskLane;
+import com.openclassrooms.tourguide.metrics.ExternalCalls;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+import rewardCentral.RewardCentral;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Non-blocking client for RewardCentral.
+ * Points already known are served from the cache. Otherwise the call runs on the rewards lane of the
+ * execution engine, which bounds the number of calls in flight against RewardCentral,
+ * and concurrent requests for the same attraction and user share a single call.
+ */
+@Slf4j
+public class RewardCentralClient {
+
+  private final RewardCentral rewardCentral;
+  private final TaskLane lane;
+  private final RewardPointsCache cache;
+  private final MeterRegistry meterRegistry;
+  private final ConcurrentMap<RewardKey, CompletableFuture<Integer>> inFlight = new ConcurrentHashMap<>();
+
+  /**
+   * Constructor for RewardCentralClient.
+   *
+   * @param rewardCentral the reward central service
+   * @param lane          the lane running the calls against RewardCentral
+   * @param cache         the cache of the points already returned by RewardCentral
+   */
+  public RewardCentralClient(RewardCentral rewardCentral, TaskLane lane, RewardPointsCache cache) {
+    this(rewardCentral, lane, cache, Metrics.globalRegistry);
+  }
+
+  /**
+   * Constructor for RewardCentralClient.
+   *
+   * @param rewardCentral the reward central service
+   * @param lane          the lane running the calls against RewardCentral
+   * @param cache         the cache of the points already returned by RewardCentral
+   * @param meterRegistry the registry timing the calls against RewardCentral
+   */
+  public RewardCentralClient(RewardCentral rewardCentral, TaskLane lane, RewardPointsCache cache,
+                             MeterRegistry meterRegistry) {
+    this.rewardCentral = rewardCentral;
+    this.lane = lane;
+    this.cache = cache;
+    this.meterRegistry = meterRegistry;
+  }
+
+  /**
+   * Gets the reward points for a user at an attraction.
+   *
+   * @param attractionId the attraction ID
+   * @param userId       the user ID
+   * @return a future completed with the reward points
+   */
+  public CompletableFuture<Integer> getAttractionRewardPoints(UUID attractionId, UUID userId) {
+    RewardKey key = new RewardKey(attractionId, userId);
+    Integer cached = cache.get(key);
+    if (cached != null) {
+      return CompletableFuture.completedFuture(cached);
+    }
+    CompletableFuture<Integer> pending = inFlight.get(key);
+    if (pending != null) {
+      return pending;
+    }
+    CompletableFuture<Integer> future = new CompletableFuture<>();
+    pending = inFlight.putIfAbsent(key, future);
+    if (pending != null) {
+      return pending;
+    }
+    // a call for the key may have completed and left the in-flight calls since the cache was read
+    cached = cache.get(key);
+    if (cached != null) {
+      future.complete(cached);
+      inFlight.remove(key, future);
+      return future;
+    }
+    lane.supply(() -> ExternalCalls.record(meterRegistry, ExternalCalls.REWARD_CENTRAL,
+                    () -> rewardCentral.getAttractionRewardPoints(attractionId, userId)))
+            .whenComplete((rewardPoints, failure) -> {
+              if (failure != null) {
+                log.warn("RewardCentral call failed for attraction {} and user {}", attractionId, userId, failure);
+                future.completeExceptionally(failure);
+              } else {
+                cache.put(key, rewardPoints);
+                future.complete(rewardPoints);
+              }
+              inFlight.remove(key, future);
+            });
+    return future;
+  }
+
+  /**
+   * Gets the reward points for a user at several attractions, all requested concurrently.
+   *
+   * @param attractionIds the attraction IDs
+   * @param userId        the user ID
+   * @return a future completed with the reward points by attraction ID
+   */
+  public CompletableFuture<Map<UUID, Integer>> getAttractionRewardPoints(Collection<UUID> attractionIds, UUID userId) {
+    List<UUID> ids = new ArrayList<>(attractionIds);
+    List<CompletableFuture<Integer>> futures = new ArrayList<>(ids.size());
+    for (UUID attractionId : ids) {
+      futures.add(getAttractionRewardPoints(attractionId, userId));
+    }
+    return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).thenApply(ignored -> {
+      Map<UUID, Integer> points = new HashMap<>();
+      for (int i = 0; i < ids.size(); i++) {
+        points.put(ids.get(i), futures.get(i).join());
+      }
+      return points;
+    });
+  }
+
+}
@@ -0,0 +1,12 @@
+package com.openclassrooms.tourguide.client;
+
+import java.util.UUID;
+
+/**
+ * Identifies the reward points of a user at an attraction.
+ *
+ * @param attractionId the attraction ID
+ * @param userId       the user ID
+ */
+public record RewardKey(UUID attractionId, UUID userId) {
+}
@@ -0,0 +1,99 @@
+package com.openclassrooms.tourguide.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import java.time.Duration;
+
+/**
+ * Bounded cache of the reward points returned by RewardCentral, keyed by attraction and user.
+ * Entries are evicted when the cache is full or once they are older than the time to live.
+ */
+public class RewardPointsCache {
+
+  private final Cache<RewardKey, Integer> cache;
+
+  /**
+   * Constructor for RewardPointsCache.
+   *
+   * @param maximumSize the maximum number of entries
+   * @param timeToLive  how long an entry is kept after being written
+   */
+  public RewardPointsCache(long maximumSize, Duration timeToLive) {
+    this(maximumSize, timeToLive, Ticker.systemTicker());
+  }
+
+  RewardPointsCache(long maximumSize, Duration timeToLive, Ticker ticker) {
+    this.cache = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(timeToLive)
+            .ticker(ticker)
+            .recordStats()
+            .build();
+  }
+
+  /**
+   * Gets the cached reward points.
+   *
+   * @param key the attraction and user
+   * @return the reward points, or null if not cached
+   */
+  public Integer get(RewardKey key) {
+    return cache.getIfPresent(key);
+  }
+
+  /**
+   * Caches reward points.
+   *
+   * @param key          the attraction and user
+   * @param rewardPoints the reward points
+   */
+  public void put(RewardKey key, int rewardPoints) {
+    cache.put(key, rewardPoints);
+  }
+
+  /**
+   * Gets the number of lookups that found an entry.
+   *
+   * @return the hit count
+   */
+  public long getHitCount() {
+    return cache.stats().hitCount();
+  }
+
+  /**
+   * Gets the number of lookups that found no entry.
+   *
+   * @return the miss count
+   */
+  public long getMissCount() {
+    return cache.stats().missCount();
+  }
+
+  /**
+   * Gets the number of entries evicted because of the size or the time to live.
+   *
+   * @return the eviction count
+   */
+  public long getEvictionCount() {
+    return cache.stats().evictionCount();
+  }
+
+  /**
+   * Gets the approximate number of cached entries.
+   *
+   * @return the number of entries
+   */
+  public long getSize() {
+    return cache.estimatedSize();
+  }
+
+  /**
+   * Performs the pending evictions now instead of during the next accesses.
+   */
+  public void cleanUp() {
+    cache.cleanUp();
+  }
+
+}
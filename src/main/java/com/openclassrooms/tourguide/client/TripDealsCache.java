@@ -0,0 +1,94 @@
+package com.openclassrooms.tourguide.client;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import tripPricer.Provider;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of the trip deals returned by TripPricer, keyed by user and preferences.
+ * The pricing in progress is cached as well, so concurrent requests for the same key share it;
+ * a failed pricing is not kept.
+ */
+public class TripDealsCache {
+
+  private final AsyncCache<TripDealsKey, List<Provider>> cache;
+
+  /**
+   * Constructor for TripDealsCache.
+   *
+   * @param maximumSize the maximum number of entries
+   * @param timeToLive  how long an entry is kept after being written
+   */
+  public TripDealsCache(long maximumSize, Duration timeToLive) {
+    this(maximumSize, timeToLive, Ticker.systemTicker());
+  }
+
+  TripDealsCache(long maximumSize, Duration timeToLive, Ticker ticker) {
+    this.cache = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(timeToLive)
+            .ticker(ticker)
+            .recordStats()
+            .buildAsync();
+  }
+
+  /**
+   * Gets the cached trip deals, pricing them when absent.
+   *
+   * @param key    the user and preferences
+   * @param pricer prices the trip deals of a key not cached yet
+   * @return a future completed with the trip deals
+   */
+  public CompletableFuture<List<Provider>> get(TripDealsKey key,
+                                               Function<TripDealsKey, CompletableFuture<List<Provider>>> pricer) {
+    CompletableFuture<List<Provider>> created = new CompletableFuture<>();
+    CompletableFuture<List<Provider>> deals = cache.get(key, (k, executor) -> created);
+    if (deals == created) {
+      // priced outside of the cache computation, which must not wait for the pricing lane
+      pricer.apply(key).whenComplete((providers, failure) -> {
+        if (failure != null) {
+          // removed before completing, so that a retry never finds the failed pricing
+          cache.asMap().remove(key, created);
+          created.completeExceptionally(failure);
+        } else {
+          created.complete(providers);
+        }
+      });
+    }
+    return deals;
+  }
+
+  /**
+   * Gets the number of lookups that found an entry, priced or being priced.
+   *
+   * @return the hit count
+   */
+  public long getHitCount() {
+    return cache.synchronous().stats().hitCount();
+  }
+
+  /**
+   * Gets the number of lookups that found no entry.
+   *
+   * @return the miss count
+   */
+  public long getMissCount() {
+    return cache.synchronous().stats().missCount();
+  }
+
+  /**
+   * Gets the approximate number of cached entries.
+   *
+   * @return the number of entries
+   */
+  public long getSize() {
+    return cache.synchronous().estimatedSize();
+  }
+
+}
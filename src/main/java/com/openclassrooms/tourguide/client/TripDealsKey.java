@@ -0,0 +1,15 @@
+package com.openclassrooms.tourguide.client;
+
+import java.util.UUID;
+
+/**
+ * Identifies the trip deals priced for a user and a set of preferences.
+ *
+ * @param userId       the user ID
+ * @param adults       the number of adults
+ * @param children     the number of children
+ * @param nightsStay   the trip duration
+ * @param rewardPoints the reward points of the user, rounded down to their bucket
+ */
+public record TripDealsKey(UUID userId, int adults, int children, int nightsStay, int rewardPoints) {
+}
@@ -0,0 +1,81 @@
+package com.openclassrooms.tourguide.client;
+
+import com.openclassrooms.tourguide.configuration.ApplicationConfiguation;
+import com.openclassrooms.tourguide.executor.TaskLane;
+import com.openclassrooms.tourguide.metrics.ExternalCalls;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import tripPricer.Provider;
+import tripPricer.TripPricer;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking client for TripPricer.
+ * Deals already priced for the same user and preferences are served from the cache. Otherwise the call
+ * runs on the trip pricing lane of the execution engine, and concurrent requests for the same key
+ * share a single call.
+ * <p>
+ * Reward points are rounded down to a bucket, both in the cache key and in the call: TripPricer prices
+ * the deals of a user with 199 points as for 100 points, so that the deals cached for the bucket are
+ * the ones TripPricer would return for any total in it, and a few more points do not invalidate them.
+ */
+public class TripPricerClient {
+
+  private final TripPricer tripPricer;
+  private final TaskLane lane;
+  private final TripDealsCache cache;
+  private final MeterRegistry meterRegistry;
+
+  /**
+   * Constructor for TripPricerClient.
+   *
+   * @param tripPricer the trip pricing provider
+   * @param lane       the lane running the calls against TripPricer
+   * @param cache      the cache of the deals already priced
+   */
+  public TripPricerClient(TripPricer tripPricer, TaskLane lane, TripDealsCache cache) {
+    this(tripPricer, lane, cache, Metrics.globalRegistry);
+  }
+
+  /**
+   * Constructor for TripPricerClient.
+   *
+   * @param tripPricer    the trip pricing provider
+   * @param lane          the lane running the calls against TripPricer
+   * @param cache         the cache of the deals already priced
+   * @param meterRegistry the registry timing the calls against TripPricer
+   */
+  public TripPricerClient(TripPricer tripPricer, TaskLane lane, TripDealsCache cache, MeterRegistry meterRegistry) {
+    this.tripPricer = tripPricer;
+    this.lane = lane;
+    this.cache = cache;
+    this.meterRegistry = meterRegistry;
+  }
+
+  /**
+   * Gets the trip deals for a user.
+   *
+   * @param apiKey       the TripPricer API key
+   * @param userId       the user ID
+   * @param adults       the number of adults
+   * @param children     the number of children
+   * @param nightsStay   the trip duration
+   * @param rewardPoints the reward points of the user, priced rounded down to their bucket
+   * @return a future completed with the trip deals
+   */
+  public CompletableFuture<List<Provider>> getPrice(String apiKey, UUID userId, int adults, int children,
+                                                    int nightsStay, int rewardPoints) {
+    TripDealsKey key = new TripDealsKey(userId, adults, children, nightsStay, bucketOf(rewardPoints));
+    return cache.get(key, k -> lane.supply(() -> List.copyOf(ExternalCalls.record(meterRegistry,
+            ExternalCalls.TRIP_PRICER, () -> tripPricer.getPrice(apiKey, k.userId(), k.adults(), k.children(),
+                    k.nightsStay(), k.rewardPoints())))));
+  }
+
+  private static int bucketOf(int rewardPoints) {
+    return rewardPoints - Math.floorMod(rewardPoints, ApplicationConfiguation.TRIP_DEALS_REWARD_POINTS_BUCKET);
+  }
+
+}
@@ -1,22 +1,42 @@
 package com.openclassrooms.tourguide.configuration;
 
+import com.openclassrooms.tourguide.spatial.DistanceMode;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 @Configuration
 public class ApplicationConfiguation {
 
   public final static boolean TEST_MODE = true;
 
-  public final static int INTERNAL_TEST_USER_NUMBER = 100;
+  // override with -Dtourguide.internal-user-number=100000 to run the high volume tests at scale
+  public final static int INTERNAL_TEST_USER_NUMBER = Integer.getInteger("tourguide.internal-user-number", 100);
 
   public final static boolean PARALLEL_PROCESSING = true;
 
-  public final static int MAX_THREAD_TRACK = 5000;
+  public final static long REWARD_POINTS_CACHE_MAX_SIZE = 500_000;
+
+  public final static Duration REWARD_POINTS_CACHE_TTL = Duration.ofHours(1);
+
+  public final static long TRIP_DEALS_CACHE_MAX_SIZE = 100_000;
+
+  public final static Duration TRIP_DEALS_CACHE_TTL = Duration.ofMinutes(10);
 
-  public final static int MAX_THREAD_REWARD = 5000;
+  // trip deals are priced with the reward points rounded down to this bucket, and again once they reach the next one
+  public final static int TRIP_DEALS_REWARD_POINTS_BUCKET = 100;
+
+  public final static int LOCATION_HISTORY_MAX_SIZE = 500;
+
+  public final static Duration LOCATION_HISTORY_MAX_AGE = Duration.ofDays(30);
 
   public final static int ATTRACTION_PROXIMITY_RANGE = 200;
 
+  // rewards radius in miles of the users who did not set their attraction proximity
+  public final static int DEFAULT_REWARD_PROXIMITY = 10;
+
+  public final static DistanceMode DISTANCE_MODE = DistanceMode.HAVERSINE;
+
   public final static int MAX_ATTRACTION_TO_SHOW = 5;
 
 }
@@ -0,0 +1,21 @@
+package com.openclassrooms.tourguide.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Refreshing of the attraction catalog.
+ * Bound to the {@code tourguide.catalog} properties.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "tourguide.catalog")
+public class CatalogProperties {
+
+  // the attractions are reloaded from GpsUtil once per interval, never when zero
+  private Duration refreshInterval = Duration.ofHours(1);
+
+}
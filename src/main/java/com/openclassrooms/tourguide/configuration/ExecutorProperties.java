@@ -0,0 +1,36 @@
+package com.openclassrooms.tourguide.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Sizing of the shared execution engine, one lane per workload.
+ * Bound to the {@code tourguide.executor} properties.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "tourguide.executor")
+public class ExecutorProperties {
+
+  private Lane rewards = new Lane(1000, 100_000);
+  private Lane tripPricing = new Lane(100, 1000);
+
+  @Getter
+  @Setter
+  public static class Lane {
+    // tasks running at the same time
+    private int concurrency;
+    // tasks waiting for a running slot before submitters are blocked
+    private int queueCapacity;
+
+    public Lane() {
+    }
+
+    public Lane(int concurrency, int queueCapacity) {
+      this.concurrency = concurrency;
+      this.queueCapacity = queueCapacity;
+    }
+  }
+
+}
@@ -0,0 +1,28 @@
+package com.openclassrooms.tourguide.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Generation of the internal test users.
+ * Bound to the {@code tourguide.internal-users} properties.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "tourguide.internal-users")
+public class InternalUsersProperties {
+
+  // when the users are generated, the readiness probe is down until they are
+  private Generation generation = Generation.EAGER;
+
+  public enum Generation {
+    // before the service is constructed
+    EAGER,
+    // in the background from startup, user lookups wait for the generation to end
+    BACKGROUND,
+    // on the first user lookup, which waits for the generation to end; the tracker skips its slots until then
+    LAZY
+  }
+
+}
@@ -0,0 +1,24 @@
+package com.openclassrooms.tourguide.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Retention of the visited locations of each user.
+ * Bound to the {@code tourguide.location-history} properties.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "tourguide.location-history")
+public class LocationHistoryProperties {
+
+  // the oldest locations are dropped beyond this count
+  private int maxSize = ApplicationConfiguation.LOCATION_HISTORY_MAX_SIZE;
+
+  // locations older than this are dropped, the latest one is always kept
+  private Duration maxAge = ApplicationConfiguation.LOCATION_HISTORY_MAX_AGE;
+
+}
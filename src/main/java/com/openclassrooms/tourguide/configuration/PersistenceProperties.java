@@ -0,0 +1,33 @@
+package com.openclassrooms.tourguide.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Persistence of the users, their locations and their rewards.
+ * Bound to the {@code tourguide.persistence} properties.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "tourguide.persistence")
+public class PersistenceProperties {
+
+  // users only live in memory when disabled
+  private boolean enabled = false;
+  // file the user changes are appended to
+  private Path path = Path.of("data", "users.log");
+  // maximum number of changes written to the file at once
+  private int batchSize = 10_000;
+  // directory of the memory-mapped location journal
+  private Path journalDirectory = Path.of("data", "locations");
+  // size of a journal segment file, at most 2GB
+  private DataSize journalSegmentSize = DataSize.ofMegabytes(64);
+  // the retained locations are written to a snapshot once per interval, replacing the older segments
+  private Duration snapshotInterval = Duration.ofHours(1);
+
+}
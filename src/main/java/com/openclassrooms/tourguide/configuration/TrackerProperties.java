@@ -0,0 +1,56 @@
+package com.openclassrooms.tourguide.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Scheduling of the tracker and sizing of its pipeline stages.
+ * Bound to the {@code tourguide.tracker} properties.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "tourguide.tracker")
+public class TrackerProperties {
+
+  // every user is tracked once per interval
+  private Duration interval = Duration.ofMinutes(5);
+  // users are split in that many shards, each tracked in its own slot of the interval
+  private int shards = 30;
+  // upper bound of the random delay before the first slot
+  private Duration maxJitter = Duration.ofSeconds(10);
+  // the latest position of every user is published once per interval, never when zero
+  private Duration snapshotInterval = Duration.ofSeconds(5);
+
+  private Stage fetch = new Stage(1000, 10_000);
+  private Stage append = new Stage(4, 10_000);
+  private Stage rewards = new Stage(1000, 10_000, 256);
+  private Stage persist = new Stage(4, 10_000);
+
+  @Getter
+  @Setter
+  public static class Stage {
+    // workers taking users from the stage queue
+    private int workers;
+    // users waiting in the stage queue before the previous stage is blocked
+    private int queueCapacity;
+    // users a worker takes at once from the queue when they are waiting, for the stages working by batch
+    private int batchSize = 1;
+
+    public Stage() {
+    }
+
+    public Stage(int workers, int queueCapacity) {
+      this.workers = workers;
+      this.queueCapacity = queueCapacity;
+    }
+
+    public Stage(int workers, int queueCapacity, int batchSize) {
+      this(workers, queueCapacity);
+      this.batchSize = batchSize;
+    }
+  }
+
+}
@@ -0,0 +1,23 @@
+package com.openclassrooms.tourguide.dto;
+
+import com.openclassrooms.tourguide.location.CurrentLocation;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Latest position of the users, all of them or those changed since a version.
+ * The version is passed back as {@code sinceVersion} to get the next changes only.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CurrentLocationsDto {
+
+  private long version;
+  private Map<UUID, CurrentLocation> locations;
+
+}
@@ -0,0 +1,21 @@
+package com.openclassrooms.tourguide.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A page of users, in username order.
+ * The next page is requested with the cursor, which is null on the last page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserPageDto {
+
+  private List<?> users;
+  private String nextCursor;
+
+}
@@ -0,0 +1,43 @@
+package com.openclassrooms.tourguide.dto;
+
+import com.openclassrooms.tourguide.user.User;
+import gpsUtil.location.VisitedLocation;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Projection of a user without the location history, the rewards details and the trip deals.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSummaryDto {
+
+  private UUID userId;
+  private String userName;
+  private String emailAddress;
+  private Double lastLatitude;
+  private Double lastLongitude;
+  private Date lastVisited;
+  private int rewardCount;
+  private int rewardPoints;
+
+  public UserSummaryDto(User user) {
+    this.userId = user.getUserId();
+    this.userName = user.getUserName();
+    this.emailAddress = user.getEmailAddress();
+    VisitedLocation lastVisitedLocation = user.getLastVisitedLocation();
+    if (lastVisitedLocation != null) {
+      this.lastLatitude = lastVisitedLocation.location.latitude;
+      this.lastLongitude = lastVisitedLocation.location.longitude;
+      this.lastVisited = lastVisitedLocation.timeVisited;
+    }
+    this.rewardCount = user.getUserRewards().size();
+    this.rewardPoints = user.getRewardPointsTotal();
+  }
+
+}
@@ -0,0 +1,30 @@
+package com.openclassrooms.tourguide.dto;
+
+import com.openclassrooms.tourguide.user.User;
+
+/**
+ * Fields of the users returned by the user listing.
+ */
+public enum UserView {
+
+  /**
+   * Every field of the user, the whole location history included.
+   */
+  FULL,
+
+  /**
+   * The fields of {@link UserSummaryDto} only.
+   */
+  SUMMARY;
+
+  /**
+   * Projects a user.
+   *
+   * @param user the user
+   * @return the user itself or its summary
+   */
+  public Object of(User user) {
+    return this == SUMMARY ? new UserSummaryDto(user) : user;
+  }
+
+}
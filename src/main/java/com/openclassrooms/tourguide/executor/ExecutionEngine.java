@@ -0,0 +1,78 @@
+package com.openclassrooms.tourguide.executor;
+
+import com.openclassrooms.tourguide.configuration.ExecutorProperties;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Long-lived execution engine shared by the tracker, the rewards and the trip pricing.
+ * Every task runs on its own virtual thread; each workload gets its own {@link TaskLane}
+ * so that one workload waiting on another can never starve it of slots.
+ * The tracker pipeline runs its long-lived stage workers on the same executor.
+ */
+public class ExecutionEngine {
+
+  private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+          Thread.ofVirtual().name("tourguide-task-", 0).factory());
+  @Getter
+  private final TaskLane rewards;
+  @Getter
+  private final TaskLane tripPricing;
+
+  /**
+   * Constructor for ExecutionEngine.
+   *
+   * @param properties the sizing of each lane
+   */
+  public ExecutionEngine(ExecutorProperties properties) {
+    this.rewards = createLane("rewards", properties.getRewards());
+    this.tripPricing = createLane("tripPricing", properties.getTripPricing());
+  }
+
+  /**
+   * Gets the engine shared by the services constructed without one.
+   * Created on first use with the default sizing and never shut down; it holds no thread while idle.
+   *
+   * @return the default engine
+   */
+  public static ExecutionEngine getDefault() {
+    return DefaultHolder.ENGINE;
+  }
+
+  /**
+   * Gets all the lanes of the engine.
+   *
+   * @return the lanes
+   */
+  public List<TaskLane> getLanes() {
+    return List.of(rewards, tripPricing);
+  }
+
+  /**
+   * Starts a long-lived worker outside of any lane.
+   *
+   * @param worker the worker loop, expected to return once interrupted
+   */
+  public void startWorker(Runnable worker) {
+    executor.execute(worker);
+  }
+
+  /**
+   * Stops accepting tasks and interrupts the running ones.
+   */
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  private TaskLane createLane(String name, ExecutorProperties.Lane lane) {
+    return new TaskLane(name, executor, lane.getConcurrency(), lane.getQueueCapacity());
+  }
+
+  private static final class DefaultHolder {
+    private static final ExecutionEngine ENGINE = new ExecutionEngine(new ExecutorProperties());
+  }
+
+}
@@ -0,0 +1,165 @@
+package com.openclassrooms.tourguide.executor;
+
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Bulkhead for one workload on top of the shared executor.
+ * At most {@code concurrency} tasks run at once and at most {@code queueCapacity} more wait for a slot;
+ * beyond that, submitting blocks the caller until a task finishes.
+ */
+public class TaskLane {
+
+  @Getter
+  private final String name;
+  private final Executor executor;
+  @Getter
+  private final int concurrency;
+  private final Semaphore running;
+  private final Semaphore admission;
+  private final AtomicInteger queued = new AtomicInteger();
+  private final AtomicInteger active = new AtomicInteger();
+  private final LongAdder completed = new LongAdder();
+
+  /**
+   * Constructor for TaskLane.
+   *
+   * @param name          the workload name
+   * @param executor      the executor running the tasks
+   * @param concurrency   the maximum number of tasks running at once
+   * @param queueCapacity the maximum number of tasks waiting to run
+   */
+  public TaskLane(String name, Executor executor, int concurrency, int queueCapacity) {
+    this.name = name;
+    this.executor = executor;
+    this.concurrency = concurrency;
+    this.running = new Semaphore(concurrency);
+    this.admission = new Semaphore(concurrency + queueCapacity);
+  }
+
+  /**
+   * Runs a task producing a value.
+   *
+   * @param task the task
+   * @param <T>  the type of the value
+   * @return a future completed with the value of the task
+   */
+  public <T> CompletableFuture<T> supply(Supplier<T> task) {
+    CompletableFuture<T> future = new CompletableFuture<>();
+    try {
+      admission.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      future.completeExceptionally(e);
+      return future;
+    }
+    queued.incrementAndGet();
+    try {
+      executor.execute(() -> execute(task, future));
+    } catch (RejectedExecutionException e) {
+      queued.decrementAndGet();
+      admission.release();
+      future.completeExceptionally(e);
+    }
+    return future;
+  }
+
+  /**
+   * Runs a task.
+   *
+   * @param task the task
+   * @return a future completed when the task is done
+   */
+  public CompletableFuture<Void> run(Runnable task) {
+    return supply(() -> {
+      task.run();
+      return null;
+    });
+  }
+
+  /**
+   * Runs an action for each item.
+   *
+   * @param items  the items
+   * @param action the action
+   * @param <T>    the type of the items
+   * @return a future completed when the action is done for every item
+   */
+  public <T> CompletableFuture<Void> forEach(Collection<T> items, Consumer<? super T> action) {
+    CompletableFuture<?>[] futures = new CompletableFuture<?>[items.size()];
+    int i = 0;
+    for (T item : items) {
+      futures[i++] = run(() -> action.accept(item));
+    }
+    return CompletableFuture.allOf(futures);
+  }
+
+  /**
+   * Gets the number of tasks waiting for a running slot.
+   *
+   * @return the queue depth
+   */
+  public int getQueueDepth() {
+    return queued.get();
+  }
+
+  /**
+   * Gets the number of tasks currently running.
+   *
+   * @return the active task count
+   */
+  public int getActiveTaskCount() {
+    return active.get();
+  }
+
+  /**
+   * Gets the number of tasks that have finished, successfully or not.
+   *
+   * @return the completed task count
+   */
+  public long getCompletedTaskCount() {
+    return completed.sum();
+  }
+
+  private <T> void execute(Supplier<T> task, CompletableFuture<T> future) {
+    try {
+      running.acquire();
+    } catch (InterruptedException e) {
+      queued.decrementAndGet();
+      admission.release();
+      Thread.currentThread().interrupt();
+      future.completeExceptionally(e);
+      return;
+    }
+    queued.decrementAndGet();
+    active.incrementAndGet();
+    T result = null;
+    Throwable failure = null;
+    try {
+      result = task.get();
+    } catch (Throwable t) {
+      failure = t;
+    } finally {
+      active.decrementAndGet();
+      completed.increment();
+      running.release();
+      admission.release();
+    }
+    // completed once the slot is free, the dependent stages may submit to this lane again
+    if (failure != null) {
+      future.completeExceptionally(failure);
+    } else {
+      future.complete(result);
+    }
+  }
+
+}
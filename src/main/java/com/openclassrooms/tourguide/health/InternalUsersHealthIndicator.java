@@ -0,0 +1,34 @@
+package com.openclassrooms.tourguide.health;
+
+import com.openclassrooms.tourguide.service.TourGuideService;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+
+/**
+ * Out of service until the users are loaded, so that the readiness probe only lets traffic in
+ * once the user lookups no longer wait for the internal users to be generated.
+ * Down, with the cause, if the generation failed.
+ */
+public class InternalUsersHealthIndicator implements HealthIndicator {
+
+  private final TourGuideService tourGuideService;
+
+  /**
+   * Constructor for InternalUsersHealthIndicator.
+   *
+   * @param tourGuideService the service loading the users
+   */
+  public InternalUsersHealthIndicator(TourGuideService tourGuideService) {
+    this.tourGuideService = tourGuideService;
+  }
+
+  @Override
+  public Health health() {
+    Throwable failure = tourGuideService.getUsersLoadFailure();
+    if (failure != null) {
+      return Health.down().withException(failure).build();
+    }
+    return tourGuideService.isUsersLoaded() ? Health.up().build() : Health.outOfService().build();
+  }
+
+}
@@ -0,0 +1,71 @@
+package com.openclassrooms.tourguide.helper;
+
+import com.openclassrooms.tourguide.user.User;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Generates the internal test users, each with a short random location history.
+ * Users are generated in parallel; every thread draws from its own {@link ThreadLocalRandom},
+ * user IDs included, so the threads never contend on a shared random generator.
+ */
+public class InternalUserGenerator {
+
+  private static final int HISTORY_LENGTH = 3;
+  private static final double MAX_LATITUDE = 85.05112878;
+  private static final int HISTORY_DAYS = 30;
+  private static final long DAY_MILLIS = Duration.ofDays(1).toMillis();
+
+  private final Clock clock;
+
+  public InternalUserGenerator() {
+    this(Clock.systemUTC());
+  }
+
+  InternalUserGenerator(Clock clock) {
+    this.clock = clock;
+  }
+
+  /**
+   * Generates users named internalUser0 to internalUser(count - 1).
+   *
+   * @param count the number of users
+   * @return the users, in the order of their number
+   */
+  public List<User> generate(int count) {
+    // read once, every generated time is a whole number of days before it
+    long now = clock.millis();
+    User[] users = new User[count];
+    IntStream.range(0, count).parallel().forEach(i -> users[i] = generate(i, now));
+    return Arrays.asList(users);
+  }
+
+  private User generate(int number, long now) {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    String userName = "internalUser" + number;
+    User user = new User(randomUserId(random), userName, "000", userName + "@tourGuide.com");
+    for (int i = 0; i < HISTORY_LENGTH; i++) {
+      Location location = new Location(random.nextDouble(-MAX_LATITUDE, MAX_LATITUDE), random.nextDouble(-180, 180));
+      Date time = new Date(now - random.nextInt(HISTORY_DAYS) * DAY_MILLIS);
+      user.addToVisitedLocations(new VisitedLocation(user.getUserId(), location, time));
+    }
+    return user;
+  }
+
+  // random version 4 UUID, without the lock of the secure random behind UUID.randomUUID()
+  private static UUID randomUserId(ThreadLocalRandom random) {
+    long mostSignificantBits = random.nextLong() & ~0xF000L | 0x4000L;
+    long leastSignificantBits = random.nextLong() & ~(0xCL << 60) | (0x8L << 60);
+    return new UUID(mostSignificantBits, leastSignificantBits);
+  }
+
+}
@@ -0,0 +1,13 @@
+package com.openclassrooms.tourguide.location;
+
+import java.util.Date;
+
+/**
+ * Latest known position of a user.
+ *
+ * @param latitude    the latitude
+ * @param longitude   the longitude
+ * @param timeVisited when the user was there
+ */
+public record CurrentLocation(double latitude, double longitude, Date timeVisited) {
+}
@@ -0,0 +1,169 @@
+package com.openclassrooms.tourguide.location;
+
+import com.openclassrooms.tourguide.repository.UserRepository;
+import com.openclassrooms.tourguide.tracker.TrackedLocationSink;
+import com.openclassrooms.tourguide.user.User;
+import gpsUtil.location.VisitedLocation;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maintains the latest position of every user for bulk readers.
+ * The tracker hands every tracked location over; they are merged into a new
+ * {@link CurrentLocationSnapshot} once per publication interval and the snapshot is swapped,
+ * so readers never iterate over the users nor wait for the tracker.
+ * <p>
+ * Users are taken from the repository once, when their count changes, for the locations
+ * they had before being tracked.
+ */
+@Slf4j
+public class CurrentLocationPublisher implements TrackedLocationSink {
+
+  private final UserRepository userRepository;
+  // latest location of each user tracked since the last publication
+  private final Map<UUID, VisitedLocation> pending = new ConcurrentHashMap<>();
+  // position of each user in the snapshot columns, only used by the publishing thread
+  private final Map<UUID, Integer> positions = new HashMap<>();
+  private final ScheduledExecutorService scheduler;
+  private final Object publishLock = new Object();
+  private volatile CurrentLocationSnapshot snapshot = CurrentLocationSnapshot.EMPTY;
+  private int knownUserCount = -1;
+
+  /**
+   * Constructor for CurrentLocationPublisher, without scheduled publication.
+   *
+   * @param userRepository the storage of the users
+   */
+  public CurrentLocationPublisher(UserRepository userRepository) {
+    this(userRepository, Duration.ZERO);
+  }
+
+  /**
+   * Constructor for CurrentLocationPublisher.
+   *
+   * @param userRepository  the storage of the users
+   * @param publishInterval the delay between two publications, no scheduled publication when zero
+   */
+  public CurrentLocationPublisher(UserRepository userRepository, Duration publishInterval) {
+    this.userRepository = userRepository;
+    if (publishInterval.isPositive()) {
+      scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "current-location-publisher");
+        thread.setDaemon(true);
+        return thread;
+      });
+      long millis = publishInterval.toMillis();
+      scheduler.scheduleWithFixedDelay(this::scheduledPublish, 0, millis, TimeUnit.MILLISECONDS);
+    } else {
+      scheduler = null;
+    }
+  }
+
+  @Override
+  public void accept(User user, VisitedLocation visitedLocation) {
+    pending.put(user.getUserId(), visitedLocation);
+  }
+
+  /**
+   * Gets the latest published snapshot.
+   *
+   * @return the snapshot
+   */
+  public CurrentLocationSnapshot getSnapshot() {
+    return snapshot;
+  }
+
+  /**
+   * Merges the locations tracked since the last publication into a new snapshot.
+   *
+   * @return the published snapshot, the previous one if nothing changed
+   */
+  public CurrentLocationSnapshot publish() {
+    synchronized (publishLock) {
+      CurrentLocationSnapshot previous = snapshot;
+      long version = previous.getVersion() + 1;
+      Map<UUID, VisitedLocation> changes = drainPending();
+      addUntrackedUsers(changes);
+      if (changes.isEmpty()) {
+        return previous;
+      }
+
+      int size = previous.size();
+      for (UUID userId : changes.keySet()) {
+        if (!positions.containsKey(userId)) {
+          positions.put(userId, size++);
+        }
+      }
+      UUID[] userIds = Arrays.copyOf(previous.userIds(), size);
+      double[] latitudes = Arrays.copyOf(previous.latitudes(), size);
+      double[] longitudes = Arrays.copyOf(previous.longitudes(), size);
+      long[] times = Arrays.copyOf(previous.times(), size);
+      long[] versions = Arrays.copyOf(previous.versions(), size);
+      changes.forEach((userId, visitedLocation) -> {
+        int i = positions.get(userId);
+        userIds[i] = userId;
+        latitudes[i] = visitedLocation.location.latitude;
+        longitudes[i] = visitedLocation.location.longitude;
+        times[i] = visitedLocation.timeVisited == null
+                ? CurrentLocationSnapshot.NO_TIME : visitedLocation.timeVisited.getTime();
+        versions[i] = version;
+      });
+      snapshot = new CurrentLocationSnapshot(version, userIds, latitudes, longitudes, times, versions);
+      return snapshot;
+    }
+  }
+
+  /**
+   * Stops the scheduled publication.
+   */
+  public void shutdown() {
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+    }
+  }
+
+  private Map<UUID, VisitedLocation> drainPending() {
+    Map<UUID, VisitedLocation> changes = new HashMap<>();
+    for (UUID userId : pending.keySet()) {
+      VisitedLocation visitedLocation = pending.remove(userId);
+      if (visitedLocation != null) {
+        changes.put(userId, visitedLocation);
+      }
+    }
+    return changes;
+  }
+
+  private void addUntrackedUsers(Map<UUID, VisitedLocation> changes) {
+    int userCount = userRepository.count();
+    if (userCount == knownUserCount) {
+      return;
+    }
+    knownUserCount = userCount;
+    userRepository.stream()
+            .filter(user -> !positions.containsKey(user.getUserId()) && !changes.containsKey(user.getUserId()))
+            .forEach(user -> {
+              VisitedLocation lastVisitedLocation = user.getLastVisitedLocation();
+              if (lastVisitedLocation != null) {
+                changes.put(user.getUserId(), lastVisitedLocation);
+              }
+            });
+  }
+
+  private void scheduledPublish() {
+    try {
+      publish();
+    } catch (RuntimeException e) {
+      log.error("Current location publication failed", e);
+    }
+  }
+
+}
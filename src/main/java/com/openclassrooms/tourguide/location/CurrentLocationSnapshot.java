@@ -0,0 +1,93 @@
+package com.openclassrooms.tourguide.location;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Immutable latest position of every user, published by {@link CurrentLocationPublisher}.
+ * Positions are kept as primitive columns; each entry records the version that last changed it,
+ * so that the changes since any earlier version can be told apart.
+ */
+public final class CurrentLocationSnapshot {
+
+  // stored time of a location without a timestamp
+  static final long NO_TIME = Long.MIN_VALUE;
+
+  static final CurrentLocationSnapshot EMPTY = new CurrentLocationSnapshot(0, new UUID[0], new double[0],
+          new double[0], new long[0], new long[0]);
+
+  private final long version;
+  private final UUID[] userIds;
+  private final double[] latitudes;
+  private final double[] longitudes;
+  private final long[] times;
+  private final long[] versions;
+
+  CurrentLocationSnapshot(long version, UUID[] userIds, double[] latitudes, double[] longitudes, long[] times,
+                          long[] versions) {
+    this.version = version;
+    this.userIds = userIds;
+    this.latitudes = latitudes;
+    this.longitudes = longitudes;
+    this.times = times;
+    this.versions = versions;
+  }
+
+  /**
+   * Gets the version of the snapshot, incremented by each publication.
+   *
+   * @return the version
+   */
+  public long getVersion() {
+    return version;
+  }
+
+  /**
+   * Gets the number of users with a known position.
+   *
+   * @return the number of positions
+   */
+  public int size() {
+    return userIds.length;
+  }
+
+  /**
+   * Gets the positions changed after a version.
+   *
+   * @param sinceVersion the version already known by the caller, 0 for every position
+   * @return the positions by user ID
+   */
+  public Map<UUID, CurrentLocation> getLocationsSince(long sinceVersion) {
+    Map<UUID, CurrentLocation> locations = new LinkedHashMap<>();
+    for (int i = 0; i < userIds.length; i++) {
+      if (versions[i] > sinceVersion) {
+        locations.put(userIds[i], new CurrentLocation(latitudes[i], longitudes[i],
+                times[i] == NO_TIME ? null : new Date(times[i])));
+      }
+    }
+    return locations;
+  }
+
+  UUID[] userIds() {
+    return userIds;
+  }
+
+  double[] latitudes() {
+    return latitudes;
+  }
+
+  double[] longitudes() {
+    return longitudes;
+  }
+
+  long[] times() {
+    return times;
+  }
+
+  long[] versions() {
+    return versions;
+  }
+
+}
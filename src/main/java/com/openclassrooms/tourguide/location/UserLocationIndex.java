@@ -0,0 +1,237 @@
+package com.openclassrooms.tourguide.location;
+
+import com.openclassrooms.tourguide.repository.UserRepository;
+import com.openclassrooms.tourguide.tracker.TrackedLocationSink;
+import com.openclassrooms.tourguide.user.User;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToIntFunction;
+
+/**
+ * Grids of one degree cells telling which users visited a location in each cell, one grid for each
+ * reward proximity in use, so that a search only widens its radius for the users of a wide proximity.
+ * The tracker hands every tracked location over; users are taken from the repository, with the
+ * locations they had before being tracked, when their count changes.
+ * <p>
+ * Each user keeps the set of cells the user is indexed in. Once it has doubled since it was last
+ * derived from the retained history, it is derived again and the user leaves the cells of the locations
+ * no longer retained, so the index stays proportional to the bounded histories.
+ * The cells of a user may still include some of those locations: a search returns a superset, callers
+ * check the locations themselves. A user whose reward proximity changed moves to the grid of the new one
+ * before each search, without waiting to be tracked again.
+ */
+public class UserLocationIndex implements TrackedLocationSink {
+
+  private static final double MILES_PER_DEGREE_OF_LATITUDE = 69.055;
+  private static final int MIN_CELLS_BEFORE_PRUNING = 16;
+
+  private final UserRepository userRepository;
+  private final ToIntFunction<User> rewardProximity;
+  // users by cell, for each reward proximity
+  private final Map<Integer, Map<Integer, Set<UUID>>> gridsByProximity = new ConcurrentHashMap<>();
+  private final Map<UUID, IndexedUser> indexedUsers = new ConcurrentHashMap<>();
+  private final Object seedLock = new Object();
+  private int knownUserCount = -1;
+
+  /**
+   * Constructor for UserLocationIndex.
+   *
+   * @param userRepository  the storage of the users
+   * @param rewardProximity the radius in miles within which a user is rewarded for an attraction
+   */
+  public UserLocationIndex(UserRepository userRepository, ToIntFunction<User> rewardProximity) {
+    this.userRepository = userRepository;
+    this.rewardProximity = rewardProximity;
+  }
+
+  @Override
+  public void accept(User user, VisitedLocation visitedLocation) {
+    IndexedUser indexedUser = indexedUsers.computeIfAbsent(user.getUserId(), userId -> new IndexedUser());
+    int cell = cellOf(visitedLocation.location);
+    synchronized (indexedUser) {
+      int proximity = rewardProximity.applyAsInt(user);
+      if (proximity != indexedUser.proximity || indexedUser.cells.size() >= indexedUser.pruneAt) {
+        reindex(user, indexedUser, proximity, cell);
+      } else if (indexedUser.cells.add(cell)) {
+        addToCell(proximity, cell, user.getUserId());
+      }
+    }
+  }
+
+  /**
+   * Finds the users who visited a location in the cells within their reward proximity of a location.
+   *
+   * @param center the location
+   * @return the IDs of the users, a superset of those with a retained location within their reward proximity
+   */
+  public Set<UUID> findUsersNear(Location center) {
+    return findUsersNear(List.of(center));
+  }
+
+  /**
+   * Finds the users who visited a location in the cells within their reward proximity of any of several locations.
+   *
+   * @param centers the locations
+   * @return the IDs of the users, a superset of those with a retained location within their reward proximity
+   */
+  public Set<UUID> findUsersNear(Collection<? extends Location> centers) {
+    addUnindexedUsers();
+    reindexChangedProximities();
+    Set<UUID> users = new HashSet<>();
+    for (Location center : centers) {
+      gridsByProximity.forEach((proximity, grid) -> collect(grid, center, proximity, users));
+    }
+    return users;
+  }
+
+  /**
+   * Gets the number of (cell, user) entries held by the index.
+   *
+   * @return the number of entries
+   */
+  public long size() {
+    return gridsByProximity.values().stream()
+            .flatMap(grid -> grid.values().stream())
+            .mapToLong(Set::size)
+            .sum();
+  }
+
+  // the user leaves every cell and enters those of the retained locations, with the current proximity
+  private void reindex(User user, IndexedUser indexedUser, int proximity, int trackedCell) {
+    Set<Integer> cells = new HashSet<>();
+    user.getVisitedLocations().forEach(visitedLocation -> cells.add(cellOf(visitedLocation.location)));
+    if (trackedCell >= 0) {
+      cells.add(trackedCell);
+    }
+    UUID userId = user.getUserId();
+    for (int cell : indexedUser.cells) {
+      if (proximity != indexedUser.proximity || !cells.contains(cell)) {
+        removeFromCell(indexedUser.proximity, cell, userId);
+      }
+    }
+    for (int cell : cells) {
+      if (proximity != indexedUser.proximity || !indexedUser.cells.contains(cell)) {
+        addToCell(proximity, cell, userId);
+      }
+    }
+    indexedUser.user = user;
+    indexedUser.proximity = proximity;
+    indexedUser.cells = cells;
+    indexedUser.pruneAt = Math.max(MIN_CELLS_BEFORE_PRUNING, 2 * cells.size());
+  }
+
+  private void addToCell(int proximity, int cell, UUID userId) {
+    gridsByProximity.computeIfAbsent(proximity, key -> new ConcurrentHashMap<>())
+            .compute(cell, (key, users) -> {
+              Set<UUID> cellUsers = users == null ? new HashSet<>() : users;
+              cellUsers.add(userId);
+              return cellUsers;
+            });
+  }
+
+  private void removeFromCell(int proximity, int cell, UUID userId) {
+    Map<Integer, Set<UUID>> grid = gridsByProximity.get(proximity);
+    if (grid != null) {
+      grid.computeIfPresent(cell, (key, users) -> {
+        users.remove(userId);
+        return users.isEmpty() ? null : users;
+      });
+    }
+  }
+
+  private void collect(Map<Integer, Set<UUID>> grid, Location center, int proximity, Set<UUID> users) {
+    double latitudeDegrees = proximity / MILES_PER_DEGREE_OF_LATITUDE;
+    double minLatitude = Math.max(-90, center.latitude - latitudeDegrees);
+    double maxLatitude = Math.min(90, center.latitude + latitudeDegrees);
+    // a degree of longitude is shortest on the parallel farthest from the equator
+    double cosine = Math.cos(Math.toRadians(Math.max(Math.abs(minLatitude), Math.abs(maxLatitude))));
+    double longitudeDegrees = cosine <= 0 ? 360 : latitudeDegrees / cosine;
+
+    int fromLongitudeCell = longitudeCell(center.longitude - longitudeDegrees);
+    int toLongitudeCell = longitudeDegrees * 2 >= 360
+            ? fromLongitudeCell + 359 : longitudeCell(center.longitude + longitudeDegrees);
+    for (int latitudeCell = latitudeCell(minLatitude); latitudeCell <= latitudeCell(maxLatitude); latitudeCell++) {
+      for (int longitudeCell = fromLongitudeCell; longitudeCell <= toLongitudeCell; longitudeCell++) {
+        // the grid maps are only changed through compute, the sets are read under the same lock
+        grid.computeIfPresent(cell(latitudeCell, longitudeCell), (key, cellUsers) -> {
+          users.addAll(cellUsers);
+          return cellUsers;
+        });
+      }
+    }
+  }
+
+  private void addUnindexedUsers() {
+    synchronized (seedLock) {
+      int userCount = userRepository.count();
+      if (userCount == knownUserCount) {
+        return;
+      }
+      knownUserCount = userCount;
+      userRepository.stream()
+              .filter(user -> !indexedUsers.containsKey(user.getUserId()))
+              .forEach(user -> {
+                IndexedUser indexedUser = indexedUsers.computeIfAbsent(user.getUserId(), userId -> new IndexedUser());
+                synchronized (indexedUser) {
+                  if (indexedUser.proximity == IndexedUser.NOT_INDEXED) {
+                    reindex(user, indexedUser, rewardProximity.applyAsInt(user), -1);
+                  }
+                }
+              });
+    }
+  }
+
+  // the preferences are not observed, the proximity of every indexed user is checked instead
+  private void reindexChangedProximities() {
+    for (IndexedUser indexedUser : indexedUsers.values()) {
+      synchronized (indexedUser) {
+        if (indexedUser.user != null) {
+          int proximity = rewardProximity.applyAsInt(indexedUser.user);
+          if (proximity != indexedUser.proximity) {
+            reindex(indexedUser.user, indexedUser, proximity, -1);
+          }
+        }
+      }
+    }
+  }
+
+  private static int cellOf(Location location) {
+    return cell(latitudeCell(location.latitude), longitudeCell(location.longitude));
+  }
+
+  // cells numbered from 0, row after row from the south pole
+  private static int cell(int latitudeCell, int longitudeCell) {
+    return (latitudeCell + 90) * 360 + Math.floorMod(longitudeCell + 180, 360);
+  }
+
+  // the north pole belongs to the last row
+  private static int latitudeCell(double latitude) {
+    return Math.min(89, (int) Math.floor(latitude));
+  }
+
+  private static int longitudeCell(double longitude) {
+    return (int) Math.floor(longitude);
+  }
+
+  /**
+   * Cells and reward proximity a user is indexed with, guarded by the instance lock.
+   */
+  private static final class IndexedUser {
+    private static final int NOT_INDEXED = -1;
+
+    private User user;
+    private int proximity = NOT_INDEXED;
+    private Set<Integer> cells = new HashSet<>();
+    // first indexing on the first location
+    private int pruneAt = 0;
+  }
+
+}
@@ -0,0 +1,47 @@
+package com.openclassrooms.tourguide.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.function.Supplier;
+
+/**
+ * Times the calls to the external services, by service and outcome,
+ * so that both their latency and their error rate can be followed.
+ */
+public final class ExternalCalls {
+
+  public static final String METRIC = "tourguide.external.calls";
+  public static final String GPS_UTIL = "gpsUtil";
+  public static final String REWARD_CENTRAL = "rewardCentral";
+  public static final String TRIP_PRICER = "tripPricer";
+
+  private ExternalCalls() {
+  }
+
+  /**
+   * Calls an external service and records how long it took.
+   *
+   * @param meterRegistry the registry of the timer
+   * @param service       the service name
+   * @param call          the call
+   * @param <T>           the type of the response
+   * @return the response of the service
+   */
+  public static <T> T record(MeterRegistry meterRegistry, String service, Supplier<T> call) {
+    Timer.Sample sample = Timer.start(meterRegistry);
+    String outcome = "error";
+    try {
+      T response = call.get();
+      outcome = "success";
+      return response;
+    } finally {
+      sample.stop(Timer.builder(METRIC)
+              .description("Calls to the external services")
+              .tag("service", service)
+              .tag("outcome", outcome)
+              .register(meterRegistry));
+    }
+  }
+
+}
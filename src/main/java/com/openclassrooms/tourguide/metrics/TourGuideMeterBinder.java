@@ -0,0 +1,94 @@
+package com.openclassrooms.tourguide.metrics;
+
+import com.openclassrooms.tourguide.client.RewardPointsCache;
+import com.openclassrooms.tourguide.client.TripDealsCache;
+import com.openclassrooms.tourguide.executor.ExecutionEngine;
+import com.openclassrooms.tourguide.executor.TaskLane;
+import com.openclassrooms.tourguide.tracker.TrackingPipeline;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Gauges of the saturation of the execution engine lanes, of the tracker pipeline queues
+ * and of the reward points and trip deals caches.
+ */
+public class TourGuideMeterBinder implements MeterBinder {
+
+  private final ExecutionEngine executionEngine;
+  private final TrackingPipeline trackingPipeline;
+  private final RewardPointsCache rewardPointsCache;
+  private final TripDealsCache tripDealsCache;
+
+  /**
+   * Constructor for TourGuideMeterBinder.
+   *
+   * @param executionEngine   the engine whose lanes are measured
+   * @param trackingPipeline  the pipeline whose queues are measured
+   * @param rewardPointsCache the reward points cache whose hits, misses and evictions are measured
+   * @param tripDealsCache    the trip deals cache whose hits and misses are measured
+   */
+  public TourGuideMeterBinder(ExecutionEngine executionEngine, TrackingPipeline trackingPipeline,
+                              RewardPointsCache rewardPointsCache, TripDealsCache tripDealsCache) {
+    this.executionEngine = executionEngine;
+    this.trackingPipeline = trackingPipeline;
+    this.rewardPointsCache = rewardPointsCache;
+    this.tripDealsCache = tripDealsCache;
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    for (TaskLane lane : executionEngine.getLanes()) {
+      Gauge.builder("tourguide.executor.queued", lane, TaskLane::getQueueDepth)
+              .description("Tasks waiting for a running slot")
+              .tag("lane", lane.getName())
+              .register(registry);
+      Gauge.builder("tourguide.executor.active", lane, TaskLane::getActiveTaskCount)
+              .description("Tasks running")
+              .tag("lane", lane.getName())
+              .register(registry);
+      Gauge.builder("tourguide.executor.saturation", lane,
+                      l -> (double) l.getActiveTaskCount() / l.getConcurrency())
+              .description("Share of the running slots in use")
+              .tag("lane", lane.getName())
+              .register(registry);
+      FunctionCounter.builder("tourguide.executor.completed", lane, TaskLane::getCompletedTaskCount)
+              .description("Tasks finished, successfully or not")
+              .tag("lane", lane.getName())
+              .register(registry);
+    }
+    for (String stage : trackingPipeline.getQueueDepths().keySet()) {
+      Gauge.builder("tourguide.tracker.queued", trackingPipeline, p -> p.getQueueDepths().get(stage))
+              .description("Users waiting in front of a tracker pipeline stage")
+              .tag("stage", stage)
+              .register(registry);
+    }
+    FunctionCounter.builder("tourguide.rewards.cache.hits", rewardPointsCache, RewardPointsCache::getHitCount)
+            .description("Reward points served from the cache")
+            .register(registry);
+    FunctionCounter.builder("tourguide.rewards.cache.misses", rewardPointsCache, RewardPointsCache::getMissCount)
+            .description("Reward points not found in the cache")
+            .register(registry);
+    FunctionCounter.builder("tourguide.rewards.cache.evictions", rewardPointsCache,
+                    RewardPointsCache::getEvictionCount)
+            .description("Reward points evicted because the cache was full or they expired")
+            .register(registry);
+    // gauges only hold a weak reference to the object they measure
+    Gauge.builder("tourguide.rewards.cache.size", rewardPointsCache, RewardPointsCache::getSize)
+            .description("Reward points held in the cache")
+            .strongReference(true)
+            .register(registry);
+    FunctionCounter.builder("tourguide.tripdeals.cache.hits", tripDealsCache, TripDealsCache::getHitCount)
+            .description("Trip deals served from the cache or from a pricing in progress")
+            .register(registry);
+    FunctionCounter.builder("tourguide.tripdeals.cache.misses", tripDealsCache, TripDealsCache::getMissCount)
+            .description("Trip deals not found in the cache")
+            .register(registry);
+    Gauge.builder("tourguide.tripdeals.cache.size", tripDealsCache, TripDealsCache::getSize)
+            .description("Trip deals held in the cache")
+            .strongReference(true)
+            .register(registry);
+  }
+
+}
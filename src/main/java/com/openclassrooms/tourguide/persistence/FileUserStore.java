@@ -0,0 +1,241 @@
+package com.openclassrooms.tourguide.persistence;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * {@link UserStore} appending the events to a single file.
+ * Every event is framed with its length and a CRC32 checksum, and every batch is forced to disk.
+ * An event cut short by a crash is detected on replay and dropped along with anything after it.
+ */
+@Slf4j
+public class FileUserStore implements UserStore {
+
+  private static final byte USER_ADDED = 1;
+  private static final byte LOCATION_VISITED = 2;
+  private static final byte REWARD_GRANTED = 3;
+  // larger lengths can only come from a corrupted frame
+  private static final int MAX_FRAME_LENGTH = 1 << 20;
+
+  private final Path path;
+  private FileChannel channel;
+
+  /**
+   * Constructor for FileUserStore, creates the file and its directory when missing.
+   *
+   * @param path the file the events are appended to
+   */
+  public FileUserStore(Path path) {
+    this.path = path;
+    try {
+      Path directory = path.toAbsolutePath().getParent();
+      if (directory != null) {
+        Files.createDirectories(directory);
+      }
+      channel = open(path);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot open the user store " + path, e);
+    }
+  }
+
+  @Override
+  public synchronized long replay(Consumer<UserEvent> consumer) {
+    long count = 0;
+    long validLength = 0;
+    try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+      while (true) {
+        byte[] payload = readFrame(input);
+        if (payload == null) {
+          break;
+        }
+        consumer.accept(decode(new DataInputStream(new ByteArrayInputStream(payload))));
+        validLength += Integer.BYTES * 2 + payload.length;
+        count++;
+      }
+      if (validLength < channel.size()) {
+        log.warn("User store {} ends with {} unreadable bytes, dropping them",
+                path, channel.size() - validLength);
+        channel.truncate(validLength);
+        channel.force(true);
+      }
+      channel.position(validLength);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot replay the user store " + path, e);
+    }
+    return count;
+  }
+
+  @Override
+  public synchronized void write(List<UserEvent> events) {
+    try {
+      channel.write(ByteBuffer.wrap(encode(events)));
+      channel.force(false);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot write to the user store " + path, e);
+    }
+  }
+
+  @Override
+  public synchronized void rewrite(List<UserEvent> events) {
+    Path rewritten = path.resolveSibling(path.getFileName() + ".tmp");
+    try {
+      try (FileChannel output = FileChannel.open(rewritten, StandardOpenOption.CREATE,
+              StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+        output.write(ByteBuffer.wrap(encode(events)));
+        output.force(true);
+      }
+      channel.close();
+      Files.move(rewritten, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      channel = open(path);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot rewrite the user store " + path, e);
+    }
+  }
+
+  @Override
+  public synchronized void close() {
+    try {
+      channel.close();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot close the user store " + path, e);
+    }
+  }
+
+  private static FileChannel open(Path path) throws IOException {
+    FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+    channel.position(channel.size());
+    return channel;
+  }
+
+  // null at the end of the file or on the first torn or corrupted frame
+  private static byte[] readFrame(DataInputStream input) throws IOException {
+    try {
+      int length = input.readInt();
+      int checksum = input.readInt();
+      if (length < 0 || length > MAX_FRAME_LENGTH) {
+        return null;
+      }
+      byte[] payload = input.readNBytes(length);
+      if (payload.length < length || checksum != checksum(payload)) {
+        return null;
+      }
+      return payload;
+    } catch (EOFException e) {
+      return null;
+    }
+  }
+
+  private static byte[] encode(List<UserEvent> events) throws IOException {
+    ByteArrayOutputStream frames = new ByteArrayOutputStream();
+    DataOutputStream framesOutput = new DataOutputStream(frames);
+    ByteArrayOutputStream payload = new ByteArrayOutputStream();
+    DataOutputStream payloadOutput = new DataOutputStream(payload);
+    for (UserEvent event : events) {
+      payload.reset();
+      encode(event, payloadOutput);
+      byte[] bytes = payload.toByteArray();
+      framesOutput.writeInt(bytes.length);
+      framesOutput.writeInt(checksum(bytes));
+      framesOutput.write(bytes);
+    }
+    return frames.toByteArray();
+  }
+
+  private static void encode(UserEvent event, DataOutput output) throws IOException {
+    switch (event) {
+      case UserEvent.UserAdded userAdded -> {
+        output.writeByte(USER_ADDED);
+        writeUuid(output, userAdded.userId());
+        output.writeUTF(userAdded.userName());
+        writeNullable(output, userAdded.phoneNumber());
+        writeNullable(output, userAdded.emailAddress());
+      }
+      case UserEvent.LocationVisited locationVisited -> {
+        output.writeByte(LOCATION_VISITED);
+        writeLocation(output, locationVisited);
+      }
+      case UserEvent.RewardGranted rewardGranted -> {
+        output.writeByte(REWARD_GRANTED);
+        writeUuid(output, rewardGranted.userId());
+        output.writeUTF(rewardGranted.attractionName());
+        writeNullable(output, rewardGranted.city());
+        writeNullable(output, rewardGranted.state());
+        output.writeDouble(rewardGranted.attractionLat());
+        output.writeDouble(rewardGranted.attractionLon());
+        writeLocation(output, rewardGranted.location());
+        output.writeInt(rewardGranted.rewardPoints());
+      }
+    }
+  }
+
+  private static UserEvent decode(DataInput input) throws IOException {
+    byte type = input.readByte();
+    return switch (type) {
+      case USER_ADDED -> new UserEvent.UserAdded(readUuid(input), input.readUTF(), readNullable(input),
+              readNullable(input));
+      case LOCATION_VISITED -> readLocation(input);
+      case REWARD_GRANTED -> new UserEvent.RewardGranted(readUuid(input), input.readUTF(), readNullable(input),
+              readNullable(input), input.readDouble(), input.readDouble(), readLocation(input), input.readInt());
+      default -> throw new IOException("Unknown user event type " + type);
+    };
+  }
+
+  private static void writeLocation(DataOutput output, UserEvent.LocationVisited locationVisited) throws IOException {
+    writeUuid(output, locationVisited.userId());
+    output.writeDouble(locationVisited.latitude());
+    output.writeDouble(locationVisited.longitude());
+    output.writeLong(locationVisited.time());
+  }
+
+  private static UserEvent.LocationVisited readLocation(DataInput input) throws IOException {
+    return new UserEvent.LocationVisited(readUuid(input), input.readDouble(), input.readDouble(), input.readLong());
+  }
+
+  private static void writeUuid(DataOutput output, UUID uuid) throws IOException {
+    output.writeLong(uuid.getMostSignificantBits());
+    output.writeLong(uuid.getLeastSignificantBits());
+  }
+
+  private static UUID readUuid(DataInput input) throws IOException {
+    return new UUID(input.readLong(), input.readLong());
+  }
+
+  private static void writeNullable(DataOutput output, String value) throws IOException {
+    output.writeBoolean(value != null);
+    if (value != null) {
+      output.writeUTF(value);
+    }
+  }
+
+  private static String readNullable(DataInput input) throws IOException {
+    return input.readBoolean() ? input.readUTF() : null;
+  }
+
+  private static int checksum(byte[] bytes) {
+    CRC32 crc = new CRC32();
+    crc.update(bytes);
+    return (int) crc.getValue();
+  }
+
+}
@@ -0,0 +1,368 @@
+package com.openclassrooms.tourguide.persistence;
+
+import com.openclassrooms.tourguide.user.User;
+import gpsUtil.location.VisitedLocation;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Append-only journal of the visited locations, in fixed size records of memory-mapped segment files.
+ * Appending is a few stores to the mapping: the caller never waits on the disk, the pages are written
+ * by the operating system and forced by {@link #force()}.
+ * <p>
+ * A record is (latitude, longitude, time, user ID) in 40 bytes; the most significant bits of the
+ * user ID are stored last, so a record whose user ID starts with zero is one never completely written.
+ * <p>
+ * A snapshot taken when segment {@code n} is opened holds the retained locations of every user,
+ * and replaces every segment before {@code n}. Recovery maps the latest snapshot and the following
+ * segments and reads them sequentially, without any decoding beyond the primitive values.
+ * Segment {@code n} receives the locations appended while the snapshot is written, some of them also
+ * read into the snapshot: recovery skips those, so every location is read back once.
+ */
+public class LocationJournal implements AutoCloseable {
+
+  static final int RECORD_SIZE = 40;
+  private static final long NO_TIME = Long.MIN_VALUE;
+  private static final String SEGMENT_SUFFIX = ".journal";
+  private static final String SNAPSHOT_SUFFIX = ".snapshot";
+  private static final int SNAPSHOT_BUFFER_RECORDS = 16 * 1024;
+  private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+  private static final VarHandle DOUBLES = MethodHandles.byteBufferViewVarHandle(double[].class,
+          ByteOrder.LITTLE_ENDIAN);
+
+  private final Path directory;
+  private final long segmentSize;
+  private final Object rollLock = new Object();
+  private final Object snapshotLock = new Object();
+  private volatile Segment current;
+
+  /**
+   * Receives the records read back from the journal.
+   */
+  @FunctionalInterface
+  public interface RecordSink {
+
+    /**
+     * Handles a record.
+     *
+     * @param userId    the user ID
+     * @param latitude  the latitude
+     * @param longitude the longitude
+     * @param time      the time of the visit in milliseconds, {@link Long#MIN_VALUE} when unknown
+     */
+    void accept(UUID userId, double latitude, double longitude, long time);
+  }
+
+  /**
+   * Constructor for LocationJournal, creates the directory when missing.
+   * Appends go to a new segment, following the ones already in the directory.
+   *
+   * @param directory   the directory of the segment and snapshot files
+   * @param segmentSize the size of a segment file in bytes, rounded down to whole records and at most 2 GB
+   */
+  public LocationJournal(Path directory, long segmentSize) {
+    this.directory = directory;
+    this.segmentSize = Math.max(1, Math.min(segmentSize, Integer.MAX_VALUE) / RECORD_SIZE) * RECORD_SIZE;
+    try {
+      Files.createDirectories(directory);
+      current = new Segment(lastIndex() + 1);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot open the location journal " + directory, e);
+    }
+  }
+
+  /**
+   * Appends a visited location.
+   *
+   * @param visitedLocation the location
+   */
+  public void append(VisitedLocation visitedLocation) {
+    long time = visitedLocation.timeVisited == null ? NO_TIME : visitedLocation.timeVisited.getTime();
+    while (true) {
+      Segment segment = current;
+      if (segment.tryAppend(visitedLocation.userId, visitedLocation.location.latitude,
+              visitedLocation.location.longitude, time)) {
+        return;
+      }
+      roll(segment);
+    }
+  }
+
+  /**
+   * Reads back the latest snapshot, then every segment following it, in the order they were written.
+   *
+   * @param sink the receiver of the records
+   * @return the number of records read
+   */
+  public long recover(RecordSink sink) {
+    try {
+      long snapshotIndex = latestSnapshotIndex();
+      long count = 0;
+      if (snapshotIndex >= 0) {
+        count += recoverSnapshot(snapshotIndex, sink);
+      }
+      for (long index : segmentIndexes()) {
+        if (index > snapshotIndex && index < current.index) {
+          count += read(segmentPath(index), sink);
+        }
+      }
+      return count;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot recover the location journal " + directory, e);
+    }
+  }
+
+  /**
+   * Writes the retained locations of every user to a new snapshot, then deletes the segments and
+   * snapshots it replaces. Locations appended meanwhile go to the segments following the snapshot.
+   *
+   * @param users the users
+   * @return the number of records of the snapshot
+   */
+  public long snapshot(Stream<User> users) {
+    synchronized (snapshotLock) {
+      long index = roll(current).index;
+      Path snapshot = snapshotPath(index);
+      Path written = directory.resolve(snapshot.getFileName() + ".tmp");
+      long count = 0;
+      try {
+        try (FileChannel channel = FileChannel.open(written, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+          ByteBuffer buffer = ByteBuffer.allocateDirect(SNAPSHOT_BUFFER_RECORDS * RECORD_SIZE)
+                  .order(ByteOrder.LITTLE_ENDIAN);
+          for (User user : (Iterable<User>) users::iterator) {
+            for (VisitedLocation visitedLocation : user.getVisitedLocations()) {
+              if (!buffer.hasRemaining()) {
+                drain(buffer, channel);
+              }
+              long time = visitedLocation.timeVisited == null ? NO_TIME : visitedLocation.timeVisited.getTime();
+              buffer.putDouble(visitedLocation.location.latitude)
+                      .putDouble(visitedLocation.location.longitude)
+                      .putLong(time)
+                      .putLong(visitedLocation.userId.getLeastSignificantBits())
+                      .putLong(visitedLocation.userId.getMostSignificantBits());
+              count++;
+            }
+          }
+          drain(buffer, channel);
+          channel.force(true);
+        }
+        Files.move(written, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        deleteBefore(index);
+      } catch (IOException e) {
+        throw new UncheckedIOException("Cannot write the location snapshot " + snapshot, e);
+      }
+      return count;
+    }
+  }
+
+  /**
+   * Forces the appended records of the current segment to disk.
+   */
+  public void force() {
+    current.mapping.force();
+  }
+
+  @Override
+  public void close() {
+    synchronized (rollLock) {
+      current.close();
+    }
+  }
+
+  private Segment roll(Segment full) {
+    synchronized (rollLock) {
+      if (current == full) {
+        full.close();
+        current = new Segment(full.index + 1);
+      }
+      return current;
+    }
+  }
+
+  // reads the snapshot, then the records of its own segment not already part of it
+  private long recoverSnapshot(long index, RecordSink sink) throws IOException {
+    Path segment = segmentPath(index);
+    Map<Visit, Integer> appended = new HashMap<>();
+    if (index < current.index && Files.exists(segment)) {
+      read(segment, (userId, latitude, longitude, time) ->
+              appended.merge(new Visit(userId, latitude, longitude, time), 1, Integer::sum));
+    }
+    Map<Visit, Integer> covered = new HashMap<>();
+    long count = read(snapshotPath(index), (userId, latitude, longitude, time) -> {
+      if (!appended.isEmpty()) {
+        Visit visit = new Visit(userId, latitude, longitude, time);
+        if (appended.containsKey(visit)) {
+          covered.merge(visit, 1, Integer::sum);
+        }
+      }
+      sink.accept(userId, latitude, longitude, time);
+    });
+    if (appended.isEmpty()) {
+      return count;
+    }
+    long[] skipped = new long[1];
+    count += read(segment, (userId, latitude, longitude, time) -> {
+      Visit visit = new Visit(userId, latitude, longitude, time);
+      Integer remaining = covered.get(visit);
+      if (remaining != null) {
+        if (remaining == 1) {
+          covered.remove(visit);
+        } else {
+          covered.put(visit, remaining - 1);
+        }
+        skipped[0]++;
+        return;
+      }
+      sink.accept(userId, latitude, longitude, time);
+    });
+    return count - skipped[0];
+  }
+
+  private long read(Path path, RecordSink sink) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = channel.size() / RECORD_SIZE * RECORD_SIZE;
+      long count = 0;
+      // mapped by chunks, a single mapping is limited to 2 GB
+      long chunkSize = (Integer.MAX_VALUE / RECORD_SIZE) * (long) RECORD_SIZE;
+      for (long start = 0; start < size; start += chunkSize) {
+        MappedByteBuffer mapping = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(chunkSize, size - start));
+        mapping.order(ByteOrder.LITTLE_ENDIAN);
+        for (int offset = 0; offset + RECORD_SIZE <= mapping.limit(); offset += RECORD_SIZE) {
+          long mostSignificantBits = mapping.getLong(offset + 32);
+          if (mostSignificantBits == 0) {
+            // reserved but never completely written, or the end of a segment
+            continue;
+          }
+          sink.accept(new UUID(mostSignificantBits, mapping.getLong(offset + 24)), mapping.getDouble(offset),
+                  mapping.getDouble(offset + 8), mapping.getLong(offset + 16));
+          count++;
+        }
+      }
+      return count;
+    }
+  }
+
+  private static void drain(ByteBuffer buffer, FileChannel channel) throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+  }
+
+  private void deleteBefore(long index) throws IOException {
+    for (long segmentIndex : segmentIndexes()) {
+      if (segmentIndex < index) {
+        Files.deleteIfExists(segmentPath(segmentIndex));
+      }
+    }
+    for (long snapshotIndex : indexes(SNAPSHOT_SUFFIX)) {
+      if (snapshotIndex < index) {
+        Files.deleteIfExists(snapshotPath(snapshotIndex));
+      }
+    }
+  }
+
+  private long lastIndex() throws IOException {
+    long last = latestSnapshotIndex();
+    for (long index : segmentIndexes()) {
+      last = Math.max(last, index);
+    }
+    return last;
+  }
+
+  private long latestSnapshotIndex() throws IOException {
+    long latest = -1;
+    for (long index : indexes(SNAPSHOT_SUFFIX)) {
+      latest = Math.max(latest, index);
+    }
+    return latest;
+  }
+
+  private List<Long> segmentIndexes() throws IOException {
+    List<Long> indexes = indexes(SEGMENT_SUFFIX);
+    indexes.sort(null);
+    return indexes;
+  }
+
+  private List<Long> indexes(String suffix) throws IOException {
+    List<Long> indexes = new ArrayList<>();
+    try (Stream<Path> files = Files.list(directory)) {
+      files.map(path -> path.getFileName().toString())
+              .filter(name -> name.startsWith("locations-") && name.endsWith(suffix))
+              .forEach(name -> indexes.add(Long.parseLong(
+                      name.substring("locations-".length(), name.length() - suffix.length()))));
+    }
+    return indexes;
+  }
+
+  private Path segmentPath(long index) {
+    return directory.resolve("locations-%019d%s".formatted(index, SEGMENT_SUFFIX));
+  }
+
+  private Path snapshotPath(long index) {
+    return directory.resolve("locations-%019d%s".formatted(index, SNAPSHOT_SUFFIX));
+  }
+
+  private record Visit(UUID userId, double latitude, double longitude, long time) {
+  }
+
+  /**
+   * Segment file mapped once in full; appends reserve their record with a single atomic increment.
+   */
+  private final class Segment {
+    private final long index;
+    private final MappedByteBuffer mapping;
+    private final AtomicLong next = new AtomicLong();
+
+    private Segment(long index) {
+      this.index = index;
+      try (FileChannel channel = FileChannel.open(segmentPath(index), StandardOpenOption.CREATE,
+              StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+        // the mapping stays valid once the channel is closed
+        this.mapping = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+      } catch (IOException e) {
+        throw new UncheckedIOException("Cannot map the location journal segment " + index, e);
+      }
+    }
+
+    boolean tryAppend(UUID userId, double latitude, double longitude, long time) {
+      long offset = next.getAndAdd(RECORD_SIZE);
+      if (offset + RECORD_SIZE > segmentSize) {
+        return false;
+      }
+      int position = (int) offset;
+      DOUBLES.set(mapping, position, latitude);
+      DOUBLES.set(mapping, position + 8, longitude);
+      LONGS.set(mapping, position + 16, time);
+      LONGS.set(mapping, position + 24, userId.getLeastSignificantBits());
+      // published last, the record is complete once it is set
+      LONGS.setRelease(mapping, position + 32, userId.getMostSignificantBits());
+      return true;
+    }
+
+    void close() {
+      mapping.force();
+    }
+  }
+
+}
@@ -0,0 +1,57 @@
+package com.openclassrooms.tourguide.persistence;
+
+import java.util.UUID;
+
+/**
+ * Change to the users written to a {@link UserStore}.
+ * Replaying the events in order rebuilds the users, their locations and their rewards.
+ */
+public sealed interface UserEvent {
+
+  /**
+   * Gets the ID of the user the event applies to.
+   *
+   * @return the user ID
+   */
+  UUID userId();
+
+  /**
+   * A user was added.
+   *
+   * @param userId       the user ID
+   * @param userName     the username
+   * @param phoneNumber  the phone number
+   * @param emailAddress the email address
+   */
+  record UserAdded(UUID userId, String userName, String phoneNumber, String emailAddress) implements UserEvent {
+  }
+
+  /**
+   * A location was visited by a user.
+   *
+   * @param userId    the user ID
+   * @param latitude  the latitude
+   * @param longitude the longitude
+   * @param time      the time of the visit in milliseconds, {@link #NO_TIME} when unknown
+   */
+  record LocationVisited(UUID userId, double latitude, double longitude, long time) implements UserEvent {
+    public static final long NO_TIME = Long.MIN_VALUE;
+  }
+
+  /**
+   * A user was rewarded for an attraction.
+   *
+   * @param userId         the user ID
+   * @param attractionName the attraction name
+   * @param city           the attraction city
+   * @param state          the attraction state
+   * @param attractionLat  the attraction latitude
+   * @param attractionLon  the attraction longitude
+   * @param location       the location the user was rewarded at
+   * @param rewardPoints   the reward points
+   */
+  record RewardGranted(UUID userId, String attractionName, String city, String state, double attractionLat,
+                       double attractionLon, LocationVisited location, int rewardPoints) implements UserEvent {
+  }
+
+}
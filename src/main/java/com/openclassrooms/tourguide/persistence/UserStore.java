@@ -0,0 +1,37 @@
+package com.openclassrooms.tourguide.persistence;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Durable storage of the {@link UserEvent}s.
+ * Writes are done by a single thread at a time, in batches.
+ */
+public interface UserStore extends AutoCloseable {
+
+  /**
+   * Replays every stored event, in the order they were written.
+   *
+   * @param consumer the receiver of the events
+   * @return the number of events replayed
+   */
+  long replay(Consumer<UserEvent> consumer);
+
+  /**
+   * Writes a batch of events, durably once the method returns.
+   *
+   * @param events the events
+   */
+  void write(List<UserEvent> events);
+
+  /**
+   * Replaces every stored event by the given ones, as a single atomic step.
+   *
+   * @param events the events describing the current state
+   */
+  void rewrite(List<UserEvent> events);
+
+  @Override
+  void close();
+
+}
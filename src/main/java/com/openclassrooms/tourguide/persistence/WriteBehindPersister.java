@@ -0,0 +1,351 @@
+package com.openclassrooms.tourguide.persistence;
+
+import com.openclassrooms.tourguide.repository.UserRepository;
+import com.openclassrooms.tourguide.tracker.TrackedLocationSink;
+import com.openclassrooms.tourguide.user.User;
+import com.openclassrooms.tourguide.user.UserReward;
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes the users and their rewards to a {@link UserStore}, and their tracked locations to a
+ * {@link LocationJournal}, behind the tracker.
+ * User changes are only queued on the calling thread; a single writer thread takes whatever is queued,
+ * up to a batch size, and writes it in one go, so the tracker never waits on the disk and a busy
+ * tracker gets larger batches. Locations are appended to the memory-mapped journal directly.
+ * <p>
+ * On startup, {@link #recover(UserRepository)} replays the store and the journal, then rewrites the store
+ * with the recovered state. The journal is compacted by periodic snapshots of the retained locations,
+ * so that recovery reads at most one snapshot and the locations tracked since.
+ */
+@Slf4j
+public class WriteBehindPersister implements TrackedLocationSink {
+
+  private static final long POLL_MILLIS = 100;
+  private static final long RETRY_MILLIS = 1000;
+  private static final long FORCE_MILLIS = 1000;
+
+  private final UserStore userStore;
+  private final LocationJournal locationJournal;
+  private final Duration snapshotInterval;
+  private final int batchSize;
+  private final BlockingQueue<UserEvent> queue = new LinkedBlockingQueue<>();
+  // number of rewards of each user already queued, rewards are only ever appended to a user
+  private final Map<UUID, Integer> queuedRewardCounts = new ConcurrentHashMap<>();
+  private final AtomicLong queued = new AtomicLong();
+  private final AtomicLong written = new AtomicLong();
+  private final Object writtenMonitor = new Object();
+  private final AtomicLong journaled = new AtomicLong();
+  private final Thread writer;
+  private final ScheduledExecutorService journalScheduler;
+  private volatile boolean stop;
+
+  /**
+   * Constructor for WriteBehindPersister, starts the writer thread.
+   *
+   * @param userStore        the store the user events are written to
+   * @param locationJournal  the journal the locations are appended to
+   * @param batchSize        the maximum number of events written at once
+   * @param snapshotInterval the delay between two snapshots of the journal, never when zero
+   */
+  public WriteBehindPersister(UserStore userStore, LocationJournal locationJournal, int batchSize,
+                              Duration snapshotInterval) {
+    this(userStore, locationJournal, batchSize, snapshotInterval, Metrics.globalRegistry);
+  }
+
+  /**
+   * Constructor for WriteBehindPersister, starts the writer thread.
+   *
+   * @param userStore        the store the user events are written to
+   * @param locationJournal  the journal the locations are appended to
+   * @param batchSize        the maximum number of events written at once
+   * @param snapshotInterval the delay between two snapshots of the journal, never when zero
+   * @param meterRegistry    the registry of the queue and write meters
+   */
+  public WriteBehindPersister(UserStore userStore, LocationJournal locationJournal, int batchSize,
+                              Duration snapshotInterval, MeterRegistry meterRegistry) {
+    this.userStore = userStore;
+    this.locationJournal = locationJournal;
+    this.snapshotInterval = snapshotInterval;
+    this.batchSize = Math.max(1, batchSize);
+    Gauge.builder("tourguide.persistence.pending", queue, BlockingQueue::size)
+            .description("User changes waiting to be written")
+            .register(meterRegistry);
+    FunctionCounter.builder("tourguide.persistence.written", written, AtomicLong::get)
+            .description("User changes written to the store")
+            .register(meterRegistry);
+    FunctionCounter.builder("tourguide.persistence.journaled", journaled, AtomicLong::get)
+            .description("Locations appended to the location journal")
+            .register(meterRegistry);
+    writer = Thread.ofPlatform().name("user-store-writer").daemon().start(this::writeLoop);
+    journalScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "location-journal");
+      thread.setDaemon(true);
+      return thread;
+    });
+    journalScheduler.scheduleWithFixedDelay(this::forceJournal, FORCE_MILLIS, FORCE_MILLIS, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Rebuilds the stored users and their locations into a repository, then compacts the store to their
+   * current state and starts the periodic snapshots of the journal.
+   * Must be called before any change is queued.
+   *
+   * @param userRepository the repository the users are added to
+   * @return the number of users recovered
+   */
+  public int recover(UserRepository userRepository) {
+    Map<UUID, User> users = new LinkedHashMap<>();
+    long events = userStore.replay(event -> apply(users, event));
+    // locations stored as user events before the journal existed
+    boolean storedLocations = users.values().stream().anyMatch(user -> user.getLastVisitedLocation() != null);
+    long[] skipped = new long[1];
+    long records = locationJournal.recover((userId, latitude, longitude, time) -> {
+      User user = users.get(userId);
+      if (user == null || isLatest(user, latitude, longitude, time)) {
+        // user not written before the stop, or the same location handed over twice in a row
+        skipped[0]++;
+        return;
+      }
+      user.addToVisitedLocations(toVisitedLocation(new UserEvent.LocationVisited(userId, latitude, longitude, time)));
+    });
+    if (storedLocations) {
+      // moved to the journal before the store is rewritten without them
+      locationJournal.snapshot(users.values().stream());
+    }
+    List<UserEvent> state = new ArrayList<>();
+    for (User user : users.values()) {
+      userRepository.add(user);
+      queuedRewardCounts.put(user.getUserId(), user.getUserRewards().size());
+      state.addAll(toEvents(user));
+    }
+    userStore.rewrite(state);
+    log.info("Recovered {} users from {} stored events and {} journaled locations ({} skipped)",
+            users.size(), events, records, skipped[0]);
+    if (snapshotInterval.isPositive()) {
+      long millis = snapshotInterval.toMillis();
+      journalScheduler.scheduleWithFixedDelay(() -> snapshotJournal(userRepository), millis, millis,
+              TimeUnit.MILLISECONDS);
+    }
+    return users.size();
+  }
+
+  /**
+   * Queues a new user with the locations and rewards it already has.
+   *
+   * @param user the user
+   */
+  public void userAdded(User user) {
+    List<UserEvent> events = toEvents(user);
+    queuedRewardCounts.put(user.getUserId(), user.getUserRewards().size());
+    enqueue(events);
+    user.getVisitedLocations().forEach(this::journal);
+  }
+
+  @Override
+  public void accept(User user, VisitedLocation visitedLocation) {
+    journal(visitedLocation);
+    List<UserEvent> events = new ArrayList<>();
+    List<UserReward> userRewards = user.getUserRewards();
+    // claims the new rewards, so that concurrent passes for the same user queue each of them once
+    int[] range = new int[2];
+    queuedRewardCounts.compute(user.getUserId(), (userId, count) -> {
+      range[0] = count == null ? 0 : count;
+      range[1] = Math.max(range[0], userRewards.size());
+      return range[1];
+    });
+    for (int i = range[0]; i < range[1]; i++) {
+      events.add(toEvent(user.getUserId(), userRewards.get(i)));
+    }
+    if (!events.isEmpty()) {
+      enqueue(events);
+    }
+  }
+
+  /**
+   * Waits until every change queued so far is written.
+   *
+   * @param timeout the maximum time to wait
+   * @param unit    the unit of the timeout
+   * @return true if everything was written in time
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public boolean flush(long timeout, TimeUnit unit) throws InterruptedException {
+    long target = queued.get();
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    synchronized (writtenMonitor) {
+      while (written.get() < target) {
+        long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        if (remainingMillis <= 0) {
+          return false;
+        }
+        writtenMonitor.wait(remainingMillis);
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Writes what is still queued, then stops the writer thread and closes the store and the journal.
+   */
+  public void shutdown() {
+    journalScheduler.shutdownNow();
+    stop = true;
+    try {
+      writer.join(TimeUnit.SECONDS.toMillis(30));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (!queue.isEmpty()) {
+      log.warn("User store closed with {} changes not written", queue.size());
+    }
+    userStore.close();
+    locationJournal.close();
+  }
+
+  private void journal(VisitedLocation visitedLocation) {
+    locationJournal.append(visitedLocation);
+    journaled.incrementAndGet();
+  }
+
+  private void forceJournal() {
+    try {
+      locationJournal.force();
+    } catch (RuntimeException e) {
+      log.error("Forcing the location journal failed", e);
+    }
+  }
+
+  private void snapshotJournal(UserRepository userRepository) {
+    try {
+      long start = System.nanoTime();
+      long records = locationJournal.snapshot(userRepository.stream());
+      log.info("Location journal snapshot of {} locations written in {} ms", records,
+              TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    } catch (RuntimeException e) {
+      log.error("Location journal snapshot failed", e);
+    }
+  }
+
+  private void enqueue(List<UserEvent> events) {
+    queue.addAll(events);
+    queued.addAndGet(events.size());
+  }
+
+  private void writeLoop() {
+    List<UserEvent> batch = new ArrayList<>(batchSize);
+    while (!stop || !queue.isEmpty()) {
+      try {
+        if (batch.isEmpty()) {
+          UserEvent first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+          if (first == null) {
+            continue;
+          }
+          batch.add(first);
+          queue.drainTo(batch, batchSize - 1);
+        }
+        userStore.write(batch);
+        written.addAndGet(batch.size());
+        batch.clear();
+        synchronized (writtenMonitor) {
+          writtenMonitor.notifyAll();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (RuntimeException e) {
+        // the batch is kept and written again, nothing queued is lost while the disk is unavailable
+        log.error("Writing {} user changes failed, retrying", batch.size(), e);
+        if (stop) {
+          return;
+        }
+        try {
+          Thread.sleep(RETRY_MILLIS);
+        } catch (InterruptedException interrupted) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    }
+  }
+
+  private static void apply(Map<UUID, User> users, UserEvent event) {
+    if (event instanceof UserEvent.UserAdded userAdded) {
+      users.putIfAbsent(userAdded.userId(), new User(userAdded.userId(), userAdded.userName(),
+              userAdded.phoneNumber(), userAdded.emailAddress()));
+      return;
+    }
+    User user = users.get(event.userId());
+    if (user == null) {
+      log.warn("Ignoring stored change of unknown user {}", event.userId());
+      return;
+    }
+    switch (event) {
+      case UserEvent.LocationVisited locationVisited -> user.addToVisitedLocations(toVisitedLocation(locationVisited));
+      case UserEvent.RewardGranted rewardGranted -> user.addUserReward(new UserReward(
+              toVisitedLocation(rewardGranted.location()),
+              new Attraction(rewardGranted.attractionName(), rewardGranted.city(), rewardGranted.state(),
+                      rewardGranted.attractionLat(), rewardGranted.attractionLon()),
+              rewardGranted.rewardPoints()));
+      case UserEvent.UserAdded ignored -> {
+      }
+    }
+  }
+
+  // the journal dedupes the snapshot, not a location journaled again by a second pass without a new one
+  private static boolean isLatest(User user, double latitude, double longitude, long time) {
+    VisitedLocation latest = user.getLastVisitedLocation();
+    return latest != null && latest.location.latitude == latitude && latest.location.longitude == longitude
+            && (latest.timeVisited == null ? UserEvent.LocationVisited.NO_TIME : latest.timeVisited.getTime()) == time;
+  }
+
+  // the locations go to the journal
+  private static List<UserEvent> toEvents(User user) {
+    List<UserEvent> events = new ArrayList<>();
+    events.add(new UserEvent.UserAdded(user.getUserId(), user.getUserName(), user.getPhoneNumber(),
+            user.getEmailAddress()));
+    user.getUserRewards().forEach(userReward -> events.add(toEvent(user.getUserId(), userReward)));
+    return events;
+  }
+
+  private static UserEvent.LocationVisited toEvent(VisitedLocation visitedLocation) {
+    return new UserEvent.LocationVisited(visitedLocation.userId, visitedLocation.location.latitude,
+            visitedLocation.location.longitude, visitedLocation.timeVisited == null
+            ? UserEvent.LocationVisited.NO_TIME : visitedLocation.timeVisited.getTime());
+  }
+
+  private static UserEvent.RewardGranted toEvent(UUID userId, UserReward userReward) {
+    Attraction attraction = userReward.attraction;
+    return new UserEvent.RewardGranted(userId, attraction.attractionName, attraction.city, attraction.state,
+            attraction.latitude, attraction.longitude, toEvent(userReward.visitedLocation),
+            userReward.getRewardPoints());
+  }
+
+  private static VisitedLocation toVisitedLocation(UserEvent.LocationVisited locationVisited) {
+    return new VisitedLocation(locationVisited.userId(),
+            new Location(locationVisited.latitude(), locationVisited.longitude()),
+            locationVisited.time() == UserEvent.LocationVisited.NO_TIME ? null : new Date(locationVisited.time()));
+  }
+
+}
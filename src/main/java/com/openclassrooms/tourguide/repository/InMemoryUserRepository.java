@@ -0,0 +1,92 @@
+package com.openclassrooms.tourguide.repository;
+
+import com.openclassrooms.tourguide.user.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+/**
+ * In memory user repository indexed by username and by user ID.
+ * Lookups never lock. Additions are serialized so that {@link #findAll()} can hand out
+ * the same immutable snapshot until the next addition instead of copying every user on each call.
+ * Users are also kept in username order, so that they can be paged and streamed without any copy.
+ */
+public class InMemoryUserRepository implements UserRepository {
+
+  private final Map<String, User> usersByName = new ConcurrentHashMap<>();
+  private final Map<UUID, User> usersById = new ConcurrentHashMap<>();
+  // hash maps above for the lookups, sorted map for the pages
+  private final NavigableMap<String, User> usersInNameOrder = new ConcurrentSkipListMap<>();
+  private final Object writeLock = new Object();
+  // null once a user has been added since the last snapshot
+  private volatile List<User> snapshot = List.of();
+
+  @Override
+  public User findByUserName(String userName) {
+    return usersByName.get(userName);
+  }
+
+  @Override
+  public User findById(UUID userId) {
+    return usersById.get(userId);
+  }
+
+  @Override
+  public List<User> findAll() {
+    List<User> users = snapshot;
+    if (users == null) {
+      synchronized (writeLock) {
+        users = snapshot;
+        if (users == null) {
+          users = List.copyOf(usersByName.values());
+          snapshot = users;
+        }
+      }
+    }
+    return users;
+  }
+
+  @Override
+  public List<User> findPage(String afterUserName, int limit) {
+    Map<String, User> following = afterUserName == null
+            ? usersInNameOrder : usersInNameOrder.tailMap(afterUserName, false);
+    List<User> page = new ArrayList<>(Math.min(limit, 1024));
+    for (User user : following.values()) {
+      if (page.size() >= limit) {
+        break;
+      }
+      page.add(user);
+    }
+    return page;
+  }
+
+  @Override
+  public Stream<User> stream() {
+    return usersInNameOrder.values().stream();
+  }
+
+  @Override
+  public boolean add(User user) {
+    synchronized (writeLock) {
+      if (usersByName.putIfAbsent(user.getUserName(), user) != null) {
+        return false;
+      }
+      usersById.put(user.getUserId(), user);
+      usersInNameOrder.put(user.getUserName(), user);
+      snapshot = null;
+      return true;
+    }
+  }
+
+  @Override
+  public int count() {
+    return usersByName.size();
+  }
+
+}
@@ -0,0 +1,69 @@
+package com.openclassrooms.tourguide.repository;
+
+import com.openclassrooms.tourguide.persistence.WriteBehindPersister;
+import com.openclassrooms.tourguide.user.User;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * User repository queuing every added user for persistence.
+ * Reads are served by the wrapped repository; writes never wait on the disk.
+ */
+public class PersistentUserRepository implements UserRepository {
+
+  private final UserRepository delegate;
+  private final WriteBehindPersister persister;
+
+  /**
+   * Constructor for PersistentUserRepository.
+   *
+   * @param delegate  the repository holding the users
+   * @param persister the writer of the added users
+   */
+  public PersistentUserRepository(UserRepository delegate, WriteBehindPersister persister) {
+    this.delegate = delegate;
+    this.persister = persister;
+  }
+
+  @Override
+  public User findByUserName(String userName) {
+    return delegate.findByUserName(userName);
+  }
+
+  @Override
+  public User findById(UUID userId) {
+    return delegate.findById(userId);
+  }
+
+  @Override
+  public List<User> findAll() {
+    return delegate.findAll();
+  }
+
+  @Override
+  public List<User> findPage(String afterUserName, int limit) {
+    return delegate.findPage(afterUserName, limit);
+  }
+
+  @Override
+  public Stream<User> stream() {
+    return delegate.stream();
+  }
+
+  @Override
+  public boolean add(User user) {
+    if (!delegate.add(user)) {
+      return false;
+    }
+    persister.userAdded(user);
+    return true;
+  }
+
+  @Override
+  public int count() {
+    return delegate.count();
+  }
+
+}
@@ -0,0 +1,70 @@
+package com.openclassrooms.tourguide.repository;
+
+import com.openclassrooms.tourguide.user.User;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Storage of the TourGuide users, safe to use from the tracker and the web threads at the same time.
+ */
+public interface UserRepository {
+
+  /**
+   * Gets a user by username.
+   *
+   * @param userName the username
+   * @return the user, or null if there is none
+   */
+  User findByUserName(String userName);
+
+  /**
+   * Gets a user by user ID.
+   *
+   * @param userId the user ID
+   * @return the user, or null if there is none
+   */
+  User findById(UUID userId);
+
+  /**
+   * Gets a consistent snapshot of all users.
+   * The snapshot is immutable and does not change when users are added afterward.
+   *
+   * @return the list of all users
+   */
+  List<User> findAll();
+
+  /**
+   * Gets a page of users in username order.
+   *
+   * @param afterUserName the username the page starts after, or null for the first page
+   * @param limit         the maximum number of users returned
+   * @return the users whose username follows the given one
+   */
+  List<User> findPage(String afterUserName, int limit);
+
+  /**
+   * Streams the users in username order without copying them first.
+   * Users added while the stream is consumed may or may not be part of it.
+   *
+   * @return the stream of users
+   */
+  Stream<User> stream();
+
+  /**
+   * Adds a user unless one with the same username already exists.
+   *
+   * @param user the user
+   * @return true if the user was added
+   */
+  boolean add(User user);
+
+  /**
+   * Gets the number of users.
+   *
+   * @return the number of users
+   */
+  int count();
+
+}
@@ -0,0 +1,76 @@
+package com.openclassrooms.tourguide.service;
+
+import com.openclassrooms.tourguide.catalog.AttractionChanges;
+import com.openclassrooms.tourguide.location.UserLocationIndex;
+import com.openclassrooms.tourguide.repository.UserRepository;
+import com.openclassrooms.tourguide.user.User;
+import gpsUtil.location.Attraction;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Updates the rewards of the users when the attraction catalog changes.
+ * Only the users who visited a location near an added or moved attraction are evaluated, against
+ * those attractions only, instead of every user against the whole catalog.
+ * <p>
+ * Rewards earned for a removed attraction, or for an attraction before it moved, are kept.
+ */
+@Slf4j
+public class CatalogRewardUpdater {
+
+  private final RewardsService rewardsService;
+  private final UserLocationIndex userLocationIndex;
+  private final UserRepository userRepository;
+
+  /**
+   * Constructor for CatalogRewardUpdater.
+   *
+   * @param rewardsService    the service calculating the rewards
+   * @param userLocationIndex the users by the cells of the locations they visited and their reward proximity
+   * @param userRepository    the storage of the users
+   */
+  public CatalogRewardUpdater(RewardsService rewardsService, UserLocationIndex userLocationIndex,
+                              UserRepository userRepository) {
+    this.rewardsService = rewardsService;
+    this.userLocationIndex = userLocationIndex;
+    this.userRepository = userRepository;
+  }
+
+  /**
+   * Updates the rewards of the users near the attractions added or moved by a change of the catalog.
+   * The users are found on the calling thread, their reward points are requested concurrently.
+   *
+   * @param changes the changes of the catalog
+   * @return a future completed once the rewards of every user found are updated
+   */
+  public CompletableFuture<Void> update(AttractionChanges changes) {
+    List<Attraction> attractions = changes.getRewardable();
+    if (attractions.isEmpty()) {
+      return CompletableFuture.completedFuture(null);
+    }
+    // each user is searched within the current reward proximity, and checked against the retained locations
+    Set<UUID> userIds = userLocationIndex.findUsersNear(attractions);
+
+    List<CompletableFuture<Void>> updated = new ArrayList<>(userIds.size());
+    userIds.stream()
+            .map(userRepository::findById)
+            .filter(Objects::nonNull)
+            .forEach(user -> updated.add(rewardsService.calculateRewardsAsync(user, attractions)));
+    log.info("Attraction catalog version {}: evaluating {} users near {} added or moved attractions",
+            changes.current().version(), updated.size(), attractions.size());
+    return CompletableFuture.allOf(updated.toArray(CompletableFuture[]::new))
+            .whenComplete((ignored, failure) -> {
+              if (failure != null) {
+                log.error("Rewards update for attraction catalog version {} failed", changes.current().version(),
+                        failure);
+              }
+            });
+  }
+
+}
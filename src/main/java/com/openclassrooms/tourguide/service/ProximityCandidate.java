@@ -0,0 +1,15 @@
+package com.openclassrooms.tourguide.service;
+
+import com.openclassrooms.tourguide.user.User;
+import gpsUtil.location.Attraction;
+import gpsUtil.location.VisitedLocation;
+
+/**
+ * A user location within the proximity of an attraction, found by a batch evaluation.
+ *
+ * @param user            the user
+ * @param visitedLocation the location of the user near the attraction
+ * @param attraction      the attraction
+ */
+public record ProximityCandidate(User user, VisitedLocation visitedLocation, Attraction attraction) {
+}
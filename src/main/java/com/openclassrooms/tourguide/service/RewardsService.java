@@ -1,23 +1,39 @@
 package com.openclassrooms.tourguide.service;
 
+import com.openclassrooms.tourguide.catalog.AttractionCatalog;
+import com.openclassrooms.tourguide.catalog.AttractionSnapshot;
+import com.openclassrooms.tourguide.client.RewardCentralClient;
+import com.openclassrooms.tourguide.client.RewardPointsCache;
 import com.openclassrooms.tourguide.configuration.ApplicationConfiguation;
+import com.openclassrooms.tourguide.executor.ExecutionEngine;
+import com.openclassrooms.tourguide.spatial.DistanceEngine;
+import com.openclassrooms.tourguide.spatial.GeoPoint;
+import com.openclassrooms.tourguide.spatial.ProximityKernel;
+import com.openclassrooms.tourguide.user.LocationSlice;
 import com.openclassrooms.tourguide.user.User;
 import com.openclassrooms.tourguide.user.UserReward;
 import gpsUtil.GpsUtil;
 import gpsUtil.location.Attraction;
 import gpsUtil.location.Location;
 import gpsUtil.location.VisitedLocation;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import lombok.Getter;
-import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import rewardCentral.RewardCentral;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.ForkJoinPool;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Service class for calculating rewards for users based on their visited locations and nearby attractions.
@@ -25,14 +41,11 @@ import java.util.concurrent.ForkJoinPool;
 @Service
 @Slf4j
 public class RewardsService {
-  private static final double STATUTE_MILES_PER_NAUTICAL_MILE = 1.15077945;
-  private final GpsUtil gpsUtil;
-  private final RewardCentral rewardsCentral;
-  // proximity in miles
-  private final int defaultProximityBuffer = 10;
-  @Setter
+  private final RewardCentralClient rewardCentralClient;
   @Getter
-  private int proximityBuffer = defaultProximityBuffer;
+  private final AttractionCatalog attractionCatalog;
+  private final DistanceEngine.Proximity attractionProximity;
+  private final Timer calculateRewardsTimer;
 
   /**
    * Constructor for RewardsService.
@@ -41,15 +54,52 @@ public class RewardsService {
    * @param rewardCentral the reward central service
    */
   public RewardsService(GpsUtil gpsUtil, RewardCentral rewardCentral) {
-    this.gpsUtil = gpsUtil;
-    this.rewardsCentral = rewardCentral;
+    this(gpsUtil, new RewardCentralClient(rewardCentral,
+            ExecutionEngine.getDefault().getRewards(),
+            new RewardPointsCache(ApplicationConfiguation.REWARD_POINTS_CACHE_MAX_SIZE,
+                    ApplicationConfiguation.REWARD_POINTS_CACHE_TTL)));
   }
 
   /**
-   * Sets the proximity buffer to the default value.
+   * Constructor for RewardsService.
+   *
+   * @param gpsUtil             the GPS utility service
+   * @param rewardCentralClient the non-blocking reward central client
+   */
+  public RewardsService(GpsUtil gpsUtil, RewardCentralClient rewardCentralClient) {
+    this(new AttractionCatalog(gpsUtil), rewardCentralClient, Metrics.globalRegistry);
+  }
+
+  /**
+   * Constructor for RewardsService.
+   *
+   * @param attractionCatalog   the attractions and their spatial data
+   * @param rewardCentralClient the non-blocking reward central client
+   * @param meterRegistry       the registry timing the reward calculations
+   */
+  @Autowired
+  public RewardsService(AttractionCatalog attractionCatalog, RewardCentralClient rewardCentralClient,
+                        MeterRegistry meterRegistry) {
+    this.rewardCentralClient = rewardCentralClient;
+    this.attractionCatalog = attractionCatalog;
+    this.attractionProximity = attractionCatalog.getSnapshot().distanceEngine()
+            .proximity(ApplicationConfiguation.ATTRACTION_PROXIMITY_RANGE);
+    this.calculateRewardsTimer = Timer.builder("tourguide.rewards.calculate")
+            .description("Reward calculation of a user, RewardCentral calls included")
+            .register(meterRegistry);
+  }
+
+  /**
+   * Gets the radius within which a user is rewarded for an attraction.
+   * Users who did not set their attraction proximity get the default radius.
+   *
+   * @param user the user
+   * @return the radius in miles
    */
-  public void setDefaultProximityBuffer() {
-    proximityBuffer = defaultProximityBuffer;
+  public int getRewardProximity(User user) {
+    int attractionProximity = user.getUserPreferences().getAttractionProximity();
+    return attractionProximity == Integer.MAX_VALUE
+            ? ApplicationConfiguation.DEFAULT_REWARD_PROXIMITY : attractionProximity;
   }
 
   /**
@@ -58,22 +108,178 @@ public class RewardsService {
    * @param user the user
    */
   public void calculateRewards(User user) {
-    CopyOnWriteArrayList<VisitedLocation> userLocations = new CopyOnWriteArrayList<>(user.getVisitedLocations());
-    List<Attraction> attractions = gpsUtil.getAttractions();
-    List<UserReward> rewards = Collections.synchronizedList(new ArrayList<>());
-
-    for (VisitedLocation visitedLocation : userLocations) {
-      for (Attraction attraction : attractions) {
-        if (rewards.stream().noneMatch(r -> r.attraction.attractionName.equals(attraction.attractionName))) {
-          if (nearAttraction(visitedLocation, attraction)) {
-            UserReward userReward = new UserReward(visitedLocation, attraction, getRewardPoints(attraction, user));
-            rewards.add(userReward);
-          }
+    calculateRewardsAsync(user).join();
+  }
+
+  /**
+   * Calculates rewards for a user without waiting for RewardCentral.
+   * Only the locations added since the last completed pass are evaluated, against the attractions
+   * the user has not been rewarded for yet. The proximity checks run on the calling thread,
+   * the reward points are requested concurrently.
+   *
+   * @param user the user
+   * @return a future completed once the user rewards are updated
+   */
+  public CompletableFuture<Void> calculateRewardsAsync(User user) {
+    long start = System.nanoTime();
+    LocationSlice newLocations = user.getUnrewardedLocations();
+    Map<String, VisitedAttraction> rewards = new LinkedHashMap<>();
+    AttractionSnapshot snapshot = attractionCatalog.getSnapshot();
+    int proximity = getRewardProximity(user);
+
+    for (VisitedLocation visitedLocation : newLocations.locations()) {
+      for (Attraction attraction : snapshot.attractionIndex().withinRadius(visitedLocation.location, proximity)) {
+        requestReward(rewards, user, visitedLocation, attraction);
+      }
+    }
+    return completeRewards(user, newLocations, rewards, start);
+  }
+
+  /**
+   * Calculates rewards for a user against some attractions only, without waiting for RewardCentral.
+   * Every retained location is evaluated, whether already rewarded or not, so attractions added or moved
+   * since the last pass are rewarded for the locations visited before; the rewarded locations are left as they are.
+   *
+   * @param user        the user
+   * @param attractions the attractions to evaluate
+   * @return a future completed once the user rewards are updated
+   */
+  public CompletableFuture<Void> calculateRewardsAsync(User user, List<Attraction> attractions) {
+    long start = System.nanoTime();
+    Map<String, VisitedAttraction> rewards = new LinkedHashMap<>();
+    DistanceEngine distanceEngine = attractionCatalog.getSnapshot().distanceEngine();
+    DistanceEngine.Proximity proximity = distanceEngine.proximity(getRewardProximity(user));
+
+    List<GeoPoint> attractionPoints = attractions.stream().map(distanceEngine::pointOf).toList();
+    for (VisitedLocation visitedLocation : user.getVisitedLocations()) {
+      GeoPoint point = distanceEngine.pointOf(visitedLocation.location);
+      for (int i = 0; i < attractions.size(); i++) {
+        Attraction attraction = attractions.get(i);
+        if (proximity.contains(attractionPoints.get(i), point)) {
+          requestReward(rewards, user, visitedLocation, attraction);
         }
       }
     }
+    return completeRewards(user, null, rewards, start);
+  }
 
-    user.setUserRewards(rewards);
+  /**
+   * Calculates rewards for a list of users without waiting for RewardCentral.
+   * Same as {@link #calculateRewardsAsync(User)} for each user, but the new locations of all the users
+   * are evaluated against the attractions at once, in a few loops over primitive arrays,
+   * one batch per reward proximity in use.
+   *
+   * @param users the users
+   * @return a future completed once the rewards of every user are updated
+   */
+  public CompletableFuture<Void> calculateRewardsAsync(List<User> users) {
+    long start = System.nanoTime();
+    List<LocationSlice> slices = new ArrayList<>(users.size());
+    List<VisitedLocation> locations = new ArrayList<>();
+    for (User user : users) {
+      LocationSlice slice = user.getUnrewardedLocations();
+      slices.add(slice);
+      locations.addAll(slice.locations());
+    }
+    // index of the user of each location
+    int[] owners = new int[locations.size()];
+    for (int u = 0, i = 0; u < users.size(); u++) {
+      for (int n = slices.get(u).locations().size(); n > 0; n--) {
+        owners[i++] = u;
+      }
+    }
+
+    List<Map<String, VisitedAttraction>> rewards = new ArrayList<>(users.size());
+    users.forEach(user -> rewards.add(new LinkedHashMap<>()));
+    AttractionSnapshot snapshot = attractionCatalog.getSnapshot();
+    List<Attraction> attractions = snapshot.attractions();
+    findWithinRewardProximity(snapshot, users, owners, locations, (locationIndex, targetIndex) -> {
+      int owner = owners[locationIndex];
+      requestReward(rewards.get(owner), users.get(owner), locations.get(locationIndex),
+              attractions.get(targetIndex));
+    });
+
+    CompletableFuture<?>[] calculated = new CompletableFuture[users.size()];
+    for (int u = 0; u < users.size(); u++) {
+      calculated[u] = completeRewards(users.get(u), slices.get(u), rewards.get(u), start);
+    }
+    return CompletableFuture.allOf(calculated);
+  }
+
+  /**
+   * Finds the attractions within the reward proximity of the latest location of each user.
+   * Every location is evaluated against every attraction at once, using SIMD instructions when available.
+   *
+   * @param users the users, those without any location are ignored
+   * @return the pairs of user and attraction found, attraction after attraction for the users sharing a proximity
+   */
+  public List<ProximityCandidate> getProximityCandidates(List<User> users) {
+    List<User> located = new ArrayList<>(users.size());
+    List<VisitedLocation> locations = new ArrayList<>(users.size());
+    for (User user : users) {
+      VisitedLocation lastVisitedLocation = user.getLastVisitedLocation();
+      if (lastVisitedLocation != null) {
+        located.add(user);
+        locations.add(lastVisitedLocation);
+      }
+    }
+    int[] owners = new int[located.size()];
+    Arrays.setAll(owners, i -> i);
+    List<ProximityCandidate> candidates = new ArrayList<>();
+    AttractionSnapshot snapshot = attractionCatalog.getSnapshot();
+    List<Attraction> attractions = snapshot.attractions();
+    findWithinRewardProximity(snapshot, located, owners, locations,
+            (locationIndex, targetIndex) -> candidates.add(new ProximityCandidate(located.get(locationIndex),
+                    locations.get(locationIndex), attractions.get(targetIndex))));
+    return candidates;
+  }
+
+  /**
+   * Runs one batch for each reward proximity in use, with the locations of the users sharing it.
+   * Most users keep the default proximity, so there are only a few batches.
+   */
+  private void findWithinRewardProximity(AttractionSnapshot snapshot, List<User> users, int[] owners,
+                                         List<VisitedLocation> locations, ProximityKernel.PairSink sink) {
+    Map<Integer, List<Integer>> locationIndexesByProximity = new HashMap<>();
+    for (int i = 0; i < locations.size(); i++) {
+      locationIndexesByProximity.computeIfAbsent(getRewardProximity(users.get(owners[i])), proximity -> new ArrayList<>())
+              .add(i);
+    }
+    locationIndexesByProximity.forEach((proximity, locationIndexes) ->
+            snapshot.batchProximity().findWithin(locationIndexes, i -> locations.get(i).location, proximity,
+                    (batchIndex, targetIndex) -> sink.accept(locationIndexes.get(batchIndex), targetIndex)));
+  }
+
+  // the first location found near an attraction is the one rewarded
+  private void requestReward(Map<String, VisitedAttraction> rewards, User user,
+                             VisitedLocation visitedLocation, Attraction attraction) {
+    if (!user.hasRewardFor(attraction.attractionName)) {
+      rewards.putIfAbsent(attraction.attractionName, new VisitedAttraction(visitedLocation, attraction));
+    }
+  }
+
+  // the points of every attraction found for the user are requested in a single batch;
+  // without new locations, the locations already rewarded stay as they are
+  private CompletableFuture<Void> completeRewards(User user, LocationSlice newLocations,
+                                                  Map<String, VisitedAttraction> rewards, long start) {
+    List<UUID> attractionIds = rewards.values().stream()
+            .map(visitedAttraction -> visitedAttraction.attraction().attractionId)
+            .toList();
+    CompletableFuture<Void> calculated = rewardCentralClient.getAttractionRewardPoints(attractionIds, user.getUserId())
+            .thenAccept(points -> {
+              rewards.values().forEach(visitedAttraction -> user.addUserReward(new UserReward(
+                      visitedAttraction.visitedLocation(), visitedAttraction.attraction(),
+                      points.get(visitedAttraction.attraction().attractionId))));
+              if (newLocations != null) {
+                user.markLocationsRewarded(newLocations);
+              }
+            });
+    calculated.whenComplete((ignored, failure) ->
+            calculateRewardsTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+    return calculated;
+  }
+
+  private record VisitedAttraction(VisitedLocation visitedLocation, Attraction attraction) {
   }
 
   /**
@@ -84,19 +290,19 @@ public class RewardsService {
    * @return true if within proximity, false otherwise
    */
   public boolean isWithinAttractionProximity(Attraction attraction, Location location) {
-    int attractionProximityRange = ApplicationConfiguation.ATTRACTION_PROXIMITY_RANGE;
-    return !(getDistance(attraction, location) > attractionProximityRange);
+    DistanceEngine distanceEngine = attractionCatalog.getSnapshot().distanceEngine();
+    return attractionProximity.contains(distanceEngine.pointOf(attraction), distanceEngine.pointOf(location));
   }
 
   /**
-   * Checks if a visited location is near an attraction.
+   * Gets the attractions closest to a location.
    *
-   * @param visitedLocation the visited location
-   * @param attraction      the attraction
-   * @return true if near, false otherwise
+   * @param location the location
+   * @param count    the maximum number of attractions to return
+   * @return the closest attractions, sorted by increasing distance
    */
-  private boolean nearAttraction(VisitedLocation visitedLocation, Attraction attraction) {
-    return !(getDistance(attraction, visitedLocation.location) > proximityBuffer);
+  public List<Attraction> getNearestAttractions(Location location, int count) {
+    return attractionCatalog.getSnapshot().attractionIndex().nearest(location, count);
   }
 
   /**
@@ -107,7 +313,18 @@ public class RewardsService {
    * @return the reward points
    */
   public int getRewardPoints(Attraction attraction, User user) {
-    return rewardsCentral.getAttractionRewardPoints(attraction.attractionId, user.getUserId());
+    return getRewardPointsAsync(attraction, user).join();
+  }
+
+  /**
+   * Gets the reward points for a user at a specific attraction without blocking.
+   *
+   * @param attraction the attraction
+   * @param user       the user
+   * @return a future completed with the reward points
+   */
+  public CompletableFuture<Integer> getRewardPointsAsync(Attraction attraction, User user) {
+    return rewardCentralClient.getAttractionRewardPoints(attraction.attractionId, user.getUserId());
   }
 
   /**
@@ -118,16 +335,7 @@ public class RewardsService {
    * @return the distance in miles
    */
   public double getDistance(Location loc1, Location loc2) {
-    double lat1 = Math.toRadians(loc1.latitude);
-    double lon1 = Math.toRadians(loc1.longitude);
-    double lat2 = Math.toRadians(loc2.latitude);
-    double lon2 = Math.toRadians(loc2.longitude);
-
-    double angle = Math.acos(Math.sin(lat1) * Math.sin(lat2)
-            + Math.cos(lat1) * Math.cos(lat2) * Math.cos(lon1 - lon2));
-
-    double nauticalMiles = 60 * Math.toDegrees(angle);
-    return STATUTE_MILES_PER_NAUTICAL_MILE * nauticalMiles;
+    return attractionCatalog.getSnapshot().distanceEngine().distance(loc1, loc2);
   }
 
   /**
@@ -136,10 +344,6 @@ public class RewardsService {
    * @param allUsers the list of all users
    */
   public void parallelCalculateRewardsUsersList(List<User> allUsers) {
-    ForkJoinPool customThreadPool = new ForkJoinPool(ApplicationConfiguation.MAX_THREAD_REWARD);
-
-    customThreadPool.submit(() -> allUsers.stream().parallel().forEach(this::calculateRewards)).join();
-
-    customThreadPool.shutdown();
+    calculateRewardsAsync(allUsers).join();
   }
 }
\ No newline at end of file
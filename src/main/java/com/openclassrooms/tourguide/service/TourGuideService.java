@@ -1,26 +1,42 @@
 package com.openclassrooms.tourguide.service;
 
+import com.openclassrooms.tourguide.catalog.AttractionCatalog;
+import com.openclassrooms.tourguide.catalog.AttractionSnapshot;
+import com.openclassrooms.tourguide.client.TripDealsCache;
+import com.openclassrooms.tourguide.client.TripPricerClient;
 import com.openclassrooms.tourguide.configuration.ApplicationConfiguation;
+import com.openclassrooms.tourguide.configuration.ExecutorProperties;
+import com.openclassrooms.tourguide.configuration.InternalUsersProperties;
+import com.openclassrooms.tourguide.configuration.TrackerProperties;
 import com.openclassrooms.tourguide.dto.AttractionNearbyUserDto;
+import com.openclassrooms.tourguide.executor.ExecutionEngine;
 import com.openclassrooms.tourguide.helper.InternalTestHelper;
+import com.openclassrooms.tourguide.helper.InternalUserGenerator;
+import com.openclassrooms.tourguide.repository.InMemoryUserRepository;
+import com.openclassrooms.tourguide.repository.UserRepository;
 import com.openclassrooms.tourguide.tracker.Tracker;
+import com.openclassrooms.tourguide.tracker.TrackingPipeline;
 import com.openclassrooms.tourguide.user.User;
+import com.openclassrooms.tourguide.user.UserPreferences;
 import com.openclassrooms.tourguide.user.UserReward;
 import gpsUtil.GpsUtil;
 import gpsUtil.location.Attraction;
-import gpsUtil.location.Location;
 import gpsUtil.location.VisitedLocation;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import tripPricer.Provider;
 import tripPricer.TripPricer;
 
-import java.time.LocalDateTime;
-import java.time.ZoneOffset;
 import java.util.*;
-import java.util.concurrent.ForkJoinPool;
-import java.util.stream.IntStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
 /**
  * Service class for TourGuide application.
@@ -35,37 +51,134 @@ public class TourGuideService {
    **********************************************************************************/
   private static final String tripPricerApiKey = "test-server-api-key";
   public final Tracker tracker;
-  private final GpsUtil gpsUtil;
   private final RewardsService rewardsService;
-  private final TripPricer tripPricer = new TripPricer();
+  private final AttractionCatalog attractionCatalog;
+  private final TrackingPipeline trackingPipeline;
+  private final TripPricerClient tripPricerClient;
   // Database connection will be used for external users, but for testing purposes
   // internal users are provided and stored in memory
-  private final Map<String, User> internalUserMap = new HashMap<>();
+  private final UserRepository userRepository;
   private final Logger logger = LoggerFactory.getLogger(TourGuideService.class);
   boolean testMode = ApplicationConfiguation.TEST_MODE;
+  // completed once the internal users are generated, or at once when there are none to generate
+  private final CompletableFuture<Void> usersLoaded = new CompletableFuture<>();
+  private final AtomicBoolean usersLoading = new AtomicBoolean();
+  // the engine created by the service itself, running its pipeline workers, null when given one
+  private final ExecutionEngine ownedExecutionEngine;
 
   /**
-   * Constructor for TourGuideService.
+   * Constructor for TourGuideService, with its own execution engine shut down by {@link #shutdown()}.
    *
    * @param gpsUtil        the GPS utility service
    * @param rewardsService the rewards service
    */
   public TourGuideService(GpsUtil gpsUtil, RewardsService rewardsService) {
-    this.gpsUtil = gpsUtil;
+    this(gpsUtil, rewardsService, new ExecutionEngine(new ExecutorProperties()), new TrackerProperties());
+  }
+
+  private TourGuideService(GpsUtil gpsUtil, RewardsService rewardsService, ExecutionEngine executionEngine,
+                           TrackerProperties trackerProperties) {
+    this(rewardsService,
+            new TrackingPipeline(gpsUtil, rewardsService, List.of(), trackerProperties, executionEngine),
+            trackerProperties, new InMemoryUserRepository(),
+            new TripPricerClient(new TripPricer(), executionEngine.getTripPricing(),
+                    new TripDealsCache(ApplicationConfiguation.TRIP_DEALS_CACHE_MAX_SIZE,
+                            ApplicationConfiguation.TRIP_DEALS_CACHE_TTL)),
+            rewardsService.getAttractionCatalog(), new InternalUsersProperties(), Metrics.globalRegistry,
+            executionEngine);
+  }
+
+  /**
+   * Constructor for TourGuideService.
+   *
+   * @param rewardsService    the rewards service
+   * @param trackingPipeline  the pipeline tracking user locations
+   * @param trackerProperties the scheduling of the tracker
+   * @param userRepository    the storage of the users
+   * @param tripPricerClient  the non-blocking trip pricing client
+   * @param attractionCatalog the attractions and their spatial data
+   * @param meterRegistry     the registry timing the tracker
+   */
+  public TourGuideService(RewardsService rewardsService, TrackingPipeline trackingPipeline,
+                          TrackerProperties trackerProperties, UserRepository userRepository,
+                          TripPricerClient tripPricerClient, AttractionCatalog attractionCatalog,
+                          MeterRegistry meterRegistry) {
+    this(rewardsService, trackingPipeline, trackerProperties, userRepository, tripPricerClient, attractionCatalog,
+            new InternalUsersProperties(), meterRegistry);
+  }
+
+  /**
+   * Constructor for TourGuideService.
+   *
+   * @param rewardsService          the rewards service
+   * @param trackingPipeline        the pipeline tracking user locations
+   * @param trackerProperties       the scheduling of the tracker
+   * @param userRepository          the storage of the users
+   * @param tripPricerClient        the non-blocking trip pricing client
+   * @param attractionCatalog       the attractions and their spatial data
+   * @param internalUsersProperties when the internal test users are generated
+   * @param meterRegistry           the registry timing the tracker
+   */
+  @Autowired
+  public TourGuideService(RewardsService rewardsService, TrackingPipeline trackingPipeline,
+                          TrackerProperties trackerProperties, UserRepository userRepository,
+                          TripPricerClient tripPricerClient, AttractionCatalog attractionCatalog,
+                          InternalUsersProperties internalUsersProperties, MeterRegistry meterRegistry) {
+    this(rewardsService, trackingPipeline, trackerProperties, userRepository, tripPricerClient, attractionCatalog,
+            internalUsersProperties, meterRegistry, null);
+  }
+
+  private TourGuideService(RewardsService rewardsService, TrackingPipeline trackingPipeline,
+                           TrackerProperties trackerProperties, UserRepository userRepository,
+                           TripPricerClient tripPricerClient, AttractionCatalog attractionCatalog,
+                           InternalUsersProperties internalUsersProperties, MeterRegistry meterRegistry,
+                           ExecutionEngine ownedExecutionEngine) {
+    this.ownedExecutionEngine = ownedExecutionEngine;
     this.rewardsService = rewardsService;
+    this.attractionCatalog = attractionCatalog;
+    this.userRepository = userRepository;
+    this.tripPricerClient = tripPricerClient;
+    this.trackingPipeline = trackingPipeline;
 
     Locale.setDefault(Locale.US);
 
-    if (testMode) {
-      logger.info("TestMode enabled");
-      logger.debug("Initializing users");
-      initializeInternalUsers();
-      logger.debug("Finished initializing users");
+    if (testMode && userRepository.count() > 0) {
+      logger.info("TestMode enabled, keeping the {} recovered users", userRepository.count());
+      usersLoaded.complete(null);
+    } else if (testMode) {
+      logger.info("TestMode enabled, {} generation of the internal users", internalUsersProperties.getGeneration());
+      switch (internalUsersProperties.getGeneration()) {
+        case EAGER -> loadInternalUsers();
+        case BACKGROUND -> Thread.ofPlatform().name("internal-users").daemon().start(this::loadInternalUsers);
+        case LAZY -> {
+          // generated by the first lookup
+        }
+      }
+    } else {
+      usersLoaded.complete(null);
     }
-    tracker = new Tracker(this);
+    tracker = new Tracker(this, trackerProperties, meterRegistry);
     addShutDownHook();
   }
 
+  /**
+   * Checks if the users can be served without waiting for the internal users to be generated.
+   *
+   * @return true once the users are loaded
+   */
+  public boolean isUsersLoaded() {
+    return usersLoaded.isDone() && !usersLoaded.isCompletedExceptionally();
+  }
+
+  /**
+   * Gets the reason the internal users could not be generated.
+   *
+   * @return the failure of the generation, or null if it did not fail
+   */
+  public Throwable getUsersLoadFailure() {
+    return usersLoaded.state() == Future.State.FAILED ? usersLoaded.exceptionNow() : null;
+  }
+
   /**
    * Gets the rewards for a user.
    *
@@ -83,8 +196,20 @@ public class TourGuideService {
    * @return the visited location
    */
   public VisitedLocation getUserLocation(User user) {
-    return (!user.getVisitedLocations().isEmpty()) ? user.getLastVisitedLocation()
-            : trackUserLocation(user);
+    VisitedLocation lastVisitedLocation = user.getLastVisitedLocation();
+    return (lastVisitedLocation != null) ? lastVisitedLocation : trackUserLocation(user);
+  }
+
+  /**
+   * Gets the location of a user without blocking the caller when the user has to be tracked first.
+   *
+   * @param user the user
+   * @return a future completed with the visited location
+   */
+  public CompletableFuture<VisitedLocation> getUserLocationAsync(User user) {
+    VisitedLocation lastVisitedLocation = user.getLastVisitedLocation();
+    return (lastVisitedLocation != null) ? CompletableFuture.completedFuture(lastVisitedLocation)
+            : trackingPipeline.track(user);
   }
 
   /**
@@ -94,7 +219,8 @@ public class TourGuideService {
    * @return the user
    */
   public User getUser(String userName) {
-    return internalUserMap.get(userName);
+    awaitUsers();
+    return userRepository.findByUserName(userName);
   }
 
   /**
@@ -104,16 +230,40 @@ public class TourGuideService {
    * @return the user
    */
   public User getUserById(UUID userId) {
-    return internalUserMap.values().stream().filter(user -> user.getUserId().equals(userId)).findFirst().orElse(null);
+    awaitUsers();
+    return userRepository.findById(userId);
   }
 
   /**
-   * Gets all users.
+   * Gets a snapshot of all users.
    *
-   * @return the list of all users
+   * @return the immutable list of all users
    */
   public List<User> getAllUsers() {
-    return new ArrayList<>(internalUserMap.values());
+    awaitUsers();
+    return userRepository.findAll();
+  }
+
+  /**
+   * Gets a page of users in username order.
+   *
+   * @param afterUserName the username the page starts after, or null for the first page
+   * @param limit         the maximum number of users returned
+   * @return the users of the page
+   */
+  public List<User> getUsersPage(String afterUserName, int limit) {
+    awaitUsers();
+    return userRepository.findPage(afterUserName, limit);
+  }
+
+  /**
+   * Streams all users in username order without copying them first.
+   *
+   * @return the stream of users
+   */
+  public Stream<User> streamUsers() {
+    awaitUsers();
+    return userRepository.stream();
   }
 
   /**
@@ -122,9 +272,8 @@ public class TourGuideService {
    * @param user the user
    */
   public void addUser(User user) {
-    if (!internalUserMap.containsKey(user.getUserName())) {
-      internalUserMap.put(user.getUserName(), user);
-    }
+    awaitUsers();
+    userRepository.add(user);
   }
 
   /**
@@ -134,25 +283,35 @@ public class TourGuideService {
    * @return the list of providers
    */
   public List<Provider> getTripDeals(User user) {
-    int cumulatativeRewardPoints = user.getUserRewards().stream().mapToInt(UserReward::getRewardPoints).sum();
-    List<Provider> providers = tripPricer.getPrice(tripPricerApiKey, user.getUserId(),
-            user.getUserPreferences().getNumberOfAdults(), user.getUserPreferences().getNumberOfChildren(),
-            user.getUserPreferences().getTripDuration(), cumulatativeRewardPoints);
-    user.setTripDeals(providers);
-    return providers;
+    return getTripDealsAsync(user).join();
   }
 
   /**
-   * Tracks the location of a user.
+   * Gets trip deals for a user without blocking the caller on TripPricer.
+   *
+   * @param user the user
+   * @return a future completed with the list of providers
+   */
+  public CompletableFuture<List<Provider>> getTripDealsAsync(User user) {
+    UserPreferences userPreferences = user.getUserPreferences();
+    // the running total of the user, no need to go through the rewards
+    return tripPricerClient.getPrice(tripPricerApiKey, user.getUserId(), userPreferences.getNumberOfAdults(),
+                    userPreferences.getNumberOfChildren(), userPreferences.getTripDuration(),
+                    user.getRewardPointsTotal())
+            .thenApply(providers -> {
+              user.setTripDeals(providers);
+              return providers;
+            });
+  }
+
+  /**
+   * Tracks the location of a user on the calling thread, without waiting behind the tracker passes.
    *
    * @param user the user
    * @return the visited location
    */
   public VisitedLocation trackUserLocation(User user) {
-    VisitedLocation visitedLocation = gpsUtil.getUserLocation(user.getUserId());
-    user.addToVisitedLocations(visitedLocation);
-    rewardsService.calculateRewards(user);
-    return visitedLocation;
+    return trackingPipeline.trackNow(user);
   }
 
   /**
@@ -163,93 +322,91 @@ public class TourGuideService {
    * @return the list of nearby attractions
    */
   public List<AttractionNearbyUserDto> getNearByAttractions(VisitedLocation visitedLocation, User user) {
-    List<AttractionNearbyUserDto> nearbyAttractions = new ArrayList<>();
-    for (Attraction attraction : gpsUtil.getAttractions()) {
-      int rewardPoints = rewardsService.getRewardPoints(attraction, user);
-      double distance = rewardsService.getDistance(attraction, visitedLocation.location);
-      AttractionNearbyUserDto attractionNearbyUserDto = new AttractionNearbyUserDto(attraction, visitedLocation, rewardPoints, distance);
-      nearbyAttractions.add(attractionNearbyUserDto);
-    }
-
-    // Sort by distance
-    nearbyAttractions.sort(Comparator.comparing(AttractionNearbyUserDto::getDistance));
-
-    // Limit to 5 attractions
-    if (nearbyAttractions.size() > ApplicationConfiguation.MAX_ATTRACTION_TO_SHOW) {
-      nearbyAttractions = nearbyAttractions.subList(0, ApplicationConfiguation.MAX_ATTRACTION_TO_SHOW);
-    }
-
-    return nearbyAttractions;
+    return getNearByAttractionsAsync(visitedLocation, user).join();
   }
 
   /**
-   * Adds a shutdown hook to stop tracking.
+   * Gets nearby attractions for a user without blocking the caller on RewardCentral.
+   * Only the attractions within the attraction proximity of the user are returned, if it is set.
+   *
+   * @param visitedLocation the visited location
+   * @param user            the user
+   * @return a future completed with the list of nearby attractions
    */
-  private void addShutDownHook() {
-    Runtime.getRuntime().addShutdownHook(new Thread() {
-      public void run() {
-        tracker.stopTracking();
+  public CompletableFuture<List<AttractionNearbyUserDto>> getNearByAttractionsAsync(VisitedLocation visitedLocation,
+                                                                                    User user) {
+    // a single snapshot, the distances are computed on the attractions found
+    AttractionSnapshot snapshot = attractionCatalog.getSnapshot();
+    // Already sorted by distance, limited to the attractions to show and to the proximity set by the user
+    List<Attraction> attractions = snapshot.attractionIndex().nearest(visitedLocation.location,
+            ApplicationConfiguation.MAX_ATTRACTION_TO_SHOW, user.getUserPreferences().getAttractionProximity());
+    // Request all reward points at once rather than one RewardCentral round trip after the other
+    List<CompletableFuture<Integer>> rewardPoints = attractions.stream()
+            .map(attraction -> rewardsService.getRewardPointsAsync(attraction, user))
+            .toList();
+
+    return CompletableFuture.allOf(rewardPoints.toArray(CompletableFuture[]::new)).thenApply(ignored -> {
+      List<AttractionNearbyUserDto> nearbyAttractions = new ArrayList<>();
+      for (int i = 0; i < attractions.size(); i++) {
+        Attraction attraction = attractions.get(i);
+        double distance = snapshot.distanceEngine().distance(attraction, visitedLocation.location);
+        AttractionNearbyUserDto attractionNearbyUserDto = new AttractionNearbyUserDto(attraction, visitedLocation, rewardPoints.get(i).join(), distance);
+        nearbyAttractions.add(attractionNearbyUserDto);
       }
+      return nearbyAttractions;
     });
   }
 
   /**
-   * Initializes internal users for testing.
+   * Stops tracking, and shuts down the execution engine the service created itself, if any.
    */
-  private void initializeInternalUsers() {
-    IntStream.range(0, InternalTestHelper.getInternalUserNumber()).forEach(i -> {
-      String userName = "internalUser" + i;
-      String phone = "000";
-      String email = userName + "@tourGuide.com";
-      User user = new User(UUID.randomUUID(), userName, phone, email);
-      generateUserLocationHistory(user);
-      internalUserMap.put(userName, user);
-    });
-    logger.debug("Created " + InternalTestHelper.getInternalUserNumber() + " internal test users.");
+  public void shutdown() {
+    tracker.stopTracking();
+    if (ownedExecutionEngine != null) {
+      ownedExecutionEngine.shutdown();
+    }
   }
 
   /**
-   * Generates location history for a user.
-   *
-   * @param user the user
+   * Adds a shutdown hook to stop tracking.
    */
-  private void generateUserLocationHistory(User user) {
-    IntStream.range(0, 3).forEach(i -> {
-      user.addToVisitedLocations(new VisitedLocation(user.getUserId(),
-              new Location(generateRandomLatitude(), generateRandomLongitude()), getRandomTime()));
+  private void addShutDownHook() {
+    Runtime.getRuntime().addShutdownHook(new Thread() {
+      public void run() {
+        shutdown();
+      }
     });
   }
 
   /**
-   * Generates a random longitude.
-   *
-   * @return the random longitude
+   * Waits for the internal users, starting their generation if it is lazy and not started yet.
    */
-  private double generateRandomLongitude() {
-    double leftLimit = -180;
-    double rightLimit = 180;
-    return leftLimit + new Random().nextDouble() * (rightLimit - leftLimit);
-  }
-
-  /**
-   * Generates a random latitude.
-   *
-   * @return the random latitude
-   */
-  private double generateRandomLatitude() {
-    double leftLimit = -85.05112878;
-    double rightLimit = 85.05112878;
-    return leftLimit + new Random().nextDouble() * (rightLimit - leftLimit);
+  private void awaitUsers() {
+    if (!usersLoaded.isDone()) {
+      loadInternalUsers();
+      usersLoaded.join();
+    }
   }
 
   /**
-   * Gets a random time within the last 30 days.
-   *
-   * @return the random time
+   * Generates the internal users for testing, once; concurrent callers return at once.
    */
-  private Date getRandomTime() {
-    LocalDateTime localDateTime = LocalDateTime.now().minusDays(new Random().nextInt(30));
-    return Date.from(localDateTime.toInstant(ZoneOffset.UTC));
+  private void loadInternalUsers() {
+    if (!usersLoading.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      long start = System.nanoTime();
+      logger.debug("Initializing users");
+      List<User> users = new InternalUserGenerator().generate(InternalTestHelper.getInternalUserNumber());
+      users.forEach(userRepository::add);
+      logger.debug("Created {} internal test users in {} ms.", users.size(),
+              TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+      usersLoaded.complete(null);
+    } catch (RuntimeException e) {
+      logger.error("Generation of the internal users failed", e);
+      usersLoaded.completeExceptionally(e);
+    }
   }
 
   /**
@@ -258,13 +415,7 @@ public class TourGuideService {
    * @param allUsers the list of all users
    */
   public void parallelTrackAllUsersLocation(List<User> allUsers) {
-    ForkJoinPool customThreadPool = new ForkJoinPool(ApplicationConfiguation.MAX_THREAD_TRACK);
-
-    customThreadPool.submit(() -> {
-      allUsers.stream().parallel().forEach(this::trackUserLocation);
-    }).join();
-
-    customThreadPool.shutdown();
+    trackingPipeline.trackAll(allUsers).join();
   }
 
 }
\ No newline at end of file
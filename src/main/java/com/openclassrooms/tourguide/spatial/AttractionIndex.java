@@ -0,0 +1,244 @@
+package com.openclassrooms.tourguide.spatial;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Immutable k-d tree over the unit vectors of the attractions.
+ * The straight-line distance between two unit vectors grows with the great-circle distance,
+ * so both radius and k-nearest queries can prune on squared chords without any trigonometry.
+ */
+public class AttractionIndex {
+
+  private final List<Attraction> attractionList;
+  private final Attraction[] attractions;
+  private final double[][] vectors;
+  private final int[] splitAxis;
+
+  /**
+   * Builds the index once from the attraction list.
+   *
+   * @param attractions the attractions to index
+   */
+  public AttractionIndex(List<Attraction> attractions) {
+    int size = attractions.size();
+    this.attractionList = List.copyOf(attractions);
+    this.attractions = attractions.toArray(new Attraction[0]);
+    this.vectors = new double[size][];
+    this.splitAxis = new int[size];
+    for (int i = 0; i < size; i++) {
+      vectors[i] = GeoMath.toUnitVector(this.attractions[i]);
+    }
+    build(0, size);
+  }
+
+  /**
+   * Gets the indexed attractions.
+   *
+   * @return an unmodifiable list of the attractions
+   */
+  public List<Attraction> getAttractions() {
+    return attractionList;
+  }
+
+  /**
+   * Gets the number of indexed attractions.
+   *
+   * @return the number of attractions
+   */
+  public int size() {
+    return attractions.length;
+  }
+
+  /**
+   * Finds every attraction within a great-circle radius of a location.
+   *
+   * @param location the center of the search
+   * @param miles    the radius in miles
+   * @return the attractions within the radius, in no particular order
+   */
+  public List<Attraction> withinRadius(Location location, double miles) {
+    double maxSquaredChord = GeoMath.milesToSquaredChord(miles);
+    if (maxSquaredChord == Double.POSITIVE_INFINITY) {
+      return getAttractions();
+    }
+    List<Attraction> result = new ArrayList<>();
+    searchRadius(GeoMath.toUnitVector(location), maxSquaredChord, 0, attractions.length, result);
+    return result;
+  }
+
+  /**
+   * Finds the k attractions closest to a location.
+   *
+   * @param location the center of the search
+   * @param k        the maximum number of attractions to return
+   * @return the closest attractions, sorted by increasing distance
+   */
+  public List<Attraction> nearest(Location location, int k) {
+    return nearest(location, k, Double.POSITIVE_INFINITY);
+  }
+
+  /**
+   * Finds the k attractions closest to a location, within a great-circle radius.
+   * The radius bounds the search from the start, so branches beyond it are never visited.
+   *
+   * @param location the center of the search
+   * @param k        the maximum number of attractions to return
+   * @param miles    the radius in miles
+   * @return the closest attractions within the radius, sorted by increasing distance
+   */
+  public List<Attraction> nearest(Location location, int k, double miles) {
+    if (k <= 0 || attractions.length == 0) {
+      return List.of();
+    }
+    double[] target = GeoMath.toUnitVector(location);
+    PriorityQueue<Candidate> best = new PriorityQueue<>(k, Comparator.comparingDouble(Candidate::squaredChord).reversed());
+    searchNearest(target, k, GeoMath.milesToSquaredChord(miles), 0, attractions.length, best);
+
+    List<Candidate> sorted = new ArrayList<>(best);
+    sorted.sort(Comparator.comparingDouble(Candidate::squaredChord));
+    List<Attraction> result = new ArrayList<>(sorted.size());
+    for (Candidate candidate : sorted) {
+      result.add(attractions[candidate.index()]);
+    }
+    return result;
+  }
+
+  /**
+   * Sorts the range in place so that the median on the widest axis sits in the middle,
+   * with smaller coordinates on its left, then recurses on both halves.
+   */
+  private void build(int from, int to) {
+    if (to - from <= 1) {
+      return;
+    }
+    int axis = widestAxis(from, to);
+    int mid = (from + to) >>> 1;
+    select(from, to - 1, mid, axis);
+    splitAxis[mid] = axis;
+    build(from, mid);
+    build(mid + 1, to);
+  }
+
+  private int widestAxis(int from, int to) {
+    int widest = 0;
+    double widestSpread = -1;
+    for (int axis = 0; axis < 3; axis++) {
+      double min = Double.POSITIVE_INFINITY;
+      double max = Double.NEGATIVE_INFINITY;
+      for (int i = from; i < to; i++) {
+        min = Math.min(min, vectors[i][axis]);
+        max = Math.max(max, vectors[i][axis]);
+      }
+      if (max - min > widestSpread) {
+        widestSpread = max - min;
+        widest = axis;
+      }
+    }
+    return widest;
+  }
+
+  /**
+   * Quickselect on the given axis so that position k holds the element of rank k in [left, right].
+   */
+  private void select(int left, int right, int k, int axis) {
+    while (left < right) {
+      double pivot = vectors[(left + right) >>> 1][axis];
+      int i = left;
+      int j = right;
+      while (i <= j) {
+        while (vectors[i][axis] < pivot) {
+          i++;
+        }
+        while (vectors[j][axis] > pivot) {
+          j--;
+        }
+        if (i <= j) {
+          swap(i++, j--);
+        }
+      }
+      if (k <= j) {
+        right = j;
+      } else if (k >= i) {
+        left = i;
+      } else {
+        return;
+      }
+    }
+  }
+
+  private void swap(int i, int j) {
+    Attraction attraction = attractions[i];
+    attractions[i] = attractions[j];
+    attractions[j] = attraction;
+    double[] vector = vectors[i];
+    vectors[i] = vectors[j];
+    vectors[j] = vector;
+  }
+
+  private void searchRadius(double[] target, double maxSquaredChord, int from, int to, List<Attraction> result) {
+    if (from >= to) {
+      return;
+    }
+    int mid = (from + to) >>> 1;
+    if (squaredChord(target, vectors[mid]) <= maxSquaredChord) {
+      result.add(attractions[mid]);
+    }
+    if (to - from == 1) {
+      return;
+    }
+    double delta = target[splitAxis[mid]] - vectors[mid][splitAxis[mid]];
+    if (delta <= 0 || delta * delta <= maxSquaredChord) {
+      searchRadius(target, maxSquaredChord, from, mid, result);
+    }
+    if (delta >= 0 || delta * delta <= maxSquaredChord) {
+      searchRadius(target, maxSquaredChord, mid + 1, to, result);
+    }
+  }
+
+  private void searchNearest(double[] target, int k, double maxSquaredChord, int from, int to,
+                             PriorityQueue<Candidate> best) {
+    if (from >= to) {
+      return;
+    }
+    int mid = (from + to) >>> 1;
+    double distance = squaredChord(target, vectors[mid]);
+    if (distance <= maxSquaredChord) {
+      if (best.size() < k) {
+        best.add(new Candidate(mid, distance));
+      } else if (distance < best.peek().squaredChord()) {
+        best.poll();
+        best.add(new Candidate(mid, distance));
+      }
+    }
+    if (to - from == 1) {
+      return;
+    }
+    double delta = target[splitAxis[mid]] - vectors[mid][splitAxis[mid]];
+    int nearFrom = delta <= 0 ? from : mid + 1;
+    int nearTo = delta <= 0 ? mid : to;
+    int farFrom = delta <= 0 ? mid + 1 : from;
+    int farTo = delta <= 0 ? to : mid;
+    searchNearest(target, k, maxSquaredChord, nearFrom, nearTo, best);
+    double bound = best.size() < k ? maxSquaredChord : Math.min(maxSquaredChord, best.peek().squaredChord());
+    if (delta * delta <= bound) {
+      searchNearest(target, k, maxSquaredChord, farFrom, farTo, best);
+    }
+  }
+
+  private static double squaredChord(double[] a, double[] b) {
+    double dx = a[0] - b[0];
+    double dy = a[1] - b[1];
+    double dz = a[2] - b[2];
+    return dx * dx + dy * dy + dz * dz;
+  }
+
+  private record Candidate(int index, double squaredChord) {
+  }
+
+}
@@ -0,0 +1,79 @@
+package com.openclassrooms.tourguide.spatial;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Evaluates many locations at once against every attraction with a {@link ProximityKernel}.
+ * The attraction unit vectors are laid out once in primitive arrays.
+ */
+public class BatchProximity {
+
+  private final List<Attraction> attractions;
+  private final double[][] attractionVectors;
+  private final ProximityKernel kernel;
+
+  /**
+   * Constructor for BatchProximity.
+   *
+   * @param attractions the attractions
+   * @param kernel      the kernel comparing the locations with the attractions
+   */
+  public BatchProximity(List<Attraction> attractions, ProximityKernel kernel) {
+    this.attractions = List.copyOf(attractions);
+    this.attractionVectors = toVectors(this.attractions, Function.identity());
+    this.kernel = kernel;
+  }
+
+  /**
+   * Gets the attractions, in the order of the target indexes reported.
+   *
+   * @return the attractions
+   */
+  public List<Attraction> getAttractions() {
+    return attractions;
+  }
+
+  /**
+   * Gets the name of the kernel in use.
+   *
+   * @return the kernel name
+   */
+  public String getKernelName() {
+    return kernel.getName();
+  }
+
+  /**
+   * Reports every item located within a radius of an attraction,
+   * attraction after attraction and by increasing item index for a given attraction.
+   *
+   * @param items      the located items
+   * @param locationOf gets the location of an item
+   * @param miles      the radius in miles
+   * @param sink       the receiver of the item and attraction indexes
+   * @param <T>        the type of the items
+   */
+  public <T> void findWithin(List<T> items, Function<? super T, Location> locationOf, double miles,
+                             ProximityKernel.PairSink sink) {
+    if (items.isEmpty()) {
+      return;
+    }
+    kernel.findWithin(toVectors(items, locationOf), items.size(), attractionVectors, attractions.size(),
+            GeoMath.milesToSquaredChord(miles), sink);
+  }
+
+  private static <T> double[][] toVectors(List<T> items, Function<? super T, ? extends Location> locationOf) {
+    double[][] vectors = new double[3][items.size()];
+    for (int i = 0; i < items.size(); i++) {
+      GeoPoint point = GeoPoint.of(locationOf.apply(items.get(i)));
+      vectors[0][i] = point.x();
+      vectors[1][i] = point.y();
+      vectors[2][i] = point.z();
+    }
+    return vectors;
+  }
+
+}
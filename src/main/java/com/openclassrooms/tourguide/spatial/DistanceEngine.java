@@ -0,0 +1,119 @@
+package com.openclassrooms.tourguide.spatial;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Great-circle distances in miles, with the trigonometry of the attractions computed once.
+ * Proximity checks compare squared chords against a threshold computed once per radius,
+ * so they need neither {@code acos} nor any trigonometry for the attraction side.
+ */
+public class DistanceEngine {
+
+  private final DistanceMode mode;
+  // attractions never change, their points are looked up by identity
+  private final Map<Location, GeoPoint> attractionPoints = new IdentityHashMap<>();
+
+  /**
+   * Constructor for DistanceEngine.
+   *
+   * @param attractions the attractions whose trigonometry is computed once
+   * @param mode        the distance formula
+   */
+  public DistanceEngine(List<Attraction> attractions, DistanceMode mode) {
+    this.mode = mode;
+    for (Attraction attraction : attractions) {
+      attractionPoints.put(attraction, GeoPoint.of(attraction));
+    }
+  }
+
+  /**
+   * Gets the prepared point of a location, computed once for the attractions.
+   *
+   * @param location the location
+   * @return the prepared point
+   */
+  public GeoPoint pointOf(Location location) {
+    GeoPoint point = attractionPoints.get(location);
+    return point != null ? point : GeoPoint.of(location);
+  }
+
+  /**
+   * Calculates the distance between two locations, straight from their coordinates.
+   * A single pair does not pay for the lookup and allocation of prepared points;
+   * callers computing many distances from the same location prepare it with {@link #pointOf}.
+   *
+   * @param loc1 the first location
+   * @param loc2 the second location
+   * @return the distance in miles
+   */
+  public double distance(Location loc1, Location loc2) {
+    double lat1 = Math.toRadians(loc1.latitude);
+    double lat2 = Math.toRadians(loc2.latitude);
+    double deltaLon = Math.toRadians(loc2.longitude - loc1.longitude);
+    double angle;
+    if (mode == DistanceMode.HAVERSINE) {
+      double sinHalfLat = Math.sin((lat2 - lat1) / 2);
+      double sinHalfLon = Math.sin(deltaLon / 2);
+      double haversine = sinHalfLat * sinHalfLat + Math.cos(lat1) * Math.cos(lat2) * sinHalfLon * sinHalfLon;
+      angle = 2 * Math.asin(Math.min(1, Math.sqrt(haversine)));
+    } else {
+      angle = Math.acos(Math.max(-1, Math.min(1, Math.sin(lat1) * Math.sin(lat2)
+              + Math.cos(lat1) * Math.cos(lat2) * Math.cos(deltaLon))));
+    }
+    return GeoMath.MILES_PER_RADIAN * angle;
+  }
+
+  /**
+   * Calculates the distance between two prepared points.
+   *
+   * @param p1 the first point
+   * @param p2 the second point
+   * @return the distance in miles
+   */
+  public double distance(GeoPoint p1, GeoPoint p2) {
+    double angle;
+    if (mode == DistanceMode.HAVERSINE) {
+      // half the chord is the sine of half the angle, the haversine formula written on unit vectors
+      angle = 2 * Math.asin(Math.min(1, Math.sqrt(p1.squaredChordTo(p2)) / 2));
+    } else {
+      angle = Math.acos(Math.max(-1, Math.min(1, p1.cosAngleTo(p2))));
+    }
+    return GeoMath.MILES_PER_RADIAN * angle;
+  }
+
+  /**
+   * Prepares a proximity check for a radius.
+   *
+   * @param miles the radius in miles
+   * @return the proximity check
+   */
+  public Proximity proximity(double miles) {
+    return new Proximity(miles, GeoMath.milesToSquaredChord(miles));
+  }
+
+  /**
+   * Proximity check against a fixed radius.
+   *
+   * @param miles                the radius in miles
+   * @param maximumSquaredChord  the squared chord matching the radius
+   */
+  public record Proximity(double miles, double maximumSquaredChord) {
+
+    /**
+     * Checks if two points are within the radius.
+     *
+     * @param p1 the first point
+     * @param p2 the second point
+     * @return true if the distance is lower than or equal to the radius
+     */
+    public boolean contains(GeoPoint p1, GeoPoint p2) {
+      return p1.squaredChordTo(p2) <= maximumSquaredChord;
+    }
+  }
+
+}
@@ -0,0 +1,11 @@
+package com.openclassrooms.tourguide.spatial;
+
+/**
+ * Formula used to compute great-circle distances.
+ */
+public enum DistanceMode {
+  // historical formula, loses precision below a few miles where the cosine gets close to 1
+  SPHERICAL_LAW_OF_COSINES,
+  // numerically stable at short distances
+  HAVERSINE
+}
@@ -0,0 +1,46 @@
+package com.openclassrooms.tourguide.spatial;
+
+import gpsUtil.location.Location;
+
+/**
+ * Spherical geometry helpers shared by the attraction index and the rewards service.
+ * Distances are expressed in statute miles, consistently with {@code RewardsService#getDistance}.
+ */
+public final class GeoMath {
+
+  public static final double STATUTE_MILES_PER_NAUTICAL_MILE = 1.15077945;
+
+  // one nautical mile per minute of arc
+  public static final double MILES_PER_RADIAN = STATUTE_MILES_PER_NAUTICAL_MILE * 60 * Math.toDegrees(1);
+
+  private GeoMath() {
+  }
+
+  /**
+   * Converts a location into a unit vector on the sphere.
+   *
+   * @param location the location
+   * @return the x, y and z coordinates of the unit vector
+   */
+  public static double[] toUnitVector(Location location) {
+    GeoPoint point = GeoPoint.of(location);
+    return new double[]{point.x(), point.y(), point.z()};
+  }
+
+  /**
+   * Converts a great-circle distance into the squared straight-line distance between the two unit vectors.
+   * Returns a value greater than any possible squared chord when the distance exceeds half the circumference.
+   *
+   * @param miles the great-circle distance in miles
+   * @return the squared chord length
+   */
+  public static double milesToSquaredChord(double miles) {
+    double angle = miles / MILES_PER_RADIAN;
+    if (angle >= Math.PI) {
+      return Double.POSITIVE_INFINITY;
+    }
+    double chord = 2 * Math.sin(angle / 2);
+    return chord * chord;
+  }
+
+}
@@ -0,0 +1,50 @@
+package com.openclassrooms.tourguide.spatial;
+
+import gpsUtil.location.Location;
+
+/**
+ * Location as a unit vector on the sphere, its trigonometry computed once for repeated distance computations.
+ *
+ * @param x the x coordinate of the unit vector
+ * @param y the y coordinate of the unit vector
+ * @param z the z coordinate of the unit vector
+ */
+public record GeoPoint(double x, double y, double z) {
+
+  /**
+   * Prepares a location.
+   *
+   * @param location the location
+   * @return the prepared location
+   */
+  public static GeoPoint of(Location location) {
+    double lat = Math.toRadians(location.latitude);
+    double lon = Math.toRadians(location.longitude);
+    double cosLat = Math.cos(lat);
+    return new GeoPoint(cosLat * Math.cos(lon), cosLat * Math.sin(lon), Math.sin(lat));
+  }
+
+  /**
+   * Gets the cosine of the angle to another point, the dot product of both unit vectors.
+   *
+   * @param other the other point
+   * @return the cosine of the angle
+   */
+  public double cosAngleTo(GeoPoint other) {
+    return x * other.x + y * other.y + z * other.z;
+  }
+
+  /**
+   * Gets the squared straight-line distance to another point, both taken as unit vectors.
+   *
+   * @param other the other point
+   * @return the squared chord length
+   */
+  public double squaredChordTo(GeoPoint other) {
+    double dx = x - other.x;
+    double dy = y - other.y;
+    double dz = z - other.z;
+    return dx * dx + dy * dy + dz * dz;
+  }
+
+}
@@ -0,0 +1,52 @@
+package com.openclassrooms.tourguide.spatial;
+
+/**
+ * Finds the pairs of points and targets close to each other, all given as unit vectors in primitive arrays.
+ * Pairs are reported target after target, and by increasing point index for a given target.
+ */
+public interface ProximityKernel {
+
+  String VECTOR_MODULE = "jdk.incubator.vector";
+
+  /**
+   * Receiver of the pairs found by a kernel.
+   */
+  @FunctionalInterface
+  interface PairSink {
+    void accept(int pointIndex, int targetIndex);
+  }
+
+  /**
+   * Reports every point whose squared chord to a target is at most the threshold.
+   *
+   * @param points          the x, y and z coordinates of the points
+   * @param pointCount      the number of points to consider
+   * @param targets         the x, y and z coordinates of the targets
+   * @param targetCount     the number of targets to consider
+   * @param maxSquaredChord the threshold, see {@link GeoMath#milesToSquaredChord(double)}
+   * @param sink            the receiver of the pairs
+   */
+  void findWithin(double[][] points, int pointCount, double[][] targets, int targetCount, double maxSquaredChord,
+                  PairSink sink);
+
+  /**
+   * Gets the kernel name, for logs.
+   *
+   * @return the name
+   */
+  String getName();
+
+  /**
+   * Creates the fastest kernel available: the SIMD one when the JVM runs with
+   * {@code --add-modules jdk.incubator.vector}, the scalar one otherwise.
+   *
+   * @return the kernel
+   */
+  static ProximityKernel create() {
+    if (ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent()) {
+      return new VectorProximityKernel();
+    }
+    return new ScalarProximityKernel();
+  }
+
+}
@@ -0,0 +1,34 @@
+package com.openclassrooms.tourguide.spatial;
+
+/**
+ * Proximity kernel comparing one point with one target at a time.
+ */
+public class ScalarProximityKernel implements ProximityKernel {
+
+  @Override
+  public void findWithin(double[][] points, int pointCount, double[][] targets, int targetCount,
+                         double maxSquaredChord, PairSink sink) {
+    double[] xs = points[0];
+    double[] ys = points[1];
+    double[] zs = points[2];
+    for (int t = 0; t < targetCount; t++) {
+      double tx = targets[0][t];
+      double ty = targets[1][t];
+      double tz = targets[2][t];
+      for (int i = 0; i < pointCount; i++) {
+        double dx = xs[i] - tx;
+        double dy = ys[i] - ty;
+        double dz = zs[i] - tz;
+        if (dx * dx + dy * dy + dz * dz <= maxSquaredChord) {
+          sink.accept(i, t);
+        }
+      }
+    }
+  }
+
+  @Override
+  public String getName() {
+    return "scalar";
+  }
+
+}
@@ -0,0 +1,59 @@
+package com.openclassrooms.tourguide.spatial;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Proximity kernel comparing a target with as many points at once as the CPU SIMD registers hold.
+ * Only loaded when the {@code jdk.incubator.vector} module is available, see {@link ProximityKernel#create()}.
+ */
+public class VectorProximityKernel implements ProximityKernel {
+
+  private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+  @Override
+  public void findWithin(double[][] points, int pointCount, double[][] targets, int targetCount,
+                         double maxSquaredChord, PairSink sink) {
+    double[] xs = points[0];
+    double[] ys = points[1];
+    double[] zs = points[2];
+    int upperBound = SPECIES.loopBound(pointCount);
+    for (int t = 0; t < targetCount; t++) {
+      double tx = targets[0][t];
+      double ty = targets[1][t];
+      double tz = targets[2][t];
+      int i = 0;
+      for (; i < upperBound; i += SPECIES.length()) {
+        DoubleVector dx = DoubleVector.fromArray(SPECIES, xs, i).sub(tx);
+        DoubleVector dy = DoubleVector.fromArray(SPECIES, ys, i).sub(ty);
+        DoubleVector dz = DoubleVector.fromArray(SPECIES, zs, i).sub(tz);
+        DoubleVector squaredChord = dx.mul(dx).add(dy.mul(dy)).add(dz.mul(dz));
+        VectorMask<Double> within = squaredChord.compare(VectorOperators.LE, maxSquaredChord);
+        if (within.anyTrue()) {
+          long lanes = within.toLong();
+          while (lanes != 0) {
+            sink.accept(i + Long.numberOfTrailingZeros(lanes), t);
+            lanes &= lanes - 1;
+          }
+        }
+      }
+      // remaining points, fewer than a vector
+      for (; i < pointCount; i++) {
+        double dx = xs[i] - tx;
+        double dy = ys[i] - ty;
+        double dz = zs[i] - tz;
+        if (dx * dx + dy * dy + dz * dz <= maxSquaredChord) {
+          sink.accept(i, t);
+        }
+      }
+    }
+  }
+
+  @Override
+  public String getName() {
+    return "vector-" + SPECIES.length() + "x64";
+  }
+
+}
@@ -0,0 +1,99 @@
+package com.openclassrooms.tourguide.tracker;
+
+import com.openclassrooms.tourguide.configuration.TrackerProperties;
+import com.openclassrooms.tourguide.executor.ExecutionEngine;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Consumer;
+
+/**
+ * One stage of the tracking pipeline: a bounded queue of jobs drained by a fixed number of workers.
+ * Handing a job to a full stage blocks the caller, which slows the previous stage down.
+ */
+@Slf4j
+class PipelineStage {
+
+  @Getter
+  private final String name;
+  private final BlockingQueue<TrackingJob> queue;
+  private final Consumer<List<TrackingJob>> handler;
+  private final int batchSize;
+
+  /**
+   * Constructor for PipelineStage, starts the workers on the execution engine.
+   *
+   * @param name            the stage name
+   * @param stage           the sizing of the stage
+   * @param handler         the work done on each job, expected to hand the job to the next stage
+   * @param executionEngine the engine running the workers
+   */
+  PipelineStage(String name, TrackerProperties.Stage stage, Consumer<TrackingJob> handler, ExecutionEngine executionEngine) {
+    this(name, stage, 1, jobs -> handler.accept(jobs.get(0)), executionEngine);
+  }
+
+  /**
+   * Constructor for PipelineStage working by batch, starts the workers on the execution engine.
+   * A worker takes every job waiting in the queue, up to the batch size, without waiting for more.
+   *
+   * @param name            the stage name
+   * @param stage           the sizing of the stage
+   * @param batchSize       the maximum number of jobs handled at once
+   * @param handler         the work done on each batch of jobs, expected to hand the jobs to the next stage
+   * @param executionEngine the engine running the workers
+   */
+  PipelineStage(String name, TrackerProperties.Stage stage, int batchSize, Consumer<List<TrackingJob>> handler,
+                ExecutionEngine executionEngine) {
+    this.name = name;
+    this.queue = new ArrayBlockingQueue<>(stage.getQueueCapacity());
+    this.handler = handler;
+    this.batchSize = Math.max(1, batchSize);
+    for (int i = 0; i < stage.getWorkers(); i++) {
+      executionEngine.startWorker(this::work);
+    }
+  }
+
+  /**
+   * Hands a job to the stage, waiting for room in the queue.
+   *
+   * @param job the job
+   * @throws InterruptedException if interrupted while waiting
+   */
+  void put(TrackingJob job) throws InterruptedException {
+    queue.put(job);
+  }
+
+  /**
+   * Gets the number of jobs waiting in the stage queue.
+   *
+   * @return the queue depth
+   */
+  int getQueueDepth() {
+    return queue.size();
+  }
+
+  private void work() {
+    while (!Thread.currentThread().isInterrupted()) {
+      List<TrackingJob> jobs = new ArrayList<>();
+      try {
+        jobs.add(queue.take());
+      } catch (InterruptedException e) {
+        return;
+      }
+      queue.drainTo(jobs, batchSize - 1);
+      try {
+        handler.accept(jobs);
+      } catch (Throwable e) {
+        // errors too, the jobs would never complete and the stage would lose the worker
+        log.warn("Tracking stage {} failed for {} users, first {}", name, jobs.size(),
+                jobs.get(0).getUser().getUserName(), e);
+        jobs.forEach(job -> job.fail(e));
+      }
+    }
+  }
+
+}
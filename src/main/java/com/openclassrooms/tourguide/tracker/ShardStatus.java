@@ -0,0 +1,15 @@
+package com.openclassrooms.tourguide.tracker;
+
+/**
+ * Snapshot of the scheduling health of one tracker shard.
+ *
+ * @param shard              the shard number
+ * @param lastUserCount      the number of users tracked by the last pass
+ * @param lastLagMillis      how late the last pass started compared to its slot
+ * @param lastDurationMillis how long the last pass took
+ * @param skippedTicks       the number of slots skipped because the previous pass was still running
+ * @param running            whether a pass is in progress
+ */
+public record ShardStatus(int shard, int lastUserCount, long lastLagMillis, long lastDurationMillis,
+                          long skippedTicks, boolean running) {
+}
@@ -0,0 +1,20 @@
+package com.openclassrooms.tourguide.tracker;
+
+import com.openclassrooms.tourguide.user.User;
+import gpsUtil.location.VisitedLocation;
+
+/**
+ * Receives every location tracked by the pipeline once its rewards are evaluated.
+ */
+@FunctionalInterface
+public interface TrackedLocationSink {
+
+  /**
+   * Handles a tracked location.
+   *
+   * @param user            the user
+   * @param visitedLocation the location just tracked
+   */
+  void accept(User user, VisitedLocation visitedLocation);
+
+}
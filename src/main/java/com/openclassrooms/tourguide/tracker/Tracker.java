@@ -1,28 +1,65 @@
 package com.openclassrooms.tourguide.tracker;
 
 import com.openclassrooms.tourguide.configuration.ApplicationConfiguation;
+import com.openclassrooms.tourguide.configuration.TrackerProperties;
 import com.openclassrooms.tourguide.service.TourGuideService;
 import com.openclassrooms.tourguide.user.User;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import org.apache.commons.lang3.time.StopWatch;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
-public class Tracker extends Thread {
-  private static final long trackingPollingInterval = TimeUnit.MINUTES.toSeconds(5);
-  private final ExecutorService executorService = Executors.newSingleThreadExecutor();
+/**
+ * Tracks every user once per interval.
+ * Users are split in shards by user ID hash and the interval in as many slots; at a fixed rate,
+ * each slot tracks its shard, so the load on GpsUtil is spread over the whole interval.
+ * A slot whose shard is still running from the previous interval is skipped, and so is every slot
+ * until the users are loaded.
+ */
+public class Tracker {
+  private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+          runnable -> new Thread(runnable, "tracker-scheduler"));
   private final TourGuideService tourGuideService;
   private final Logger logger = LoggerFactory.getLogger(Tracker.class);
-  private boolean stop = false;
+  private final int shardCount;
+  private final long slotMillis;
+  private final Shard[] shards;
+  private final AtomicLong ticks = new AtomicLong();
+  private volatile long firstSlotMillis;
+  private volatile boolean stop = false;
 
-  public Tracker(TourGuideService tourGuideService) {
+  public Tracker(TourGuideService tourGuideService, TrackerProperties trackerProperties) {
+    this(tourGuideService, trackerProperties, Metrics.globalRegistry);
+  }
+
+  public Tracker(TourGuideService tourGuideService, TrackerProperties trackerProperties, MeterRegistry meterRegistry) {
     this.tourGuideService = tourGuideService;
+    this.shardCount = Math.max(1, trackerProperties.getShards());
+    this.slotMillis = Math.max(1, trackerProperties.getInterval().toMillis() / shardCount);
+    this.shards = new Shard[shardCount];
+    for (int i = 0; i < shardCount; i++) {
+      shards[i] = new Shard(i, meterRegistry);
+    }
 
-    executorService.submit(this);
+    // random start so that several nodes do not hit GpsUtil in step
+    long jitterMillis = trackerProperties.getMaxJitter().toMillis() > 0
+            ? ThreadLocalRandom.current().nextLong(trackerProperties.getMaxJitter().toMillis() + 1) : 0;
+    firstSlotMillis = System.currentTimeMillis() + jitterMillis;
+    scheduler.scheduleAtFixedRate(this::tick, jitterMillis, slotMillis, TimeUnit.MILLISECONDS);
   }
 
   /**
@@ -30,41 +67,106 @@ public class Tracker extends Thread {
    */
   public void stopTracking() {
     stop = true;
-    executorService.shutdownNow();
+    scheduler.shutdownNow();
   }
 
-  @Override
-  public void run() {
-    StopWatch stopWatch = new StopWatch();
-    while (true) {
-      if (Thread.currentThread().isInterrupted() || stop) {
-        logger.debug("Tracker stopping");
-        break;
-      }
+  /**
+   * Gets the shard a user belongs to.
+   *
+   * @param user the user
+   * @return the shard number
+   */
+  public int shardOf(User user) {
+    return Math.floorMod(user.getUserId().hashCode(), shardCount);
+  }
 
-      List<User> users = tourGuideService.getAllUsers();
-      logger.debug("Begin Tracker. Tracking {} users.", users.size());
-      stopWatch.start();
+  /**
+   * Gets the scheduling health of every shard.
+   *
+   * @return the status of each shard
+   */
+  public List<ShardStatus> getShardStatuses() {
+    List<ShardStatus> statuses = new ArrayList<>(shardCount);
+    for (int i = 0; i < shardCount; i++) {
+      Shard shard = shards[i];
+      statuses.add(new ShardStatus(i, shard.lastUserCount.get(), shard.lastLagMillis.get(),
+              shard.lastDurationMillis.get(), shard.skippedTicks.get(), shard.running.get()));
+    }
+    return statuses;
+  }
+
+  private void tick() {
+    if (stop) {
+      return;
+    }
+    long tick = ticks.getAndIncrement();
+    if (!tourGuideService.isUsersLoaded()) {
+      // tracking would wait for, or start, the generation of the internal users
+      logger.debug("Tracker slot skipped, the users are not loaded yet");
+      return;
+    }
+    int shardNumber = (int) (tick % shardCount);
+    Shard shard = shards[shardNumber];
+    if (!shard.running.compareAndSet(false, true)) {
+      long skipped = shard.skippedTicks.incrementAndGet();
+      logger.warn("Tracker shard {} still running, skipping its slot ({} skipped so far)", shardNumber, skipped);
+      return;
+    }
+    long lagMillis = System.currentTimeMillis() - (firstSlotMillis + tick * slotMillis);
+    // the pass may block on a full pipeline, keep the scheduler thread free for the next slots
+    Thread.ofVirtual().name("tracker-shard-" + shardNumber).start(() -> track(shardNumber, shard, lagMillis));
+  }
+
+  private void track(int shardNumber, Shard shard, long lagMillis) {
+    StopWatch stopWatch = StopWatch.createStarted();
+    try {
+      List<User> users = tourGuideService.getAllUsers().stream()
+              .filter(user -> shardOf(user) == shardNumber)
+              .toList();
+      logger.debug("Begin Tracker shard {} with {} ms lag. Tracking {} users.", shardNumber, lagMillis, users.size());
       if (ApplicationConfiguation.PARALLEL_PROCESSING) {
-        logger.debug("Tracker is using parallel processing");
         tourGuideService.parallelTrackAllUsersLocation(users);
       } else {
-        logger.debug("Tracker is using sequential processing");
         users.forEach(tourGuideService::trackUserLocation);
       }
 
       stopWatch.stop();
-      logger.debug("!!! END !!! Tracker Time Elapsed: {} seconds for {} users.",
-              TimeUnit.MILLISECONDS.toSeconds(stopWatch.getTime()),
-              users.size());
-      stopWatch.reset();
-      try {
-        logger.debug("Tracker sleeping");
-        TimeUnit.SECONDS.sleep(trackingPollingInterval);
-      } catch (InterruptedException e) {
-        break;
-      }
+      shard.lastUserCount.set(users.size());
+      shard.lastLagMillis.set(lagMillis);
+      shard.lastDurationMillis.set(stopWatch.getTime());
+      shard.passTimer.record(stopWatch.getTime(), TimeUnit.MILLISECONDS);
+      logger.debug("End Tracker shard {}. Time Elapsed: {} seconds for {} users.", shardNumber,
+              TimeUnit.MILLISECONDS.toSeconds(stopWatch.getTime()), users.size());
+    } catch (RuntimeException e) {
+      logger.error("Tracker shard {} failed", shardNumber, e);
+    } finally {
+      shard.running.set(false);
     }
+  }
 
+  private static class Shard {
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicInteger lastUserCount = new AtomicInteger();
+    private final AtomicLong lastLagMillis = new AtomicLong();
+    private final AtomicLong lastDurationMillis = new AtomicLong();
+    private final AtomicLong skippedTicks = new AtomicLong();
+    private final Timer passTimer;
+
+    private Shard(int shard, MeterRegistry meterRegistry) {
+      String tag = String.valueOf(shard);
+      passTimer = Timer.builder("tourguide.tracker.pass")
+              .description("Tracking of all the users of a shard")
+              .tag("shard", tag)
+              .register(meterRegistry);
+      Gauge.builder("tourguide.tracker.lag", lastLagMillis, AtomicLong::get)
+              .description("Delay between the slot of a shard and the start of its last pass")
+              .baseUnit("milliseconds")
+              .tag("shard", tag)
+              .register(meterRegistry);
+      FunctionCounter.builder("tourguide.tracker.skipped", skippedTicks, AtomicLong::get)
+              .description("Slots skipped because the previous pass of the shard was still running")
+              .tag("shard", tag)
+              .register(meterRegistry);
+    }
   }
 }
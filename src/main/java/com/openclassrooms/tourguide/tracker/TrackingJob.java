@@ -0,0 +1,33 @@
+package com.openclassrooms.tourguide.tracker;
+
+import com.openclassrooms.tourguide.user.User;
+import gpsUtil.location.VisitedLocation;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A user travelling through the tracking pipeline.
+ */
+@Getter
+class TrackingJob {
+
+  private final User user;
+  private final CompletableFuture<VisitedLocation> result = new CompletableFuture<>();
+  @Setter
+  private VisitedLocation visitedLocation;
+
+  TrackingJob(User user) {
+    this.user = user;
+  }
+
+  void complete() {
+    result.complete(visitedLocation);
+  }
+
+  void fail(Throwable failure) {
+    result.completeExceptionally(failure);
+  }
+
+}
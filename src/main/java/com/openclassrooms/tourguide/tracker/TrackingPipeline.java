@@ -0,0 +1,197 @@
+package com.openclassrooms.tourguide.tracker;
+
+import com.openclassrooms.tourguide.configuration.TrackerProperties;
+import com.openclassrooms.tourguide.executor.ExecutionEngine;
+import com.openclassrooms.tourguide.metrics.ExternalCalls;
+import com.openclassrooms.tourguide.service.RewardsService;
+import com.openclassrooms.tourguide.user.User;
+import gpsUtil.GpsUtil;
+import gpsUtil.location.VisitedLocation;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Staged tracking of user locations: fetch location, append history, evaluate rewards, persist.
+ * Each stage has its own workers and bounded queue, so slow GpsUtil calls for some users overlap
+ * with slow RewardCentral calls for others instead of running one after the other per user.
+ * The rewards stage takes the users waiting in its queue by batch, evaluated against the attractions at once.
+ */
+public class TrackingPipeline {
+
+  private final GpsUtil gpsUtil;
+  private final RewardsService rewardsService;
+  private final List<TrackedLocationSink> sinks;
+  private final MeterRegistry meterRegistry;
+  private final Timer trackedTimer;
+  private final Timer failedTimer;
+  private final PipelineStage fetch;
+  private final PipelineStage append;
+  private final PipelineStage rewards;
+  private final PipelineStage persist;
+
+  /**
+   * Constructor for TrackingPipeline, starts the workers of every stage.
+   *
+   * @param gpsUtil           the GPS utility service
+   * @param rewardsService    the rewards service
+   * @param sinks             the receivers of the tracked locations
+   * @param trackerProperties the sizing of the stages
+   * @param executionEngine   the engine running the workers
+   */
+  public TrackingPipeline(GpsUtil gpsUtil, RewardsService rewardsService, List<TrackedLocationSink> sinks,
+                          TrackerProperties trackerProperties, ExecutionEngine executionEngine) {
+    this(gpsUtil, rewardsService, sinks, trackerProperties, executionEngine, Metrics.globalRegistry);
+  }
+
+  /**
+   * Constructor for TrackingPipeline, starts the workers of every stage.
+   *
+   * @param gpsUtil           the GPS utility service
+   * @param rewardsService    the rewards service
+   * @param sinks             the receivers of the tracked locations
+   * @param trackerProperties the sizing of the stages
+   * @param executionEngine   the engine running the workers
+   * @param meterRegistry     the registry timing the tracking of each user
+   */
+  public TrackingPipeline(GpsUtil gpsUtil, RewardsService rewardsService, List<TrackedLocationSink> sinks,
+                          TrackerProperties trackerProperties, ExecutionEngine executionEngine,
+                          MeterRegistry meterRegistry) {
+    this.gpsUtil = gpsUtil;
+    this.rewardsService = rewardsService;
+    this.sinks = List.copyOf(sinks);
+    this.meterRegistry = meterRegistry;
+    this.trackedTimer = trackTimer("success");
+    this.failedTimer = trackTimer("error");
+    this.persist = new PipelineStage("persist", trackerProperties.getPersist(), this::persist, executionEngine);
+    this.rewards = new PipelineStage("rewards", trackerProperties.getRewards(),
+            trackerProperties.getRewards().getBatchSize(), this::evaluateRewards, executionEngine);
+    this.append = new PipelineStage("append", trackerProperties.getAppend(), this::appendHistory, executionEngine);
+    this.fetch = new PipelineStage("fetch", trackerProperties.getFetch(), this::fetchLocation, executionEngine);
+  }
+
+  /**
+   * Tracks the location of a user.
+   *
+   * @param user the user
+   * @return a future completed with the tracked location once it went through every stage
+   */
+  public CompletableFuture<VisitedLocation> track(User user) {
+    TrackingJob job = new TrackingJob(user);
+    long start = System.nanoTime();
+    job.getResult().whenComplete((visitedLocation, failure) ->
+            (failure == null ? trackedTimer : failedTimer).record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+    handOff(fetch, job);
+    return job.getResult();
+  }
+
+  /**
+   * Tracks the location of a user on the calling thread, through the same steps as the stages but
+   * without their queues, so an interactive request never waits behind the users tracked in bulk.
+   *
+   * @param user the user
+   * @return the tracked location
+   */
+  public VisitedLocation trackNow(User user) {
+    TrackingJob job = new TrackingJob(user);
+    long start = System.nanoTime();
+    try {
+      fetch(job);
+      job.getUser().addToVisitedLocations(job.getVisitedLocation());
+      rewardsService.calculateRewards(user);
+      publish(job);
+      trackedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      return job.getVisitedLocation();
+    } catch (RuntimeException e) {
+      failedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      throw e;
+    }
+  }
+
+  /**
+   * Tracks the location of several users, blocking while the fetch stage is full.
+   *
+   * @param users the users
+   * @return a future completed once every user went through every stage
+   */
+  public CompletableFuture<Void> trackAll(List<User> users) {
+    CompletableFuture<?>[] results = new CompletableFuture<?>[users.size()];
+    for (int i = 0; i < users.size(); i++) {
+      results[i] = track(users.get(i));
+    }
+    return CompletableFuture.allOf(results);
+  }
+
+  /**
+   * Gets the number of users waiting in front of each stage.
+   *
+   * @return the queue depth by stage name, in processing order
+   */
+  public Map<String, Integer> getQueueDepths() {
+    Map<String, Integer> queueDepths = new LinkedHashMap<>();
+    for (PipelineStage stage : List.of(fetch, append, rewards, persist)) {
+      queueDepths.put(stage.getName(), stage.getQueueDepth());
+    }
+    return queueDepths;
+  }
+
+  private void fetchLocation(TrackingJob job) {
+    fetch(job);
+    handOff(append, job);
+  }
+
+  private void fetch(TrackingJob job) {
+    job.setVisitedLocation(ExternalCalls.record(meterRegistry, ExternalCalls.GPS_UTIL,
+            () -> gpsUtil.getUserLocation(job.getUser().getUserId())));
+  }
+
+  private void appendHistory(TrackingJob job) {
+    job.getUser().addToVisitedLocations(job.getVisitedLocation());
+    handOff(rewards, job);
+  }
+
+  // the users waiting together are evaluated against the attractions at once, through the proximity kernel
+  private void evaluateRewards(List<TrackingJob> jobs) {
+    // a user tracked twice in the batch is evaluated once, with the locations of both
+    List<User> users = jobs.stream()
+            .map(TrackingJob::getUser)
+            .distinct()
+            .toList();
+    rewardsService.calculateRewardsAsync(users).join();
+    jobs.forEach(job -> handOff(persist, job));
+  }
+
+  private void persist(TrackingJob job) {
+    publish(job);
+    job.complete();
+  }
+
+  private void publish(TrackingJob job) {
+    for (TrackedLocationSink sink : sinks) {
+      sink.accept(job.getUser(), job.getVisitedLocation());
+    }
+  }
+
+  private Timer trackTimer(String outcome) {
+    return Timer.builder("tourguide.tracker.user")
+            .description("Tracking of a user location, from the request to the end of the pipeline")
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+  }
+
+  private void handOff(PipelineStage stage, TrackingJob job) {
+    try {
+      stage.put(job);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      job.fail(e);
+    }
+  }
+
+}
@@ -0,0 +1,284 @@
+package com.openclassrooms.tourguide.user;
+
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded, lock-free history of the locations visited by a user.
+ * Every appended location gets the next sequence number and is stored in a ring of slots,
+ * so the oldest locations are overwritten once the maximum size is reached.
+ * Locations older than the maximum age are dropped as well, except the latest one.
+ * <p>
+ * Slots are primitive columns (latitude, longitude, time) allocated by chunks on first use;
+ * the user ID is held once for the whole history and {@link VisitedLocation} objects are only
+ * created when the locations are read. Each slot carries a version so that a reader can tell
+ * a location being overwritten from a consistent one without taking a lock.
+ */
+public class LocationHistory {
+
+  private static final int CHUNK_SIZE = 16;
+  // stored time of a location without a timestamp
+  private static final long NO_TIME = Long.MIN_VALUE;
+  private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+  private static final VarHandle DOUBLES = MethodHandles.arrayElementVarHandle(double[].class);
+
+  private final UUID userId;
+  private final int capacity;
+  private final long maxAgeMillis;
+  private final Clock clock;
+  private final AtomicReferenceArray<Chunk> chunks;
+  // sequence of the next appended location
+  private final AtomicLong head = new AtomicLong();
+  // sequence of the oldest location not dropped for its age
+  private final AtomicLong tail = new AtomicLong();
+  // the latest location is kept as appended, it is the one read most
+  private final AtomicReference<Latest> latest = new AtomicReference<>();
+
+  /**
+   * Constructor for LocationHistory.
+   *
+   * @param userId  the ID of the user whose locations are stored
+   * @param maxSize the maximum number of locations kept
+   * @param maxAge  the maximum age of the locations kept
+   */
+  public LocationHistory(UUID userId, int maxSize, Duration maxAge) {
+    this(userId, maxSize, maxAge, Clock.systemUTC());
+  }
+
+  LocationHistory(UUID userId, int maxSize, Duration maxAge, Clock clock) {
+    if (maxSize < 1) {
+      throw new IllegalArgumentException("maxSize must be positive: " + maxSize);
+    }
+    this.userId = userId;
+    this.capacity = maxSize;
+    this.maxAgeMillis = maxAge.toMillis();
+    this.clock = clock;
+    this.chunks = new AtomicReferenceArray<>((maxSize + CHUNK_SIZE - 1) / CHUNK_SIZE);
+  }
+
+  /**
+   * Appends a location.
+   *
+   * @param visitedLocation the location
+   * @return the sequence number of the location
+   */
+  public long append(VisitedLocation visitedLocation) {
+    long sequence = head.getAndIncrement();
+    int index = (int) (sequence % capacity);
+    Chunk chunk = chunk(index / CHUNK_SIZE);
+    int slot = index % CHUNK_SIZE;
+    long time = visitedLocation.timeVisited == null ? NO_TIME : visitedLocation.timeVisited.getTime();
+    if (chunk.write(slot, sequence, visitedLocation.location.latitude, visitedLocation.location.longitude, time)) {
+      Latest appended = new Latest(sequence, visitedLocation);
+      latest.accumulateAndGet(appended, (current, next) ->
+              current == null || current.sequence < next.sequence ? next : current);
+    }
+    dropExpired();
+    return sequence;
+  }
+
+  /**
+   * Gets the retained locations, oldest first.
+   *
+   * @return a snapshot of the locations
+   */
+  public List<VisitedLocation> getLocations() {
+    return getLocationsFrom(0).locations();
+  }
+
+  /**
+   * Gets the retained locations from a sequence number, oldest first.
+   * The slice stops before the first location still being appended,
+   * so the locations returned are always contiguous.
+   *
+   * @param fromSequence the sequence number of the first location wanted
+   * @return the locations and the sequence number following them
+   */
+  public LocationSlice getLocationsFrom(long fromSequence) {
+    long end = head.get();
+    long start = Math.max(fromSequence, oldestSequence(end));
+    long cutoff = clock.millis() - maxAgeMillis;
+    Latest last = latest.get();
+    List<VisitedLocation> locations = new ArrayList<>((int) Math.max(0, end - start));
+    long sequence = start;
+    for (; sequence < end; sequence++) {
+      if (last != null && last.sequence == sequence) {
+        locations.add(last.visitedLocation);
+        continue;
+      }
+      int index = (int) (sequence % capacity);
+      Chunk chunk = chunks.get(index / CHUNK_SIZE);
+      VisitedLocation visitedLocation = chunk == null ? null : chunk.read(index % CHUNK_SIZE, sequence, userId);
+      if (visitedLocation == null) {
+        if (chunk != null && chunk.isOverwritten(index % CHUNK_SIZE, sequence) || sequence < tail.get()) {
+          continue;
+        }
+        break;
+      }
+      if (sequence == end - 1 || !isExpired(visitedLocation, cutoff)) {
+        locations.add(visitedLocation);
+      }
+    }
+    return new LocationSlice(locations, sequence);
+  }
+
+  /**
+   * Gets the latest location.
+   *
+   * @return the latest location, or null if there is none
+   */
+  public VisitedLocation getLast() {
+    Latest last = latest.get();
+    return last == null || last.sequence < tail.get() ? null : last.visitedLocation;
+  }
+
+  /**
+   * Checks if no location is retained.
+   *
+   * @return true if the history is empty
+   */
+  public boolean isEmpty() {
+    return getLast() == null;
+  }
+
+  /**
+   * Drops every location appended so far.
+   */
+  public void clear() {
+    long end = head.get();
+    long oldest = oldestSequence(end);
+    tail.accumulateAndGet(end, Math::max);
+    for (long sequence = oldest; sequence < end; sequence++) {
+      clearSlot(sequence);
+    }
+  }
+
+  private void dropExpired() {
+    long cutoff = clock.millis() - maxAgeMillis;
+    while (true) {
+      long end = head.get();
+      long oldest = tail.get();
+      if (oldest < end - capacity) {
+        // already overwritten by the ring
+        tail.compareAndSet(oldest, end - capacity);
+        continue;
+      }
+      if (oldest >= end - 1) {
+        // the latest location is always kept
+        return;
+      }
+      int index = (int) (oldest % capacity);
+      Chunk chunk = chunks.get(index / CHUNK_SIZE);
+      VisitedLocation visitedLocation = chunk == null ? null : chunk.read(index % CHUNK_SIZE, oldest, userId);
+      if (visitedLocation == null || !isExpired(visitedLocation, cutoff)) {
+        return;
+      }
+      if (tail.compareAndSet(oldest, oldest + 1)) {
+        clearSlot(oldest);
+      }
+    }
+  }
+
+  // a location without a timestamp is never dropped for its age
+  private boolean isExpired(VisitedLocation visitedLocation, long cutoff) {
+    return visitedLocation.timeVisited != null && visitedLocation.timeVisited.getTime() < cutoff;
+  }
+
+  private long oldestSequence(long end) {
+    return Math.max(tail.get(), end - capacity);
+  }
+
+  private void clearSlot(long sequence) {
+    int index = (int) (sequence % capacity);
+    Chunk chunk = chunks.get(index / CHUNK_SIZE);
+    if (chunk != null) {
+      chunk.clear(index % CHUNK_SIZE, sequence);
+    }
+  }
+
+  private Chunk chunk(int chunkIndex) {
+    Chunk chunk = chunks.get(chunkIndex);
+    if (chunk == null) {
+      chunks.compareAndSet(chunkIndex, null, new Chunk());
+      chunk = chunks.get(chunkIndex);
+    }
+    return chunk;
+  }
+
+  private record Latest(long sequence, VisitedLocation visitedLocation) {
+  }
+
+  /**
+   * Slots of the ring as primitive columns.
+   * The version of a slot is 0 when empty, odd while a location is written to it,
+   * and {@code 2 * (sequence + 1)} once the location with that sequence is stored.
+   */
+  private static final class Chunk {
+    private final long[] versions = new long[CHUNK_SIZE];
+    private final double[] latitudes = new double[CHUNK_SIZE];
+    private final double[] longitudes = new double[CHUNK_SIZE];
+    private final long[] times = new long[CHUNK_SIZE];
+
+    boolean write(int slot, long sequence, double latitude, double longitude, long time) {
+      long published = stored(sequence);
+      while (true) {
+        long version = (long) LONGS.getVolatile(versions, slot);
+        if (version >= published) {
+          // a full ring later, a newer location already took the slot
+          return false;
+        }
+        if ((version & 1) != 0) {
+          Thread.onSpinWait();
+        } else if (LONGS.compareAndSet(versions, slot, version, published - 1)) {
+          break;
+        }
+      }
+      DOUBLES.setOpaque(latitudes, slot, latitude);
+      DOUBLES.setOpaque(longitudes, slot, longitude);
+      LONGS.setOpaque(times, slot, time);
+      LONGS.setRelease(versions, slot, published);
+      return true;
+    }
+
+    VisitedLocation read(int slot, long sequence, UUID userId) {
+      long published = stored(sequence);
+      if ((long) LONGS.getAcquire(versions, slot) != published) {
+        return null;
+      }
+      double latitude = (double) DOUBLES.getOpaque(latitudes, slot);
+      double longitude = (double) DOUBLES.getOpaque(longitudes, slot);
+      long time = (long) LONGS.getOpaque(times, slot);
+      VarHandle.acquireFence();
+      if ((long) LONGS.getOpaque(versions, slot) != published) {
+        // overwritten while reading
+        return null;
+      }
+      return new VisitedLocation(userId, new Location(latitude, longitude), time == NO_TIME ? null : new Date(time));
+    }
+
+    boolean isOverwritten(int slot, long sequence) {
+      return (long) LONGS.getAcquire(versions, slot) > stored(sequence);
+    }
+
+    void clear(int slot, long sequence) {
+      LONGS.compareAndSet(versions, slot, stored(sequence), 0L);
+    }
+
+    private static long stored(long sequence) {
+      return 2 * (sequence + 1);
+    }
+  }
+
+}
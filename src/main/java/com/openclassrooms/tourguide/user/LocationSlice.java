@@ -0,0 +1,14 @@
+package com.openclassrooms.tourguide.user;
+
+import gpsUtil.location.VisitedLocation;
+
+import java.util.List;
+
+/**
+ * Contiguous run of the locations of a {@link LocationHistory}.
+ *
+ * @param locations   the locations, oldest first
+ * @param endSequence the sequence number following the last location
+ */
+public record LocationSlice(List<VisitedLocation> locations, long endSequence) {
+}
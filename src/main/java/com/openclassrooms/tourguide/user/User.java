@@ -1,23 +1,45 @@
 package com.openclassrooms.tourguide.user;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.openclassrooms.tourguide.configuration.ApplicationConfiguation;
 import gpsUtil.location.VisitedLocation;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import tripPricer.Provider;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Getter
 @Setter
 public class User {
+  // retention of the histories of the users created from now on, set from the tourguide.location-history properties
+  private static volatile int locationHistoryMaxSize = ApplicationConfiguation.LOCATION_HISTORY_MAX_SIZE;
+  private static volatile Duration locationHistoryMaxAge = ApplicationConfiguation.LOCATION_HISTORY_MAX_AGE;
+
   private final UUID userId;
   private final String userName;
-  private final List<VisitedLocation> visitedLocations = new ArrayList<>();
-  @Setter
-  private List<UserReward> userRewards = new ArrayList<>();
+  @Getter(AccessLevel.NONE)
+  private final LocationHistory locationHistory;
+  private final List<UserReward> userRewards = new CopyOnWriteArrayList<>();
+  // names of the rewarded attractions, a user is rewarded only once per attraction
+  @Getter(AccessLevel.NONE)
+  private final Set<String> rewardedAttractionNames = ConcurrentHashMap.newKeySet();
+  // sum of the points of the user rewards, kept up to date as rewards are added
+  @Getter(AccessLevel.NONE)
+  private final AtomicInteger rewardPointsTotal = new AtomicInteger();
+  // sequence number of the first visited location not yet evaluated for rewards
+  @Getter(AccessLevel.NONE)
+  private final AtomicLong rewardWatermark = new AtomicLong();
   private String phoneNumber;
   private String emailAddress;
   private Date latestLocationTimestamp;
@@ -27,26 +49,99 @@ public class User {
   public User(UUID userId, String userName, String phoneNumber, String emailAddress) {
     this.userId = userId;
     this.userName = userName;
+    this.locationHistory = new LocationHistory(userId, locationHistoryMaxSize, locationHistoryMaxAge);
     this.phoneNumber = phoneNumber;
     this.emailAddress = emailAddress;
   }
 
+  /**
+   * Sets the retention of the location histories of the users created from now on.
+   *
+   * @param maxSize the maximum number of locations kept
+   * @param maxAge  the maximum age of the locations kept
+   */
+  public static void setLocationHistoryRetention(int maxSize, Duration maxAge) {
+    if (maxSize < 1) {
+      throw new IllegalArgumentException("maxSize must be positive: " + maxSize);
+    }
+    locationHistoryMaxSize = maxSize;
+    locationHistoryMaxAge = maxAge;
+  }
+
+  /**
+   * Gets the maximum number of locations kept in the histories of the users created from now on.
+   *
+   * @return the maximum size
+   */
+  public static int getLocationHistoryMaxSize() {
+    return locationHistoryMaxSize;
+  }
+
   public void addToVisitedLocations(VisitedLocation visitedLocation) {
-    visitedLocations.add(visitedLocation);
+    locationHistory.append(visitedLocation);
+  }
+
+  /**
+   * Gets the retained visited locations, oldest first.
+   *
+   * @return a snapshot of the visited locations
+   */
+  public List<VisitedLocation> getVisitedLocations() {
+    return locationHistory.getLocations();
   }
 
   public void clearVisitedLocations() {
-    visitedLocations.clear();
+    locationHistory.clear();
   }
 
   public void addUserReward(UserReward userReward) {
-    if (userRewards.stream().noneMatch(r -> true)) {
+    if (rewardedAttractionNames.add(userReward.attraction.attractionName)) {
       userRewards.add(userReward);
+      rewardPointsTotal.addAndGet(userReward.getRewardPoints());
     }
   }
 
+  /**
+   * Gets the sum of the points of the user rewards without going through the rewards.
+   *
+   * @return the reward points total
+   */
+  public int getRewardPointsTotal() {
+    return rewardPointsTotal.get();
+  }
+
+  public boolean hasRewardFor(String attractionName) {
+    return rewardedAttractionNames.contains(attractionName);
+  }
+
+  /**
+   * Gets the visited locations not yet evaluated for rewards.
+   * The watermark only moves once the caller reports the locations as rewarded,
+   * so a failed reward pass is retried on the next one.
+   *
+   * @return the locations added since the last completed reward pass
+   */
+  @JsonIgnore
+  public LocationSlice getUnrewardedLocations() {
+    return locationHistory.getLocationsFrom(rewardWatermark.get());
+  }
+
+  /**
+   * Records that the locations returned by {@link #getUnrewardedLocations()} have been evaluated.
+   *
+   * @param locations the evaluated locations
+   */
+  public void markLocationsRewarded(LocationSlice locations) {
+    rewardWatermark.accumulateAndGet(locations.endSequence(), Math::max);
+  }
+
+  /**
+   * Gets the latest visited location.
+   *
+   * @return the latest visited location, or null if there is none
+   */
   public VisitedLocation getLastVisitedLocation() {
-    return visitedLocations.get(visitedLocations.size() - 1);
+    return locationHistory.getLast();
   }
 
 }
@@ -70,7 +70,7 @@ public class TestPerformance {
     }
 
     stopWatch.stop();
-    tourGuideService.tracker.stopTracking();
+    tourGuideService.shutdown();
 
     System.out.println("highVolumeTrackLocation: Time Elapsed: "
             + TimeUnit.MILLISECONDS.toSeconds(stopWatch.getTime()) + " seconds for " + allUsers.size() + " users.");
@@ -103,7 +103,7 @@ public class TestPerformance {
     }
 
     stopWatch.stop();
-    tourGuideService.tracker.stopTracking();
+    tourGuideService.shutdown();
 
     System.out.println("highVolumeGetRewards: Time Elapsed: " + TimeUnit.MILLISECONDS.toSeconds(stopWatch.getTime())
             + " seconds for " + allUsers.size() + " users.");
@@ -33,7 +33,7 @@ public class TestRewardsService {
     user.addToVisitedLocations(new VisitedLocation(user.getUserId(), attraction, new Date()));
     tourGuideService.trackUserLocation(user);
     List<UserReward> userRewards = user.getUserRewards();
-    tourGuideService.tracker.stopTracking();
+    tourGuideService.shutdown();
     assertEquals(1, userRewards.size());
   }
 
@@ -49,14 +49,15 @@ public class TestRewardsService {
   public void nearAllAttractions() {
     GpsUtil gpsUtil = new GpsUtil();
     RewardsService rewardsService = new RewardsService(gpsUtil, new RewardCentral());
-    rewardsService.setProximityBuffer(Integer.MAX_VALUE);
 
     InternalTestHelper.setInternalUserNumber(1);
     TourGuideService tourGuideService = new TourGuideService(gpsUtil, rewardsService);
+    // farther than any point on Earth
+    tourGuideService.getAllUsers().get(0).getUserPreferences().setAttractionProximity(20_000);
 
     rewardsService.calculateRewards(tourGuideService.getAllUsers().get(0));
     List<UserReward> userRewards = tourGuideService.getUserRewards(tourGuideService.getAllUsers().get(0));
-    tourGuideService.tracker.stopTracking();
+    tourGuideService.shutdown();
 
     assertEquals(gpsUtil.getAttractions().size(), userRewards.size());
   }
@@ -28,7 +28,7 @@ public class TestTourGuideService {
 
     User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
     VisitedLocation visitedLocation = tourGuideService.trackUserLocation(user);
-    tourGuideService.tracker.stopTracking();
+    tourGuideService.shutdown();
     assertEquals(visitedLocation.userId, user.getUserId());
   }
 
@@ -48,7 +48,7 @@ public class TestTourGuideService {
     User retrivedUser = tourGuideService.getUser(user.getUserName());
     User retrivedUser2 = tourGuideService.getUser(user2.getUserName());
 
-    tourGuideService.tracker.stopTracking();
+    tourGuideService.shutdown();
 
     assertEquals(user, retrivedUser);
     assertEquals(user2, retrivedUser2);
@@ -69,7 +69,7 @@ public class TestTourGuideService {
 
     List<User> allUsers = tourGuideService.getAllUsers();
 
-    tourGuideService.tracker.stopTracking();
+    tourGuideService.shutdown();
 
     assertTrue(allUsers.contains(user));
     assertTrue(allUsers.contains(user2));
@@ -85,7 +85,7 @@ public class TestTourGuideService {
     User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
     VisitedLocation visitedLocation = tourGuideService.trackUserLocation(user);
 
-    tourGuideService.tracker.stopTracking();
+    tourGuideService.shutdown();
 
     assertEquals(user.getUserId(), visitedLocation.userId);
   }
@@ -102,7 +102,7 @@ public class TestTourGuideService {
 
     List<AttractionNearbyUserDto> attractions = tourGuideService.getNearByAttractions(visitedLocation, user);
 
-    tourGuideService.tracker.stopTracking();
+    tourGuideService.shutdown();
 
     assertEquals(5, attractions.size());
   }
@@ -118,7 +118,7 @@ public class TestTourGuideService {
 
     List<Provider> providers = tourGuideService.getTripDeals(user);
 
-    tourGuideService.tracker.stopTracking();
+    tourGuideService.shutdown();
 
     assertEquals(5, providers.size());
   }
@@ -0,0 +1,131 @@
+package com.openclassrooms.tourguide;
+
+import com.jayway.jsonpath.JsonPath;
+import com.openclassrooms.tourguide.location.CurrentLocationPublisher;
+import com.openclassrooms.tourguide.repository.InMemoryUserRepository;
+import com.openclassrooms.tourguide.service.TourGuideService;
+import com.openclassrooms.tourguide.user.User;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(TourGuideController.class)
+class TourGuideControllerTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @MockBean
+  private TourGuideService tourGuideService;
+
+  @MockBean
+  private CurrentLocationPublisher currentLocationPublisher;
+
+  @Test
+  void getLocationReleasesTheRequestUntilTheUserIsTracked() throws Exception {
+    User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+    CompletableFuture<VisitedLocation> tracked = new CompletableFuture<>();
+    Mockito.when(tourGuideService.getUser("jon")).thenReturn(user);
+    Mockito.when(tourGuideService.getUserLocationAsync(user)).thenReturn(tracked);
+
+    MvcResult result = mockMvc.perform(get("/getLocation").param("userName", "jon"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+    tracked.complete(new VisitedLocation(user.getUserId(), new Location(33.8, -117.9), new Date()));
+
+    mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.location.latitude").value(33.8));
+  }
+
+  @Test
+  void getUsersReturnsAPageAndTheCursorOfTheNextOne() throws Exception {
+    User jon = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+    User kim = new User(UUID.randomUUID(), "kim", "000", "kim@tourGuide.com");
+    Mockito.when(tourGuideService.getUsersPage(null, 2)).thenReturn(List.of(jon, kim));
+    Mockito.when(tourGuideService.getUsersPage("kim", 2)).thenReturn(List.of());
+
+    MvcResult result = mockMvc.perform(get("/getUsers").param("limit", "2").param("view", "SUMMARY"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.users[1].userName").value("kim"))
+            .andExpect(jsonPath("$.users[1].rewardCount").value(0))
+            .andExpect(jsonPath("$.users[1].visitedLocations").doesNotExist())
+            .andReturn();
+    String nextCursor = JsonPath.read(result.getResponse().getContentAsString(), "$.nextCursor");
+
+    mockMvc.perform(get("/getUsers").param("limit", "2").param("cursor", nextCursor))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.users").isEmpty())
+            .andExpect(jsonPath("$.nextCursor").doesNotExist());
+  }
+
+  @Test
+  void getUsersRejectsAnInvalidLimit() throws Exception {
+    mockMvc.perform(get("/getUsers").param("limit", "0"))
+            .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  void getUsersStreamsOneUserPerLine() throws Exception {
+    Mockito.when(tourGuideService.streamUsers()).thenReturn(Stream.of(
+            new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com"),
+            new User(UUID.randomUUID(), "kim", "000", "kim@tourGuide.com")));
+
+    MvcResult result = mockMvc.perform(get("/getUsers").param("view", "SUMMARY")
+                    .accept(MediaType.APPLICATION_NDJSON))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+    String[] lines = mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+            .andReturn().getResponse().getContentAsString().split("\n");
+
+    assertEquals(2, lines.length);
+    assertEquals("kim", JsonPath.read(lines[1], "$.userName"));
+  }
+
+  @Test
+  void getAllCurrentLocationsIsNotModifiedUntilTheNextPublication() throws Exception {
+    User jon = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+    CurrentLocationPublisher publisher = new CurrentLocationPublisher(new InMemoryUserRepository());
+    publisher.accept(jon, new VisitedLocation(jon.getUserId(), new Location(33.8, -117.9), new Date()));
+    Mockito.when(currentLocationPublisher.getSnapshot()).thenReturn(publisher.publish());
+
+    String eTag = mockMvc.perform(get("/getAllCurrentLocations"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.version").value(1))
+            .andExpect(jsonPath("$.locations['" + jon.getUserId() + "'].latitude").value(33.8))
+            .andReturn().getResponse().getHeader("ETag");
+
+    mockMvc.perform(get("/getAllCurrentLocations").header("If-None-Match", eTag))
+            .andExpect(status().isNotModified());
+    mockMvc.perform(get("/getAllCurrentLocations").param("sinceVersion", "1"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", eTag))
+            .andExpect(jsonPath("$.locations").isEmpty());
+  }
+
+}
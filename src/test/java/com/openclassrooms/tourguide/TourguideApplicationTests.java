@@ -3,7 +3,7 @@ package com.openclassrooms.tourguide;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "tourguide.persistence.enabled=false")
 class TourguideApplicationTests {
 
   @Test
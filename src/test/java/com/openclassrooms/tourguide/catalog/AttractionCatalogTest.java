@@ -0,0 +1,137 @@
+package com.openclassrooms.tourguide.catalog;
+
+import gpsUtil.GpsUtil;
+import gpsUtil.location.Attraction;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AttractionCatalogTest {
+
+  private final GpsUtil gpsUtil = Mockito.mock(GpsUtil.class);
+
+  @Test
+  void refreshKeepsTheSnapshotWhenNothingChanged() {
+    // GpsUtil returns new attractions with new IDs on every call
+    Mockito.when(gpsUtil.getAttractions()).thenAnswer(invocation -> List.of(disneyland(33.817595), jackson()));
+    AttractionCatalog attractionCatalog = new AttractionCatalog(gpsUtil);
+    AttractionSnapshot loaded = attractionCatalog.getSnapshot();
+
+    assertSame(loaded, attractionCatalog.refresh());
+    assertEquals(1, loaded.version());
+  }
+
+  @Test
+  void refreshKeepsTheIdsOfTheUnchangedAttractions() {
+    Mockito.when(gpsUtil.getAttractions())
+            .thenReturn(List.of(disneyland(33.817595), jackson()))
+            .thenReturn(List.of(disneyland(33.8), jackson()));
+    AttractionCatalog attractionCatalog = new AttractionCatalog(gpsUtil);
+    List<Attraction> loaded = attractionCatalog.getAttractions();
+
+    AttractionSnapshot refreshed = attractionCatalog.refresh();
+
+    assertEquals(2, refreshed.version());
+    assertNotSame(loaded.get(0), refreshed.attractions().get(0));
+    assertEquals(33.8, refreshed.attractions().get(0).latitude);
+    assertSame(loaded.get(1), refreshed.attractions().get(1));
+    Attraction moved = refreshed.attractions().get(0);
+    assertSame(moved, refreshed.attractionIndex().nearest(moved, 1).get(0));
+  }
+
+  @Test
+  void refreshNotifiesTheAddedRemovedAndMovedAttractions() {
+    Attraction jackson = jackson();
+    Mockito.when(gpsUtil.getAttractions())
+            .thenReturn(List.of(disneyland(33.817595), jackson))
+            .thenReturn(List.of(disneyland(33.817595), jackson))
+            .thenReturn(List.of(disneyland(33.8), mojave()));
+    AttractionCatalog attractionCatalog = new AttractionCatalog(gpsUtil);
+    List<AttractionChanges> notified = new ArrayList<>();
+    attractionCatalog.addChangeListener(notified::add);
+
+    attractionCatalog.refresh();
+    AttractionSnapshot refreshed = attractionCatalog.refresh();
+
+    assertEquals(1, notified.size());
+    AttractionChanges changes = notified.get(0);
+    assertSame(refreshed, changes.current());
+    assertEquals(List.of("Mojave National Preserve"), names(changes.added()));
+    assertEquals(List.of("Jackson Hole"), names(changes.removed()));
+    assertEquals(List.of("Disneyland"), names(changes.moved()));
+    assertEquals(List.of("Mojave National Preserve", "Disneyland"), names(changes.getRewardable()));
+  }
+
+  @Test
+  void concurrentRefreshesBuildAndNotifyEachVersionOnce() throws InterruptedException {
+    AtomicInteger calls = new AtomicInteger();
+    Mockito.when(gpsUtil.getAttractions()).thenAnswer(invocation ->
+            List.of(disneyland(30 + calls.incrementAndGet() % 2), jackson()));
+    AttractionCatalog attractionCatalog = new AttractionCatalog(gpsUtil);
+    List<AttractionChanges> notified = new CopyOnWriteArrayList<>();
+    attractionCatalog.addChangeListener(notified::add);
+
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      threads.add(Thread.ofPlatform().start(() -> IntStream.range(0, 20).forEach(n -> attractionCatalog.refresh())));
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    long version = attractionCatalog.getSnapshot().version();
+    assertEquals(version - 1, notified.size());
+    for (int i = 0; i < notified.size(); i++) {
+      assertEquals(i + 1, notified.get(i).previous().version());
+      assertEquals(i + 2, notified.get(i).current().version());
+    }
+  }
+
+  @Test
+  void refreshesOnASchedule() throws InterruptedException {
+    Mockito.when(gpsUtil.getAttractions())
+            .thenReturn(List.of(jackson()))
+            .thenAnswer(invocation -> List.of(disneyland(33.817595), jackson()));
+    AttractionCatalog attractionCatalog = new AttractionCatalog(gpsUtil, Duration.ofMillis(20), new SimpleMeterRegistry());
+    try {
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+      while (attractionCatalog.getAttractions().size() < 2 && System.nanoTime() < deadline) {
+        Thread.sleep(10);
+      }
+      assertEquals(2, attractionCatalog.getAttractions().size());
+      assertTrue(attractionCatalog.getSnapshot().version() >= 2);
+    } finally {
+      attractionCatalog.shutdown();
+    }
+  }
+
+  private static Attraction disneyland(double latitude) {
+    return new Attraction("Disneyland", "Anaheim", "CA", latitude, -117.922008);
+  }
+
+  private static Attraction mojave() {
+    return new Attraction("Mojave National Preserve", "Kelso", "CA", 35.141689, -115.510399);
+  }
+
+  private static List<String> names(List<Attraction> attractions) {
+    return attractions.stream().map(attraction -> attraction.attractionName).toList();
+  }
+
+  private static Attraction jackson() {
+    return new Attraction("Jackson Hole", "Jackson Hole", "WY", 43.582767, -110.821999);
+  }
+
+}
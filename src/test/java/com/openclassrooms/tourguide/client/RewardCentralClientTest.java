@@ -0,0 +1,138 @@
+package com.openclassrooms.tourguide.client;
+
+import com.openclassrooms.tourguide.executor.TaskLane;
+import org.junit.jupiter.api.Test;
+import rewardCentral.RewardCentral;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RewardCentralClientTest {
+
+  @Test
+  void concurrentRequestsForSamePairShareOneCall() throws InterruptedException {
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger calls = new AtomicInteger();
+    RewardCentral rewardCentral = new RewardCentral() {
+      @Override
+      public int getAttractionRewardPoints(UUID attractionId, UUID userId) {
+        calls.incrementAndGet();
+        await(release);
+        return 42;
+      }
+    };
+    RewardCentralClient client = new RewardCentralClient(rewardCentral, lane(10), new RewardPointsCache(100, Duration.ofHours(1)));
+    UUID attractionId = UUID.randomUUID();
+    UUID userId = UUID.randomUUID();
+
+    CompletableFuture<Integer> first = client.getAttractionRewardPoints(attractionId, userId);
+    CompletableFuture<Integer> second = client.getAttractionRewardPoints(attractionId, userId);
+    release.countDown();
+
+    assertSame(first, second);
+    assertEquals(42, first.join());
+    assertEquals(1, calls.get());
+  }
+
+  @Test
+  void aCallCompletedAfterTheCacheMissIsNotMadeAgain() {
+    AtomicInteger calls = new AtomicInteger();
+    RewardCentral rewardCentral = new RewardCentral() {
+      @Override
+      public int getAttractionRewardPoints(UUID attractionId, UUID userId) {
+        return calls.incrementAndGet();
+      }
+    };
+    // the first lookup misses, while the call of another request completes and caches the points
+    RewardPointsCache cache = new RewardPointsCache(100, Duration.ofHours(1)) {
+      private boolean missed;
+
+      @Override
+      public Integer get(RewardKey key) {
+        if (!missed) {
+          missed = true;
+          put(key, 42);
+          return null;
+        }
+        return super.get(key);
+      }
+    };
+    RewardCentralClient client = new RewardCentralClient(rewardCentral, lane(10), cache);
+
+    assertEquals(42, client.getAttractionRewardPoints(UUID.randomUUID(), UUID.randomUUID()).join());
+    assertEquals(0, calls.get());
+  }
+
+  @Test
+  void cachedPointsDoNotCallRewardCentral() {
+    AtomicInteger calls = new AtomicInteger();
+    RewardCentral rewardCentral = new RewardCentral() {
+      @Override
+      public int getAttractionRewardPoints(UUID attractionId, UUID userId) {
+        return calls.incrementAndGet();
+      }
+    };
+    RewardCentralClient client = new RewardCentralClient(rewardCentral, lane(10), new RewardPointsCache(100, Duration.ofHours(1)));
+    UUID attractionId = UUID.randomUUID();
+    UUID userId = UUID.randomUUID();
+
+    int first = client.getAttractionRewardPoints(attractionId, userId).join();
+    int second = client.getAttractionRewardPoints(attractionId, userId).join();
+
+    assertEquals(first, second);
+    assertEquals(1, calls.get());
+  }
+
+  @Test
+  void concurrencyIsBounded() {
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    RewardCentral rewardCentral = new RewardCentral() {
+      @Override
+      public int getAttractionRewardPoints(UUID attractionId, UUID userId) {
+        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+        try {
+          Thread.sleep(5);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        running.decrementAndGet();
+        return 1;
+      }
+    };
+    RewardCentralClient client = new RewardCentralClient(rewardCentral, lane(3), new RewardPointsCache(100, Duration.ofHours(1)));
+
+    List<UUID> attractionIds = new ArrayList<>();
+    for (int i = 0; i < 30; i++) {
+      attractionIds.add(UUID.randomUUID());
+    }
+    Map<UUID, Integer> points = client.getAttractionRewardPoints(attractionIds, UUID.randomUUID()).join();
+
+    assertEquals(30, points.size());
+    assertTrue(maxRunning.get() <= 3);
+  }
+
+  private static TaskLane lane(int concurrency) {
+    return new TaskLane("rewards", Executors.newVirtualThreadPerTaskExecutor(), concurrency, 1000);
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+}
@@ -0,0 +1,54 @@
+package com.openclassrooms.tourguide.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RewardPointsCacheTest {
+
+  @Test
+  void countsHitsAndMisses() {
+    RewardPointsCache cache = new RewardPointsCache(10, Duration.ofHours(1));
+    RewardKey key = new RewardKey(UUID.randomUUID(), UUID.randomUUID());
+
+    assertNull(cache.get(key));
+    cache.put(key, 100);
+
+    assertEquals(100, cache.get(key));
+    assertEquals(1, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+  }
+
+  @Test
+  void evictsExpiredEntries() {
+    AtomicLong nanos = new AtomicLong();
+    RewardPointsCache cache = new RewardPointsCache(10, Duration.ofMinutes(5), nanos::get);
+    RewardKey key = new RewardKey(UUID.randomUUID(), UUID.randomUUID());
+    cache.put(key, 100);
+
+    nanos.addAndGet(Duration.ofMinutes(6).toNanos());
+
+    assertNull(cache.get(key));
+    cache.cleanUp();
+    assertEquals(1, cache.getEvictionCount());
+  }
+
+  @Test
+  void evictsWhenFull() {
+    RewardPointsCache cache = new RewardPointsCache(10, Duration.ofHours(1));
+    for (int i = 0; i < 50; i++) {
+      cache.put(new RewardKey(UUID.randomUUID(), UUID.randomUUID()), i);
+    }
+
+    cache.cleanUp();
+
+    assertEquals(10, cache.getSize());
+    assertEquals(40, cache.getEvictionCount());
+  }
+
+}
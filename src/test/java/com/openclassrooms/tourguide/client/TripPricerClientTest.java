@@ -0,0 +1,118 @@
+package com.openclassrooms.tourguide.client;
+
+import com.openclassrooms.tourguide.executor.TaskLane;
+import org.junit.jupiter.api.Test;
+import tripPricer.Provider;
+import tripPricer.TripPricer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TripPricerClientTest {
+
+  private final AtomicInteger calls = new AtomicInteger();
+  private final UUID userId = UUID.randomUUID();
+
+  @Test
+  void concurrentRequestsForSameKeyShareOneCall() {
+    CountDownLatch release = new CountDownLatch(1);
+    TripPricerClient client = client(new CountingTripPricer() {
+      @Override
+      public List<Provider> getPrice(String apiKey, UUID attractionId, int adults, int children, int nightsStay,
+                                     int rewardsPoints) {
+        await(release);
+        return super.getPrice(apiKey, attractionId, adults, children, nightsStay, rewardsPoints);
+      }
+    });
+
+    CompletableFuture<List<Provider>> first = client.getPrice("key", userId, 2, 1, 3, 0);
+    CompletableFuture<List<Provider>> second = client.getPrice("key", userId, 2, 1, 3, 0);
+    release.countDown();
+
+    assertSame(first.join(), second.join());
+    assertEquals(1, calls.get());
+  }
+
+  @Test
+  void rewardPointsOfTheSameBucketShareTheDeals() {
+    TripPricerClient client = client(new CountingTripPricer());
+
+    client.getPrice("key", userId, 2, 1, 3, 110).join();
+    client.getPrice("key", userId, 2, 1, 3, 199).join();
+    assertEquals(1, calls.get());
+
+    client.getPrice("key", userId, 2, 1, 3, 200).join();
+    client.getPrice("key", userId, 2, 2, 3, 199).join();
+    assertEquals(3, calls.get());
+  }
+
+  @Test
+  void pricesTheRewardPointsRoundedDownToTheirBucket() {
+    List<Integer> pricedPoints = new CopyOnWriteArrayList<>();
+    TripPricerClient client = client(new CountingTripPricer() {
+      @Override
+      public List<Provider> getPrice(String apiKey, UUID attractionId, int adults, int children, int nightsStay,
+                                     int rewardsPoints) {
+        pricedPoints.add(rewardsPoints);
+        return super.getPrice(apiKey, attractionId, adults, children, nightsStay, rewardsPoints);
+      }
+    });
+
+    client.getPrice("key", userId, 2, 1, 3, 199).join();
+    client.getPrice("key", userId, 2, 1, 3, 250).join();
+
+    assertEquals(List.of(100, 200), pricedPoints);
+  }
+
+  @Test
+  void failedPricingIsNotCached() {
+    TripPricerClient client = client(new CountingTripPricer() {
+      @Override
+      public List<Provider> getPrice(String apiKey, UUID attractionId, int adults, int children, int nightsStay,
+                                     int rewardsPoints) {
+        if (calls.get() == 0) {
+          calls.incrementAndGet();
+          throw new IllegalStateException("TripPricer unavailable");
+        }
+        return super.getPrice(apiKey, attractionId, adults, children, nightsStay, rewardsPoints);
+      }
+    });
+
+    assertThrows(CompletionException.class, () -> client.getPrice("key", userId, 2, 1, 3, 0).join());
+    assertEquals(1, client.getPrice("key", userId, 2, 1, 3, 0).join().size());
+  }
+
+  private TripPricerClient client(TripPricer tripPricer) {
+    TaskLane lane = new TaskLane("tripPricing", Executors.newVirtualThreadPerTaskExecutor(), 10, 100);
+    return new TripPricerClient(tripPricer, lane, new TripDealsCache(100, Duration.ofHours(1)));
+  }
+
+  private class CountingTripPricer extends TripPricer {
+    @Override
+    public List<Provider> getPrice(String apiKey, UUID attractionId, int adults, int children, int nightsStay,
+                                   int rewardsPoints) {
+      calls.incrementAndGet();
+      return List.of(new Provider(UUID.randomUUID(), "provider", 100));
+    }
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+}
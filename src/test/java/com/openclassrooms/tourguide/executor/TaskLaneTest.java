@@ -0,0 +1,80 @@
+package com.openclassrooms.tourguide.executor;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TaskLaneTest {
+
+  @Test
+  void reportsActiveAndQueuedTasks() throws InterruptedException {
+    TaskLane lane = new TaskLane("test", Executors.newVirtualThreadPerTaskExecutor(), 2, 5);
+    CountDownLatch release = new CountDownLatch(1);
+
+    List<CompletableFuture<Void>> futures = List.of(
+            lane.run(() -> await(release)), lane.run(() -> await(release)), lane.run(() -> await(release)));
+    waitUntil(() -> lane.getActiveTaskCount() == 2 && lane.getQueueDepth() == 1);
+    release.countDown();
+    futures.forEach(CompletableFuture::join);
+
+    assertEquals(0, lane.getActiveTaskCount());
+    assertEquals(0, lane.getQueueDepth());
+    assertEquals(3, lane.getCompletedTaskCount());
+  }
+
+  @Test
+  void blocksSubmittersWhenFull() throws InterruptedException {
+    TaskLane lane = new TaskLane("test", Executors.newVirtualThreadPerTaskExecutor(), 1, 1);
+    CountDownLatch release = new CountDownLatch(1);
+    lane.run(() -> await(release));
+    lane.run(() -> await(release));
+
+    CountDownLatch submitted = new CountDownLatch(1);
+    Thread.ofVirtual().start(() -> {
+      lane.run(() -> {
+      });
+      submitted.countDown();
+    });
+
+    assertFalse(submitted.await(100, TimeUnit.MILLISECONDS));
+    release.countDown();
+    assertTrue(submitted.await(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void forEachRunsEveryItem() {
+    TaskLane lane = new TaskLane("test", Executors.newVirtualThreadPerTaskExecutor(), 4, 0);
+    AtomicInteger sum = new AtomicInteger();
+
+    lane.forEach(List.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 10), sum::addAndGet).join();
+
+    assertEquals(55, sum.get());
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (!condition.getAsBoolean()) {
+      assertTrue(System.currentTimeMillis() < deadline);
+      Thread.sleep(5);
+    }
+  }
+
+}
@@ -0,0 +1,34 @@
+package com.openclassrooms.tourguide.health;
+
+import com.openclassrooms.tourguide.service.TourGuideService;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class InternalUsersHealthIndicatorTest {
+
+  private final TourGuideService tourGuideService = Mockito.mock(TourGuideService.class);
+  private final InternalUsersHealthIndicator healthIndicator = new InternalUsersHealthIndicator(tourGuideService);
+
+  @Test
+  void outOfServiceUntilTheUsersAreLoaded() {
+    assertEquals(Status.OUT_OF_SERVICE, healthIndicator.health().getStatus());
+
+    Mockito.when(tourGuideService.isUsersLoaded()).thenReturn(true);
+    assertEquals(Status.UP, healthIndicator.health().getStatus());
+  }
+
+  @Test
+  void downWithTheCauseWhenTheGenerationFailed() {
+    Mockito.when(tourGuideService.getUsersLoadFailure()).thenReturn(new IllegalStateException("no memory left"));
+
+    Health health = healthIndicator.health();
+
+    assertEquals(Status.DOWN, health.getStatus());
+    assertEquals("java.lang.IllegalStateException: no memory left", health.getDetails().get("error"));
+  }
+
+}
@@ -0,0 +1,48 @@
+package com.openclassrooms.tourguide.helper;
+
+import com.openclassrooms.tourguide.user.User;
+import gpsUtil.location.VisitedLocation;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InternalUserGeneratorTest {
+
+  // the histories keep 30 days of locations before the system time
+  private final Instant now = Instant.now();
+  private final InternalUserGenerator generator = new InternalUserGenerator(Clock.fixed(now, ZoneOffset.UTC));
+
+  @Test
+  void generatesNumberedUsersWithDistinctVersion4Ids() {
+    List<User> users = generator.generate(10_000);
+
+    assertEquals(10_000, users.size());
+    assertEquals("internalUser0", users.get(0).getUserName());
+    assertEquals("internalUser9999@tourGuide.com", users.get(9999).getEmailAddress());
+    assertEquals(10_000, users.stream().map(User::getUserId).collect(Collectors.toSet()).size());
+    assertTrue(users.stream().allMatch(user -> user.getUserId().version() == 4 && user.getUserId().variant() == 2));
+  }
+
+  @Test
+  void generatesAHistoryWithinTheLastThirtyDays() {
+    for (User user : generator.generate(100)) {
+      List<VisitedLocation> visitedLocations = user.getVisitedLocations();
+      assertEquals(3, visitedLocations.size());
+      for (VisitedLocation visitedLocation : visitedLocations) {
+        Instant time = visitedLocation.timeVisited.toInstant();
+        assertTrue(!time.isAfter(now) && time.isAfter(now.minus(Duration.ofDays(30))));
+        assertTrue(Math.abs(visitedLocation.location.latitude) <= 85.05112878);
+        assertTrue(Math.abs(visitedLocation.location.longitude) <= 180);
+      }
+    }
+  }
+
+}
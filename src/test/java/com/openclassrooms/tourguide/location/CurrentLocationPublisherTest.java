@@ -0,0 +1,74 @@
+package com.openclassrooms.tourguide.location;
+
+import com.openclassrooms.tourguide.repository.InMemoryUserRepository;
+import com.openclassrooms.tourguide.user.User;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class CurrentLocationPublisherTest {
+
+  private final InMemoryUserRepository userRepository = new InMemoryUserRepository();
+  private final CurrentLocationPublisher publisher = new CurrentLocationPublisher(userRepository);
+
+  @Test
+  void publishesTheLocationsKnownBeforeTrackingAndTheTrackedOnes() {
+    User jon = user("jon");
+    jon.addToVisitedLocations(visit(jon, 10, 20));
+    User kim = user("kim");
+
+    CurrentLocationSnapshot first = publisher.publish();
+    publisher.accept(kim, visit(kim, 30, 40));
+    CurrentLocationSnapshot second = publisher.publish();
+
+    assertEquals(1, first.size());
+    assertEquals(2, second.size());
+    assertEquals(10, second.getLocationsSince(0).get(jon.getUserId()).latitude());
+    assertEquals(40, second.getLocationsSince(0).get(kim.getUserId()).longitude());
+  }
+
+  @Test
+  void getLocationsSinceReturnsTheChangesOnly() {
+    User jon = user("jon");
+    User kim = user("kim");
+    publisher.accept(jon, visit(jon, 10, 20));
+    publisher.accept(kim, visit(kim, 30, 40));
+    long known = publisher.publish().getVersion();
+
+    publisher.accept(kim, visit(kim, 31, 41));
+    CurrentLocationSnapshot snapshot = publisher.publish();
+    Map<UUID, CurrentLocation> changes = snapshot.getLocationsSince(known);
+
+    assertEquals(1, changes.size());
+    assertEquals(31, changes.get(kim.getUserId()).latitude());
+    assertEquals(2, snapshot.getLocationsSince(0).size());
+    assertEquals(0, snapshot.getLocationsSince(snapshot.getVersion()).size());
+  }
+
+  @Test
+  void keepsTheSnapshotWhenNothingChanged() {
+    User jon = user("jon");
+    publisher.accept(jon, visit(jon, 10, 20));
+    CurrentLocationSnapshot snapshot = publisher.publish();
+
+    assertSame(snapshot, publisher.publish());
+  }
+
+  private User user(String userName) {
+    User user = new User(UUID.randomUUID(), userName, "000", userName + "@tourGuide.com");
+    userRepository.add(user);
+    return user;
+  }
+
+  private VisitedLocation visit(User user, double latitude, double longitude) {
+    return new VisitedLocation(user.getUserId(), new Location(latitude, longitude), new Date());
+  }
+
+}
@@ -0,0 +1,103 @@
+package com.openclassrooms.tourguide.location;
+
+import com.openclassrooms.tourguide.repository.InMemoryUserRepository;
+import com.openclassrooms.tourguide.user.User;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UserLocationIndexTest {
+
+  private final InMemoryUserRepository userRepository = new InMemoryUserRepository();
+  private final UserLocationIndex userLocationIndex = new UserLocationIndex(userRepository,
+          user -> user.getUserPreferences().getAttractionProximity());
+
+  @Test
+  void findsTheUsersWhoVisitedALocationNearby() {
+    User jon = user("jon", 50);
+    jon.addToVisitedLocations(visit(jon, 33.8, -117.9));
+    User kim = user("kim", 50);
+    User ann = user("ann", 10);
+    ann.addToVisitedLocations(visit(ann, 43.5, -110.8));
+
+    userLocationIndex.findUsersNear(new Location(0, 0));
+    userLocationIndex.accept(kim, visit(kim, 34.1, -118.3));
+
+    assertEquals(Set.of(jon.getUserId(), kim.getUserId()),
+            userLocationIndex.findUsersNear(new Location(33.81, -117.92)));
+    assertEquals(Set.of(ann.getUserId()), userLocationIndex.findUsersNear(new Location(43.58, -110.82)));
+  }
+
+  @Test
+  void searchesEachUserWithinTheirOwnProximity() {
+    User wide = user("wide", 3000);
+    userLocationIndex.accept(wide, visit(wide, 40.7, -74.0));
+    User near = user("near", 10);
+    userLocationIndex.accept(near, visit(near, 40.7, -74.0));
+
+    assertEquals(Set.of(wide.getUserId()), userLocationIndex.findUsersNear(new Location(33.8, -117.9)));
+  }
+
+  @Test
+  void findsAUserWhoWidenedTheirProximityWithoutTrackingThemAgain() {
+    User jon = user("jon", 10);
+    VisitedLocation visitedLocation = visit(jon, 40.7, -74.0);
+    jon.addToVisitedLocations(visitedLocation);
+    userLocationIndex.accept(jon, visitedLocation);
+    Location losAngeles = new Location(33.8, -117.9);
+    assertEquals(Set.of(), userLocationIndex.findUsersNear(losAngeles));
+
+    jon.getUserPreferences().setAttractionProximity(3000);
+
+    assertEquals(Set.of(jon.getUserId()), userLocationIndex.findUsersNear(losAngeles));
+  }
+
+  @Test
+  void findsTheUsersAcrossTheAntimeridian() {
+    User jon = user("jon", 20);
+    userLocationIndex.accept(jon, visit(jon, -17.5, 179.9));
+
+    assertEquals(Set.of(jon.getUserId()), userLocationIndex.findUsersNear(new Location(-17.5, -179.9)));
+  }
+
+  @Test
+  void findsEveryLongitudeNearThePoles() {
+    User jon = user("jon", 50);
+    userLocationIndex.accept(jon, visit(jon, 89.5, 10));
+
+    assertEquals(Set.of(jon.getUserId()), userLocationIndex.findUsersNear(new Location(89.9, -170)));
+  }
+
+  @Test
+  void staysProportionalToTheRetainedLocations() {
+    User jon = user("jon", 10);
+    Random random = new Random(42);
+    for (int i = 0; i < 20 * User.getLocationHistoryMaxSize(); i++) {
+      VisitedLocation visitedLocation = visit(jon, random.nextDouble(-85, 85), random.nextDouble(-180, 180));
+      jon.addToVisitedLocations(visitedLocation);
+      userLocationIndex.accept(jon, visitedLocation);
+    }
+
+    assertTrue(userLocationIndex.size() <= 2 * User.getLocationHistoryMaxSize());
+  }
+
+  private User user(String userName, int attractionProximity) {
+    User user = new User(UUID.randomUUID(), userName, "000", userName + "@tourGuide.com");
+    user.getUserPreferences().setAttractionProximity(attractionProximity);
+    userRepository.add(user);
+    return user;
+  }
+
+  private VisitedLocation visit(User user, double latitude, double longitude) {
+    return new VisitedLocation(user.getUserId(), new Location(latitude, longitude), new Date());
+  }
+
+}
@@ -0,0 +1,26 @@
+package com.openclassrooms.tourguide.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ExternalCallsTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  @Test
+  void recordsCallsByServiceAndOutcome() {
+    assertEquals(42, ExternalCalls.record(meterRegistry, ExternalCalls.GPS_UTIL, () -> 42));
+    assertThrows(IllegalStateException.class, () -> ExternalCalls.record(meterRegistry, ExternalCalls.GPS_UTIL, () -> {
+      throw new IllegalStateException("down");
+    }));
+
+    assertEquals(1, meterRegistry.get(ExternalCalls.METRIC)
+            .tags("service", ExternalCalls.GPS_UTIL, "outcome", "success").timer().count());
+    assertEquals(1, meterRegistry.get(ExternalCalls.METRIC)
+            .tags("service", ExternalCalls.GPS_UTIL, "outcome", "error").timer().count());
+  }
+
+}
@@ -0,0 +1,67 @@
+package com.openclassrooms.tourguide.metrics;
+
+import com.openclassrooms.tourguide.client.RewardKey;
+import com.openclassrooms.tourguide.client.RewardPointsCache;
+import com.openclassrooms.tourguide.client.TripDealsCache;
+import com.openclassrooms.tourguide.configuration.ExecutorProperties;
+import com.openclassrooms.tourguide.configuration.TrackerProperties;
+import com.openclassrooms.tourguide.executor.ExecutionEngine;
+import com.openclassrooms.tourguide.service.RewardsService;
+import com.openclassrooms.tourguide.tracker.TrackingPipeline;
+import com.openclassrooms.tourguide.user.User;
+import gpsUtil.GpsUtil;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import rewardCentral.RewardCentral;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+
+class TourGuideMeterBinderTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final ExecutionEngine executionEngine = new ExecutionEngine(new ExecutorProperties());
+
+  @AfterEach
+  void tearDown() {
+    executionEngine.shutdown();
+  }
+
+  @Test
+  void bindsLanesPipelineAndCacheMeters() {
+    GpsUtil gpsUtil = Mockito.mock(GpsUtil.class);
+    Mockito.when(gpsUtil.getUserLocation(any())).thenAnswer(invocation ->
+            new VisitedLocation(invocation.getArgument(0), new Location(1, 2), new Date()));
+    TrackingPipeline trackingPipeline = new TrackingPipeline(gpsUtil,
+            new RewardsService(gpsUtil, Mockito.mock(RewardCentral.class)), List.of(), new TrackerProperties(),
+            executionEngine, meterRegistry);
+    RewardPointsCache rewardPointsCache = new RewardPointsCache(1, Duration.ofHours(1));
+    new TourGuideMeterBinder(executionEngine, trackingPipeline, rewardPointsCache,
+            new TripDealsCache(10, Duration.ofHours(1)))
+            .bindTo(meterRegistry);
+
+    trackingPipeline.track(new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com")).join();
+
+    assertEquals(0, meterRegistry.get("tourguide.executor.queued").tag("lane", "rewards").gauge().value());
+    assertEquals(0, meterRegistry.get("tourguide.executor.saturation").tag("lane", "tripPricing").gauge().value());
+    assertEquals(4, meterRegistry.get("tourguide.tracker.queued").gauges().size());
+    assertEquals(0, meterRegistry.get("tourguide.rewards.cache.size").gauge().value());
+    assertEquals(0, meterRegistry.get("tourguide.tripdeals.cache.size").gauge().value());
+    rewardPointsCache.put(new RewardKey(UUID.randomUUID(), UUID.randomUUID()), 10);
+    rewardPointsCache.put(new RewardKey(UUID.randomUUID(), UUID.randomUUID()), 20);
+    rewardPointsCache.cleanUp();
+    assertEquals(1, meterRegistry.get("tourguide.rewards.cache.evictions").functionCounter().count());
+    assertEquals(1, meterRegistry.get("tourguide.tracker.user").tag("outcome", "success").timer().count());
+    assertEquals(1, meterRegistry.get(ExternalCalls.METRIC).tag("service", ExternalCalls.GPS_UTIL).timer().count());
+  }
+
+}
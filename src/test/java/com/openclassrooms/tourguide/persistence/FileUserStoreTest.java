@@ -0,0 +1,80 @@
+package com.openclassrooms.tourguide.persistence;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FileUserStoreTest {
+
+  @TempDir
+  Path directory;
+
+  private final UUID userId = UUID.randomUUID();
+  private final UserEvent.LocationVisited location = new UserEvent.LocationVisited(userId, 33.8, -117.9, 1000);
+  private final List<UserEvent> events = List.of(
+          new UserEvent.UserAdded(userId, "jon", "000", null),
+          location,
+          new UserEvent.RewardGranted(userId, "Disneyland", "Anaheim", "CA", 33.8, -117.9, location, 500));
+
+  @Test
+  void replaysWhatWasWrittenAfterReopening() {
+    Path path = directory.resolve("users.log");
+    try (FileUserStore store = new FileUserStore(path)) {
+      store.write(events.subList(0, 2));
+      store.write(events.subList(2, 3));
+    }
+
+    assertEquals(events, replay(path));
+  }
+
+  @Test
+  void dropsATornEventAtTheEnd() throws IOException {
+    Path path = directory.resolve("users.log");
+    try (FileUserStore store = new FileUserStore(path)) {
+      store.write(events);
+    }
+    long size = Files.size(path);
+    try (var channel = Files.newByteChannel(path, StandardOpenOption.WRITE)) {
+      channel.truncate(size - 3);
+    }
+
+    assertEquals(events.subList(0, 2), replay(path));
+    // appends go after the last complete event
+    try (FileUserStore store = new FileUserStore(path)) {
+      store.replay(event -> {
+      });
+      store.write(events.subList(2, 3));
+    }
+    assertEquals(events, replay(path));
+  }
+
+  @Test
+  void rewriteReplacesTheStoredEvents() {
+    Path path = directory.resolve("users.log");
+    try (FileUserStore store = new FileUserStore(path)) {
+      store.write(events);
+      store.rewrite(events.subList(0, 1));
+      store.write(events.subList(1, 2));
+    }
+
+    assertEquals(events.subList(0, 2), replay(path));
+  }
+
+  private List<UserEvent> replay(Path path) {
+    List<UserEvent> replayed = new ArrayList<>();
+    try (FileUserStore store = new FileUserStore(path)) {
+      store.replay(replayed::add);
+    }
+    return replayed;
+  }
+
+}
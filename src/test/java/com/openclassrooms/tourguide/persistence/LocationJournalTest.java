@@ -0,0 +1,99 @@
+package com.openclassrooms.tourguide.persistence;
+
+import com.openclassrooms.tourguide.user.User;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LocationJournalTest {
+
+  @TempDir
+  Path directory;
+
+  private final long start = System.currentTimeMillis();
+  private final User jon = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+
+  @Test
+  void recoversTheAppendedLocationsAcrossSegments() {
+    // two records per segment
+    try (LocationJournal journal = new LocationJournal(directory, 2 * LocationJournal.RECORD_SIZE)) {
+      for (int i = 0; i < 5; i++) {
+        journal.append(visit(i));
+      }
+    }
+
+    try (LocationJournal journal = new LocationJournal(directory, 2 * LocationJournal.RECORD_SIZE)) {
+      assertEquals(List.of(0.0, 1.0, 2.0, 3.0, 4.0), recoveredLatitudes(journal));
+    }
+  }
+
+  @Test
+  void snapshotReplacesTheOlderSegments() throws IOException {
+    try (LocationJournal journal = new LocationJournal(directory, 2 * LocationJournal.RECORD_SIZE)) {
+      for (int i = 0; i < 5; i++) {
+        VisitedLocation visitedLocation = visit(i);
+        jon.addToVisitedLocations(visitedLocation);
+        journal.append(visitedLocation);
+      }
+      jon.clearVisitedLocations();
+      jon.addToVisitedLocations(visit(4));
+      assertEquals(1, journal.snapshot(Stream.of(jon)));
+      journal.append(visit(5));
+    }
+
+    try (LocationJournal journal = new LocationJournal(directory, 2 * LocationJournal.RECORD_SIZE)) {
+      assertEquals(List.of(4.0, 5.0), recoveredLatitudes(journal));
+    }
+    try (Stream<Path> files = Files.list(directory)) {
+      // the snapshot, the segment following it and the one opened by the last journal
+      assertEquals(3, files.count());
+    }
+  }
+
+  @Test
+  void readsBackOnceTheLocationsAppendedWhileTheSnapshotIsWritten() {
+    try (LocationJournal journal = new LocationJournal(directory, 16 * LocationJournal.RECORD_SIZE)) {
+      jon.addToVisitedLocations(visit(0));
+      journal.append(visit(0));
+      // a tracker pass and an interactive request both reach the user before the snapshot reads them
+      Stream<User> users = Stream.of(jon).peek(user -> {
+        for (int i = 1; i <= 2; i++) {
+          user.addToVisitedLocations(visit(i));
+          journal.append(visit(i));
+        }
+      });
+      assertEquals(3, journal.snapshot(users));
+      journal.append(visit(3));
+    }
+
+    try (LocationJournal journal = new LocationJournal(directory, 16 * LocationJournal.RECORD_SIZE)) {
+      assertEquals(List.of(0.0, 1.0, 2.0, 3.0), recoveredLatitudes(journal));
+    }
+  }
+
+  private List<Double> recoveredLatitudes(LocationJournal journal) {
+    List<Double> latitudes = new ArrayList<>();
+    journal.recover((userId, latitude, longitude, time) -> {
+      assertEquals(jon.getUserId(), userId);
+      latitudes.add(latitude);
+    });
+    return latitudes;
+  }
+
+  private VisitedLocation visit(int i) {
+    return new VisitedLocation(jon.getUserId(), new Location(i, -i), new Date(start + 1000L * i));
+  }
+
+}
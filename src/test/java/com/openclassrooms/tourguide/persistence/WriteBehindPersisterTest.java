@@ -0,0 +1,72 @@
+package com.openclassrooms.tourguide.persistence;
+
+import com.openclassrooms.tourguide.repository.InMemoryUserRepository;
+import com.openclassrooms.tourguide.repository.PersistentUserRepository;
+import com.openclassrooms.tourguide.user.User;
+import com.openclassrooms.tourguide.user.UserReward;
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WriteBehindPersisterTest {
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void recoversUsersLocationsAndRewardsAfterARestart() throws InterruptedException {
+    Path path = directory.resolve("users.log");
+    Attraction attraction = new Attraction("Disneyland", "Anaheim", "CA", 33.817595, -117.922008);
+
+    WriteBehindPersister persister = persister(path);
+    PersistentUserRepository userRepository = new PersistentUserRepository(new InMemoryUserRepository(), persister);
+    User jon = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+    VisitedLocation known = visit(jon, 10, 20);
+    jon.addToVisitedLocations(known);
+    userRepository.add(jon);
+    VisitedLocation tracked = visit(jon, attraction.latitude, attraction.longitude);
+    jon.addToVisitedLocations(tracked);
+    jon.addUserReward(new UserReward(tracked, attraction, 500));
+    persister.accept(jon, tracked);
+    // a second pass without any new reward, nor new location
+    persister.accept(jon, tracked);
+    assertTrue(persister.flush(5, TimeUnit.SECONDS));
+    persister.shutdown();
+
+    WriteBehindPersister restarted = persister(path);
+    InMemoryUserRepository recovered = new InMemoryUserRepository();
+    assertEquals(1, restarted.recover(recovered));
+    restarted.shutdown();
+
+    User recoveredJon = recovered.findById(jon.getUserId());
+    assertEquals("jon@tourGuide.com", recoveredJon.getEmailAddress());
+    assertEquals(List.of(known.timeVisited, tracked.timeVisited),
+            recoveredJon.getVisitedLocations().stream().map(visitedLocation -> visitedLocation.timeVisited).toList());
+    assertEquals(1, recoveredJon.getUserRewards().size());
+    assertEquals(500, recoveredJon.getRewardPointsTotal());
+    assertTrue(recoveredJon.hasRewardFor("Disneyland"));
+  }
+
+  private WriteBehindPersister persister(Path path) {
+    return new WriteBehindPersister(new FileUserStore(path), new LocationJournal(directory.resolve("locations"), 4000),
+            100, Duration.ZERO, new SimpleMeterRegistry());
+  }
+
+  private VisitedLocation visit(User user, double latitude, double longitude) {
+    return new VisitedLocation(user.getUserId(), new Location(latitude, longitude), new Date());
+  }
+
+}
@@ -0,0 +1,87 @@
+package com.openclassrooms.tourguide.repository;
+
+import com.openclassrooms.tourguide.user.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InMemoryUserRepositoryTest {
+
+  private final InMemoryUserRepository userRepository = new InMemoryUserRepository();
+
+  @Test
+  void findByUserNameAndById() {
+    User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+
+    assertTrue(userRepository.add(user));
+
+    assertSame(user, userRepository.findByUserName("jon"));
+    assertSame(user, userRepository.findById(user.getUserId()));
+    assertNull(userRepository.findByUserName("jon2"));
+    assertNull(userRepository.findById(UUID.randomUUID()));
+  }
+
+  @Test
+  void addKeepsTheFirstUserWithAUserName() {
+    User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+    User sameName = new User(UUID.randomUUID(), "jon", "000", "jon2@tourGuide.com");
+
+    userRepository.add(user);
+
+    assertFalse(userRepository.add(sameName));
+    assertSame(user, userRepository.findByUserName("jon"));
+    assertNull(userRepository.findById(sameName.getUserId()));
+    assertEquals(1, userRepository.count());
+  }
+
+  @Test
+  void findAllIsAnImmutableSnapshot() {
+    userRepository.add(new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com"));
+    List<User> snapshot = userRepository.findAll();
+
+    userRepository.add(new User(UUID.randomUUID(), "jon2", "000", "jon2@tourGuide.com"));
+
+    assertEquals(1, snapshot.size());
+    assertEquals(2, userRepository.findAll().size());
+    assertSame(userRepository.findAll(), userRepository.findAll());
+    assertThrows(UnsupportedOperationException.class, () -> snapshot.add(null));
+  }
+
+  @Test
+  void concurrentAdds() {
+    try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+      IntStream.range(0, 10_000).forEach(i -> executor.execute(() -> {
+        userRepository.add(new User(UUID.randomUUID(), "user" + i, "000", ""));
+        userRepository.findAll();
+      }));
+    }
+
+    assertEquals(10_000, userRepository.count());
+    assertEquals(10_000, userRepository.findAll().size());
+  }
+
+  @Test
+  void findPageFollowsTheUserNameOrder() {
+    List.of("kim", "jon", "ann", "bob").forEach(name ->
+            userRepository.add(new User(UUID.randomUUID(), name, "000", name + "@tourGuide.com")));
+
+    List<User> first = userRepository.findPage(null, 3);
+    List<User> second = userRepository.findPage(first.get(2).getUserName(), 3);
+
+    assertEquals(List.of("ann", "bob", "jon"), first.stream().map(User::getUserName).toList());
+    assertEquals(List.of("kim"), second.stream().map(User::getUserName).toList());
+    assertEquals(List.of("ann", "bob", "jon", "kim"), userRepository.stream().map(User::getUserName).toList());
+  }
+
+}
@@ -0,0 +1,93 @@
+package com.openclassrooms.tourguide.service;
+
+import com.openclassrooms.tourguide.catalog.AttractionCatalog;
+import com.openclassrooms.tourguide.catalog.AttractionChanges;
+import com.openclassrooms.tourguide.catalog.AttractionSnapshot;
+import com.openclassrooms.tourguide.location.UserLocationIndex;
+import com.openclassrooms.tourguide.repository.InMemoryUserRepository;
+import com.openclassrooms.tourguide.user.User;
+import gpsUtil.GpsUtil;
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import rewardCentral.RewardCentral;
+
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CatalogRewardUpdaterTest {
+
+  private final GpsUtil gpsUtil = Mockito.mock(GpsUtil.class);
+  private final InMemoryUserRepository userRepository = new InMemoryUserRepository();
+
+  @Test
+  void rewardsTheUsersWhoVisitedAnAddedAttractionBefore() {
+    Mockito.when(gpsUtil.getAttractions())
+            .thenReturn(List.of(jackson()))
+            .thenReturn(List.of(jackson(), disneyland()));
+    RewardsService rewardsService = new RewardsService(gpsUtil, new RewardCentral());
+    AttractionCatalog attractionCatalog = rewardsService.getAttractionCatalog();
+    CatalogRewardUpdater catalogRewardUpdater = new CatalogRewardUpdater(rewardsService,
+            new UserLocationIndex(userRepository, rewardsService::getRewardProximity), userRepository);
+    CompletableFuture<?>[] updated = new CompletableFuture[1];
+    attractionCatalog.addChangeListener(changes -> updated[0] = catalogRewardUpdater.update(changes));
+
+    User near = user("near", 33.817595, -117.922008);
+    User far = user("far", 40.7, -74.0);
+    rewardsService.calculateRewards(near);
+    rewardsService.calculateRewards(far);
+    assertTrue(near.getUserRewards().isEmpty());
+
+    attractionCatalog.refresh();
+    updated[0].join();
+
+    assertEquals(1, near.getUserRewards().size());
+    assertEquals("Disneyland", near.getUserRewards().get(0).attraction.attractionName);
+    assertTrue(far.getUserRewards().isEmpty());
+    assertTrue(near.getUnrewardedLocations().locations().isEmpty());
+  }
+
+  @Test
+  void skipsTheChangesWithoutAddedOrMovedAttractions() {
+    Mockito.when(gpsUtil.getAttractions())
+            .thenReturn(List.of(jackson(), disneyland()))
+            .thenReturn(List.of(jackson()));
+    RewardsService rewardsService = new RewardsService(gpsUtil, new RewardCentral());
+    AttractionCatalog attractionCatalog = rewardsService.getAttractionCatalog();
+    CatalogRewardUpdater catalogRewardUpdater = new CatalogRewardUpdater(rewardsService,
+            new UserLocationIndex(userRepository, rewardsService::getRewardProximity), userRepository);
+    User near = user("near", 33.817595, -117.922008);
+    rewardsService.calculateRewards(near);
+
+    AttractionSnapshot loaded = attractionCatalog.getSnapshot();
+    AttractionChanges changes = AttractionChanges.between(loaded, attractionCatalog.refresh());
+    catalogRewardUpdater.update(changes).join();
+
+    assertEquals(List.of("Disneyland"), changes.removed().stream().map(attraction -> attraction.attractionName).toList());
+    // rewards earned for a removed attraction are kept
+    assertEquals(1, near.getUserRewards().size());
+  }
+
+  private User user(String userName, double latitude, double longitude) {
+    User user = new User(UUID.randomUUID(), userName, "000", userName + "@tourGuide.com");
+    user.addToVisitedLocations(new VisitedLocation(user.getUserId(), new Location(latitude, longitude), new Date()));
+    userRepository.add(user);
+    return user;
+  }
+
+  private static Attraction disneyland() {
+    return new Attraction("Disneyland", "Anaheim", "CA", 33.817595, -117.922008);
+  }
+
+  private static Attraction jackson() {
+    return new Attraction("Jackson Hole", "Jackson Hole", "WY", 43.582767, -110.821999);
+  }
+
+}
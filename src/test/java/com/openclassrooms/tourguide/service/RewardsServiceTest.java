@@ -1,21 +1,33 @@
 package com.openclassrooms.tourguide.service;
 
+import com.openclassrooms.tourguide.catalog.AttractionCatalog;
+import com.openclassrooms.tourguide.client.RewardCentralClient;
 import com.openclassrooms.tourguide.user.User;
 import com.openclassrooms.tourguide.user.UserReward;
 import gpsUtil.GpsUtil;
 import gpsUtil.location.Attraction;
 import gpsUtil.location.Location;
 import gpsUtil.location.VisitedLocation;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
 import rewardCentral.RewardCentral;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
 
 class RewardsServiceTest {
 
@@ -30,10 +42,12 @@ class RewardsServiceTest {
   }
 
   @Test
-  void setDefaultProximityBuffer() {
-    rewardsService.setProximityBuffer(100);
-    rewardsService.setDefaultProximityBuffer();
-    assertEquals(10, rewardsService.getProximityBuffer());
+  void getRewardProximityDefaultsWhenNotSet() {
+    User user = new User(UUID.randomUUID(), "testUser", "000", "test@tourGuide.com");
+    assertEquals(10, rewardsService.getRewardProximity(user));
+
+    user.getUserPreferences().setAttractionProximity(100);
+    assertEquals(100, rewardsService.getRewardProximity(user));
   }
 
   @Test
@@ -49,6 +63,63 @@ class RewardsServiceTest {
     assertEquals(attraction.attractionName, userRewards.get(0).attraction.attractionName);
   }
 
+  @Test
+  void calculateRewardsOnlyEvaluatesNewLocations() {
+    User user = new User(UUID.randomUUID(), "testUser", "000", "test@tourGuide.com");
+    Attraction first = gpsUtil.getAttractions().get(0);
+    Attraction second = gpsUtil.getAttractions().get(1);
+    user.addToVisitedLocations(new VisitedLocation(user.getUserId(), first, new Date()));
+    rewardsService.calculateRewards(user);
+    UserReward firstReward = user.getUserRewards().get(0);
+
+    user.addToVisitedLocations(new VisitedLocation(user.getUserId(), first, new Date()));
+    user.addToVisitedLocations(new VisitedLocation(user.getUserId(), second, new Date()));
+    rewardsService.calculateRewards(user);
+    List<UserReward> userRewards = user.getUserRewards();
+
+    assertEquals(2, userRewards.size());
+    assertSame(firstReward, userRewards.get(0));
+    assertEquals(second.attractionName, userRewards.get(1).attraction.attractionName);
+    assertTrue(user.getUnrewardedLocations().locations().isEmpty());
+  }
+
+  @Test
+  void calculateRewardsOfSeveralUsersAtOnce() {
+    Attraction first = gpsUtil.getAttractions().get(0);
+    Attraction second = gpsUtil.getAttractions().get(1);
+    User both = new User(UUID.randomUUID(), "both", "000", "both@tourGuide.com");
+    both.addToVisitedLocations(new VisitedLocation(both.getUserId(), first, new Date()));
+    both.addToVisitedLocations(new VisitedLocation(both.getUserId(), second, new Date()));
+    User none = new User(UUID.randomUUID(), "none", "000", "none@tourGuide.com");
+    none.addToVisitedLocations(new VisitedLocation(none.getUserId(), new Location(0, 0), new Date()));
+
+    rewardsService.calculateRewardsAsync(List.of(both, none)).join();
+
+    assertEquals(2, both.getUserRewards().size());
+    assertEquals(both.getUserRewards().stream().mapToInt(UserReward::getRewardPoints).sum(),
+            both.getRewardPointsTotal());
+    assertTrue(none.getUserRewards().isEmpty());
+    assertTrue(both.getUnrewardedLocations().locations().isEmpty());
+    assertTrue(none.getUnrewardedLocations().locations().isEmpty());
+  }
+
+  @Test
+  void getProximityCandidates() {
+    Attraction attraction = gpsUtil.getAttractions().get(0);
+    User near = new User(UUID.randomUUID(), "near", "000", "near@tourGuide.com");
+    near.addToVisitedLocations(new VisitedLocation(near.getUserId(), new Location(0, 0), new Date()));
+    near.addToVisitedLocations(new VisitedLocation(near.getUserId(), attraction, new Date()));
+    User far = new User(UUID.randomUUID(), "far", "000", "far@tourGuide.com");
+    far.addToVisitedLocations(new VisitedLocation(far.getUserId(), new Location(0, 0), new Date()));
+    User unknown = new User(UUID.randomUUID(), "unknown", "000", "unknown@tourGuide.com");
+
+    List<ProximityCandidate> candidates = rewardsService.getProximityCandidates(List.of(near, far, unknown));
+
+    assertTrue(candidates.stream().allMatch(candidate -> candidate.user() == near));
+    assertTrue(candidates.stream().anyMatch(candidate ->
+            candidate.attraction().attractionName.equals(attraction.attractionName)));
+  }
+
   @Test
   void isWithinAttractionProximity() {
     Attraction attraction = gpsUtil.getAttractions().get(0);
@@ -88,8 +159,44 @@ class RewardsServiceTest {
   }
 
   @Test
-  void setProximityBuffer() {
-    rewardsService.setProximityBuffer(100);
-    assertEquals(100, rewardsService.getProximityBuffer());
+  void calculateRewardsHonorsTheProximityOfEachUser() {
+    Attraction attraction = gpsUtil.getAttractions().get(0);
+    // about 35 miles north of the attraction
+    Location nearby = new Location(attraction.latitude + 0.5, attraction.longitude);
+    User close = new User(UUID.randomUUID(), "close", "000", "close@tourGuide.com");
+    close.addToVisitedLocations(new VisitedLocation(close.getUserId(), nearby, new Date()));
+    User wide = new User(UUID.randomUUID(), "wide", "000", "wide@tourGuide.com");
+    wide.getUserPreferences().setAttractionProximity(50);
+    wide.addToVisitedLocations(new VisitedLocation(wide.getUserId(), nearby, new Date()));
+
+    rewardsService.calculateRewardsAsync(List.of(close, wide)).join();
+
+    assertTrue(close.getUserRewards().stream()
+            .noneMatch(reward -> reward.attraction.attractionName.equals(attraction.attractionName)));
+    assertTrue(wide.getUserRewards().stream()
+            .anyMatch(reward -> reward.attraction.attractionName.equals(attraction.attractionName)));
+  }
+
+  @Test
+  void calculateRewardsRequestsThePointsOfAUserInOneBatch() {
+    RewardCentralClient rewardCentralClient = Mockito.mock(RewardCentralClient.class);
+    Mockito.when(rewardCentralClient.getAttractionRewardPoints(anyCollection(), any(UUID.class)))
+            .thenAnswer(invocation -> {
+              Collection<UUID> attractionIds = invocation.getArgument(0);
+              return CompletableFuture.completedFuture(attractionIds.stream()
+                      .collect(Collectors.toMap(Function.identity(), attractionId -> 10)));
+            });
+    RewardsService batchingService = new RewardsService(new AttractionCatalog(gpsUtil), rewardCentralClient,
+            new SimpleMeterRegistry());
+    User user = new User(UUID.randomUUID(), "testUser", "000", "test@tourGuide.com");
+    user.getUserPreferences().setAttractionProximity(20_000);
+    user.addToVisitedLocations(new VisitedLocation(user.getUserId(), new Location(0, 0), new Date()));
+
+    batchingService.calculateRewards(user);
+
+    assertEquals(gpsUtil.getAttractions().size(), user.getUserRewards().size());
+    assertEquals(10 * user.getUserRewards().size(), user.getRewardPointsTotal());
+    Mockito.verify(rewardCentralClient).getAttractionRewardPoints(anyCollection(), eq(user.getUserId()));
+    Mockito.verify(rewardCentralClient, Mockito.never()).getAttractionRewardPoints(any(UUID.class), any(UUID.class));
   }
-}
\ No newline at end of file
+}
@@ -1,16 +1,25 @@
 package com.openclassrooms.tourguide.service;
 
+import com.openclassrooms.tourguide.client.TripPricerClient;
+import com.openclassrooms.tourguide.configuration.InternalUsersProperties;
+import com.openclassrooms.tourguide.configuration.TrackerProperties;
+import com.openclassrooms.tourguide.helper.InternalTestHelper;
+import com.openclassrooms.tourguide.repository.InMemoryUserRepository;
+import com.openclassrooms.tourguide.tracker.TrackingPipeline;
 import com.openclassrooms.tourguide.user.User;
 import com.openclassrooms.tourguide.user.UserReward;
 import gpsUtil.GpsUtil;
 import gpsUtil.location.Attraction;
 import gpsUtil.location.VisitedLocation;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import rewardCentral.RewardCentral;
 import tripPricer.Provider;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.UUID;
 
@@ -28,6 +37,11 @@ class TourGuideServiceTest {
     tourGuideService = new TourGuideService(gpsUtil, rewardsService);
   }
 
+  @AfterEach
+  void tearDown() {
+    tourGuideService.shutdown();
+  }
+
   @Test
   void getUserRewards() {
     User user = new User(UUID.randomUUID(), "testUser", "000", "test@tourGuide.com");
@@ -107,4 +121,22 @@ class TourGuideServiceTest {
     assertNotNull(providers);
     assertFalse(providers.isEmpty());
   }
-}
\ No newline at end of file
+
+  @Test
+  void lazyGenerationWaitsForTheFirstLookup() {
+    GpsUtil gpsUtil = Mockito.mock(GpsUtil.class);
+    RewardsService rewardsService = new RewardsService(gpsUtil, Mockito.mock(RewardCentral.class));
+    InternalUsersProperties internalUsersProperties = new InternalUsersProperties();
+    internalUsersProperties.setGeneration(InternalUsersProperties.Generation.LAZY);
+    TrackerProperties trackerProperties = new TrackerProperties();
+    trackerProperties.setMaxJitter(Duration.ofHours(1));
+    TourGuideService lazy = new TourGuideService(rewardsService, Mockito.mock(TrackingPipeline.class),
+            trackerProperties, new InMemoryUserRepository(), Mockito.mock(TripPricerClient.class),
+            rewardsService.getAttractionCatalog(), internalUsersProperties, new SimpleMeterRegistry());
+    lazy.shutdown();
+
+    assertFalse(lazy.isUsersLoaded());
+    assertEquals(InternalTestHelper.getInternalUserNumber(), lazy.getAllUsers().size());
+    assertTrue(lazy.isUsersLoaded());
+  }
+}
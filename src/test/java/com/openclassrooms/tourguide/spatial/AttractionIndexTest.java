@@ -0,0 +1,113 @@
+package com.openclassrooms.tourguide.spatial;
+
+import com.openclassrooms.tourguide.service.RewardsService;
+import gpsUtil.GpsUtil;
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import rewardCentral.RewardCentral;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AttractionIndexTest {
+
+  private List<Attraction> attractions;
+  private AttractionIndex attractionIndex;
+  private RewardsService rewardsService;
+
+  @BeforeEach
+  void setUp() {
+    GpsUtil gpsUtil = new GpsUtil();
+    attractions = gpsUtil.getAttractions();
+    attractionIndex = new AttractionIndex(attractions);
+    rewardsService = new RewardsService(gpsUtil, new RewardCentral());
+  }
+
+  @Test
+  void withinRadiusMatchesFullScan() {
+    Random random = new Random(42);
+    for (int i = 0; i < 1000; i++) {
+      Location location = randomLocation(random);
+      double radius = random.nextDouble() * 3000;
+
+      Set<String> expected = attractions.stream()
+              .filter(a -> rewardsService.getDistance(a, location) <= radius)
+              .map(a -> a.attractionName)
+              .collect(Collectors.toSet());
+      Set<String> actual = attractionIndex.withinRadius(location, radius).stream()
+              .map(a -> a.attractionName)
+              .collect(Collectors.toSet());
+
+      assertEquals(expected, actual);
+    }
+  }
+
+  @Test
+  void withinRadiusReturnsEverythingForHugeRadius() {
+    assertEquals(attractions.size(), attractionIndex.withinRadius(new Location(0, 0), Integer.MAX_VALUE).size());
+  }
+
+  @Test
+  void nearestMatchesFullScanSort() {
+    Random random = new Random(7);
+    for (int i = 0; i < 1000; i++) {
+      Location location = randomLocation(random);
+
+      List<String> expected = attractions.stream()
+              .sorted(Comparator.comparingDouble(a -> rewardsService.getDistance(a, location)))
+              .limit(5)
+              .map(a -> a.attractionName)
+              .toList();
+      List<String> actual = attractionIndex.nearest(location, 5).stream()
+              .map(a -> a.attractionName)
+              .toList();
+
+      assertEquals(expected, actual);
+    }
+  }
+
+  @Test
+  void nearestWithinRadiusMatchesFullScanSort() {
+    Random random = new Random(11);
+    for (int i = 0; i < 1000; i++) {
+      Attraction around = attractions.get(random.nextInt(attractions.size()));
+      Location location = new Location(around.latitude - 5 + random.nextDouble() * 10,
+              around.longitude - 5 + random.nextDouble() * 10);
+      double radius = random.nextDouble() * 1000;
+
+      List<String> expected = attractions.stream()
+              .filter(a -> rewardsService.getDistance(a, location) <= radius)
+              .sorted(Comparator.comparingDouble(a -> rewardsService.getDistance(a, location)))
+              .limit(5)
+              .map(a -> a.attractionName)
+              .toList();
+      List<String> actual = attractionIndex.nearest(location, 5, radius).stream()
+              .map(a -> a.attractionName)
+              .toList();
+
+      assertEquals(expected, actual);
+    }
+  }
+
+  @Test
+  void nearestHandlesSmallIndexes() {
+    AttractionIndex empty = new AttractionIndex(List.of());
+    assertTrue(empty.nearest(new Location(0, 0), 5).isEmpty());
+
+    AttractionIndex single = new AttractionIndex(attractions.subList(0, 1));
+    assertEquals(1, single.nearest(new Location(0, 0), 5).size());
+  }
+
+  private Location randomLocation(Random random) {
+    return new Location(-85 + random.nextDouble() * 170, -180 + random.nextDouble() * 360);
+  }
+
+}
@@ -0,0 +1,54 @@
+package com.openclassrooms.tourguide.spatial;
+
+import gpsUtil.GpsUtil;
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+class BatchProximityTest {
+
+  private final List<Attraction> attractions = new GpsUtil().getAttractions();
+  private final DistanceEngine distanceEngine = new DistanceEngine(attractions, DistanceMode.HAVERSINE);
+
+  @Test
+  void kernelsMatchDistance() {
+    Random random = new Random(42);
+    List<Location> locations = new ArrayList<>();
+    // not a multiple of any vector length, the tail loop is exercised as well
+    for (int i = 0; i < 1003; i++) {
+      Attraction attraction = attractions.get(random.nextInt(attractions.size()));
+      locations.add(new Location(attraction.latitude + random.nextDouble(-20, 20),
+              attraction.longitude + random.nextDouble(-20, 20)));
+    }
+    List<String> expected = new ArrayList<>();
+    for (int t = 0; t < attractions.size(); t++) {
+      for (int i = 0; i < locations.size(); i++) {
+        if (distanceEngine.distance(attractions.get(t), locations.get(i)) <= 500) {
+          expected.add(i + "-" + t);
+        }
+      }
+    }
+
+    for (ProximityKernel kernel : List.of(new ScalarProximityKernel(), ProximityKernel.create())) {
+      List<String> found = new ArrayList<>();
+      new BatchProximity(attractions, kernel).findWithin(locations, Function.identity(), 500, (i, t) -> found.add(i + "-" + t));
+
+      assertEquals(expected, found, kernel.getName());
+    }
+  }
+
+  @Test
+  void createsTheVectorKernelWhenTheModuleIsAdded() {
+    // the tests run with --add-modules jdk.incubator.vector
+    assertInstanceOf(VectorProximityKernel.class, ProximityKernel.create());
+  }
+
+}
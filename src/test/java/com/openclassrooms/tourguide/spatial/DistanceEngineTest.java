@@ -0,0 +1,77 @@
+package com.openclassrooms.tourguide.spatial;
+
+import gpsUtil.GpsUtil;
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class DistanceEngineTest {
+
+  private final List<Attraction> attractions = new GpsUtil().getAttractions();
+  private final DistanceEngine haversine = new DistanceEngine(attractions, DistanceMode.HAVERSINE);
+  private final DistanceEngine lawOfCosines = new DistanceEngine(attractions, DistanceMode.SPHERICAL_LAW_OF_COSINES);
+
+  @Test
+  void modesAgreeAtLongDistances() {
+    Random random = new Random(42);
+    for (int i = 0; i < 1000; i++) {
+      Location loc1 = randomLocation(random);
+      Location loc2 = randomLocation(random);
+
+      assertEquals(lawOfCosines.distance(loc1, loc2), haversine.distance(loc1, loc2), 1e-6);
+    }
+  }
+
+  @Test
+  void locationsAndPreparedPointsAgree() {
+    Random random = new Random(42);
+    for (int i = 0; i < 1000; i++) {
+      Location loc1 = randomLocation(random);
+      Location loc2 = randomLocation(random);
+
+      for (DistanceEngine engine : List.of(haversine, lawOfCosines)) {
+        assertEquals(engine.distance(engine.pointOf(loc1), engine.pointOf(loc2)), engine.distance(loc1, loc2), 1e-6);
+      }
+    }
+  }
+
+  @Test
+  void haversineStaysPreciseAtShortDistances() {
+    // one thousandth of a minute of latitude, about six feet
+    Location loc1 = new Location(33.817595, -117.922008);
+    Location loc2 = new Location(33.817595 + 1.0 / 60_000, -117.922008);
+
+    assertEquals(GeoMath.STATUTE_MILES_PER_NAUTICAL_MILE / 1000, haversine.distance(loc1, loc2), 1e-9);
+  }
+
+  @Test
+  void attractionPointsAreComputedOnce() {
+    Attraction attraction = attractions.get(0);
+
+    assertSame(haversine.pointOf(attraction), haversine.pointOf(attraction));
+  }
+
+  @Test
+  void proximityMatchesDistance() {
+    Random random = new Random(42);
+    for (int i = 0; i < 1000; i++) {
+      Attraction attraction = attractions.get(random.nextInt(attractions.size()));
+      Location location = randomLocation(random);
+      DistanceEngine.Proximity proximity = haversine.proximity(random.nextDouble() * 5000);
+
+      assertEquals(haversine.distance(attraction, location) <= proximity.miles(),
+              proximity.contains(haversine.pointOf(attraction), haversine.pointOf(location)));
+    }
+  }
+
+  private Location randomLocation(Random random) {
+    return new Location(random.nextDouble() * 170 - 85, random.nextDouble() * 360 - 180);
+  }
+
+}
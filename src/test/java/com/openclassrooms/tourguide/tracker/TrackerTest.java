@@ -0,0 +1,107 @@
+package com.openclassrooms.tourguide.tracker;
+
+import com.openclassrooms.tourguide.configuration.TrackerProperties;
+import com.openclassrooms.tourguide.service.TourGuideService;
+import com.openclassrooms.tourguide.user.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+
+class TrackerTest {
+
+  private Tracker tracker;
+
+  @AfterEach
+  void tearDown() {
+    tracker.stopTracking();
+  }
+
+  @Test
+  void tracksEveryUserOncePerIntervalInItsShard() throws InterruptedException {
+    List<User> users = new ArrayList<>();
+    IntStream.range(0, 200).forEach(i -> users.add(new User(UUID.randomUUID(), "user" + i, "000", "")));
+    Map<UUID, Integer> shardByUser = new ConcurrentHashMap<>();
+    Set<Integer> trackedShards = ConcurrentHashMap.newKeySet();
+    CountDownLatch firstInterval = new CountDownLatch(4);
+
+    TourGuideService tourGuideService = Mockito.mock(TourGuideService.class);
+    Mockito.when(tourGuideService.isUsersLoaded()).thenReturn(true);
+    Mockito.when(tourGuideService.getAllUsers()).thenReturn(users);
+    Mockito.doAnswer(invocation -> {
+      List<User> shardUsers = invocation.getArgument(0);
+      Set<Integer> shards = new HashSet<>();
+      shardUsers.forEach(user -> {
+        int shard = Math.floorMod(user.getUserId().hashCode(), 4);
+        shards.add(shard);
+        shardByUser.put(user.getUserId(), shard);
+      });
+      // each pass only receives the users of a single shard
+      assertTrue(shards.size() <= 1);
+      if (shards.stream().allMatch(trackedShards::add)) {
+        firstInterval.countDown();
+      }
+      return null;
+    }).when(tourGuideService).parallelTrackAllUsersLocation(anyList());
+
+    tracker = new Tracker(tourGuideService, properties(Duration.ofMillis(400), 4));
+
+    assertTrue(firstInterval.await(5, TimeUnit.SECONDS));
+    assertEquals(200, shardByUser.size());
+  }
+
+  @Test
+  void skipsSlotsOfAShardStillRunning() throws InterruptedException {
+    CountDownLatch release = new CountDownLatch(1);
+    TourGuideService tourGuideService = Mockito.mock(TourGuideService.class);
+    Mockito.when(tourGuideService.isUsersLoaded()).thenReturn(true);
+    Mockito.when(tourGuideService.getAllUsers()).thenReturn(List.of(new User(UUID.randomUUID(), "jon", "000", "")));
+    Mockito.doAnswer(invocation -> {
+      release.await();
+      return null;
+    }).when(tourGuideService).parallelTrackAllUsersLocation(anyList());
+
+    tracker = new Tracker(tourGuideService, properties(Duration.ofMillis(50), 1));
+    Thread.sleep(300);
+
+    ShardStatus status = tracker.getShardStatuses().get(0);
+    assertTrue(status.running());
+    assertTrue(status.skippedTicks() > 0);
+    release.countDown();
+  }
+
+  @Test
+  void skipsSlotsUntilTheUsersAreLoaded() throws InterruptedException {
+    TourGuideService tourGuideService = Mockito.mock(TourGuideService.class);
+
+    tracker = new Tracker(tourGuideService, properties(Duration.ofMillis(50), 1));
+    Thread.sleep(200);
+
+    Mockito.verify(tourGuideService, Mockito.never()).getAllUsers();
+    assertEquals(0, tracker.getShardStatuses().get(0).skippedTicks());
+  }
+
+  private TrackerProperties properties(Duration interval, int shards) {
+    TrackerProperties trackerProperties = new TrackerProperties();
+    trackerProperties.setInterval(interval);
+    trackerProperties.setShards(shards);
+    trackerProperties.setMaxJitter(Duration.ZERO);
+    return trackerProperties;
+  }
+
+}
@@ -0,0 +1,161 @@
+package com.openclassrooms.tourguide.tracker;
+
+import com.openclassrooms.tourguide.configuration.ExecutorProperties;
+import com.openclassrooms.tourguide.configuration.TrackerProperties;
+import com.openclassrooms.tourguide.executor.ExecutionEngine;
+import com.openclassrooms.tourguide.service.RewardsService;
+import com.openclassrooms.tourguide.user.User;
+import gpsUtil.GpsUtil;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import rewardCentral.RewardCentral;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+
+class TrackingPipelineTest {
+
+  private final Map<UUID, VisitedLocation> persisted = new ConcurrentHashMap<>();
+  private ExecutionEngine executionEngine;
+  private TrackingPipeline trackingPipeline;
+
+  @BeforeEach
+  void setUp() {
+    GpsUtil gpsUtil = gpsUtil();
+    executionEngine = new ExecutionEngine(new ExecutorProperties());
+    TrackerProperties trackerProperties = new TrackerProperties();
+    trackerProperties.setFetch(new TrackerProperties.Stage(2, 1));
+    trackerProperties.setRewards(new TrackerProperties.Stage(2, 1));
+    trackingPipeline = new TrackingPipeline(gpsUtil, new RewardsService(gpsUtil, Mockito.mock(RewardCentral.class)),
+            List.of((user, visitedLocation) -> persisted.put(user.getUserId(), visitedLocation)),
+            trackerProperties, executionEngine);
+  }
+
+  @AfterEach
+  void tearDown() {
+    executionEngine.shutdown();
+  }
+
+  @Test
+  void track() {
+    User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+
+    VisitedLocation visitedLocation = trackingPipeline.track(user).join();
+
+    assertEquals(user.getUserId(), visitedLocation.userId);
+    assertSame(visitedLocation, user.getLastVisitedLocation());
+    assertSame(visitedLocation, persisted.get(user.getUserId()));
+  }
+
+  @Test
+  void trackAllGoesThroughSmallQueues() {
+    List<User> users = new ArrayList<>();
+    IntStream.range(0, 100).forEach(i -> users.add(new User(UUID.randomUUID(), "user" + i, "000", "")));
+
+    trackingPipeline.trackAll(users).join();
+
+    assertEquals(100, persisted.size());
+    users.forEach(user -> assertEquals(1, user.getVisitedLocations().size()));
+  }
+
+  @Test
+  void evaluatesTheRewardsOfTheWaitingUsersByBatch() {
+    RewardsService rewardsService = Mockito.mock(RewardsService.class);
+    List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+    CountDownLatch firstBatch = new CountDownLatch(1);
+    Mockito.when(rewardsService.calculateRewardsAsync(anyList())).thenAnswer(invocation -> {
+      List<User> users = invocation.getArgument(0);
+      if (batchSizes.isEmpty()) {
+        // the other users queue up meanwhile
+        firstBatch.await(5, TimeUnit.SECONDS);
+      }
+      batchSizes.add(users.size());
+      return CompletableFuture.completedFuture(null);
+    });
+    TrackerProperties trackerProperties = new TrackerProperties();
+    trackerProperties.setRewards(new TrackerProperties.Stage(1, 100, 50));
+    TrackingPipeline batchingPipeline = new TrackingPipeline(gpsUtil(), rewardsService, List.of(), trackerProperties,
+            executionEngine);
+    List<User> users = new ArrayList<>();
+    IntStream.range(0, 100).forEach(i -> users.add(new User(UUID.randomUUID(), "user" + i, "000", "")));
+
+    CompletableFuture<Void> tracked = batchingPipeline.trackAll(users);
+    firstBatch.countDown();
+    tracked.join();
+
+    assertEquals(100, batchSizes.stream().mapToInt(Integer::intValue).sum());
+    assertTrue(batchSizes.stream().allMatch(size -> size <= 50));
+    assertTrue(batchSizes.size() < 100);
+  }
+
+  @Test
+  void trackNowDoesNotWaitBehindTheUsersTrackedInBulk() {
+    RewardsService rewardsService = Mockito.mock(RewardsService.class);
+    CompletableFuture<Void> blocked = new CompletableFuture<>();
+    Mockito.when(rewardsService.calculateRewardsAsync(anyList())).thenReturn(blocked);
+    TrackingPipeline blockedPipeline = new TrackingPipeline(gpsUtil(), rewardsService,
+            List.of((user, visitedLocation) -> persisted.put(user.getUserId(), visitedLocation)),
+            new TrackerProperties(), executionEngine);
+    List<User> users = new ArrayList<>();
+    IntStream.range(0, 100).forEach(i -> users.add(new User(UUID.randomUUID(), "user" + i, "000", "")));
+    CompletableFuture<Void> bulk = blockedPipeline.trackAll(users);
+    User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+
+    VisitedLocation visitedLocation = blockedPipeline.trackNow(user);
+
+    assertSame(visitedLocation, user.getLastVisitedLocation());
+    assertSame(visitedLocation, persisted.get(user.getUserId()));
+    Mockito.verify(rewardsService).calculateRewards(user);
+    assertFalse(bulk.isDone());
+    blocked.complete(null);
+    bulk.join();
+  }
+
+  @Test
+  void keepsTheWorkerAfterAnError() {
+    RewardsService rewardsService = Mockito.mock(RewardsService.class);
+    Mockito.when(rewardsService.calculateRewardsAsync(anyList()))
+            .thenThrow(new AssertionError("broken library"))
+            .thenReturn(CompletableFuture.completedFuture(null));
+    TrackerProperties trackerProperties = new TrackerProperties();
+    trackerProperties.setRewards(new TrackerProperties.Stage(1, 10));
+    TrackingPipeline failingPipeline = new TrackingPipeline(gpsUtil(), rewardsService, List.of(), trackerProperties,
+            executionEngine);
+
+    CompletableFuture<VisitedLocation> failed = failingPipeline.track(new User(UUID.randomUUID(), "jon", "000", ""));
+
+    assertThrows(CompletionException.class, failed::join);
+    assertNotNull(failingPipeline.track(new User(UUID.randomUUID(), "kim", "000", "")).join());
+  }
+
+  private static GpsUtil gpsUtil() {
+    GpsUtil gpsUtil = Mockito.mock(GpsUtil.class);
+    Mockito.when(gpsUtil.getUserLocation(any())).thenAnswer(invocation ->
+            new VisitedLocation(invocation.getArgument(0), new Location(1, 2), new Date()));
+    return gpsUtil;
+  }
+
+}
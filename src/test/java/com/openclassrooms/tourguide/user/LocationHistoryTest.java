@@ -0,0 +1,177 @@
+package com.openclassrooms.tourguide.user;
+
+import com.openclassrooms.tourguide.configuration.ApplicationConfiguation;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LocationHistoryTest {
+
+  private static final Instant NOW = Instant.parse("2024-06-01T12:00:00Z");
+  private final Clock clock = Clock.fixed(NOW, ZoneOffset.UTC);
+  private final UUID userId = UUID.randomUUID();
+
+  @Test
+  void usersCreatedAfterARetentionChangeKeepThatManyLocations() {
+    int defaultMaxSize = User.getLocationHistoryMaxSize();
+    User.setLocationHistoryRetention(3, Duration.ofDays(1));
+    try {
+      User user = new User(userId, "jon", "000", "jon@tourGuide.com");
+      IntStream.range(0, 10).forEach(i -> user.addToVisitedLocations(visitedLocation(i, Instant.now())));
+
+      assertEquals(3, user.getVisitedLocations().size());
+    } finally {
+      User.setLocationHistoryRetention(defaultMaxSize, ApplicationConfiguation.LOCATION_HISTORY_MAX_AGE);
+    }
+  }
+
+  @Test
+  void keepsTheLatestLocationsUpToTheMaximumSize() {
+    LocationHistory history = new LocationHistory(userId, 20, Duration.ofDays(1), clock);
+    List<VisitedLocation> appended = new ArrayList<>();
+    IntStream.range(0, 50).forEach(i -> {
+      VisitedLocation visitedLocation = visitedLocation(i, NOW);
+      appended.add(visitedLocation);
+      history.append(visitedLocation);
+    });
+
+    assertLocations(appended.subList(30, 50), history.getLocations());
+    assertSame(appended.get(49), history.getLast());
+  }
+
+  @Test
+  void dropsExpiredLocationsButTheLatest() {
+    LocationHistory history = new LocationHistory(userId, 20, Duration.ofDays(1), clock);
+    VisitedLocation old = visitedLocation(1, NOW.minus(Duration.ofDays(2)));
+    VisitedLocation undated = new VisitedLocation(userId, new Location(2, 2), null);
+    VisitedLocation older = visitedLocation(3, NOW.minus(Duration.ofDays(3)));
+
+    history.append(old);
+    assertLocations(List.of(old), history.getLocations());
+
+    history.append(undated);
+    history.append(older);
+
+    assertLocations(List.of(undated, older), history.getLocations());
+    assertSame(older, history.getLast());
+  }
+
+  @Test
+  void holdsAtMostTheMaximumSizeAcrossManyWrapsAndAgesThemOut() {
+    Instant[] now = {NOW};
+    Clock movingClock = new Clock() {
+      @Override
+      public ZoneOffset getZone() {
+        return ZoneOffset.UTC;
+      }
+
+      @Override
+      public Clock withZone(ZoneId zone) {
+        return this;
+      }
+
+      @Override
+      public Instant instant() {
+        return now[0];
+      }
+    };
+    LocationHistory history = new LocationHistory(userId, 16, Duration.ofHours(1), movingClock);
+    for (int i = 0; i < 10 * 16 + 5; i++) {
+      history.append(visitedLocation(i, now[0]));
+      now[0] = now[0].plusSeconds(60);
+    }
+
+    List<VisitedLocation> retained = history.getLocations();
+    assertEquals(16, retained.size());
+    assertEquals(10 * 16 + 4, (int) history.getLast().location.latitude);
+
+    now[0] = now[0].plus(Duration.ofMinutes(50));
+    history.append(visitedLocation(1000, now[0]));
+
+    // only the locations of the last hour are left, from minute 155 to 164 and the one just appended
+    assertEquals(11, history.getLocations().size());
+  }
+
+  @Test
+  void getLocationsFromASequence() {
+    LocationHistory history = new LocationHistory(userId, 20, Duration.ofDays(1), clock);
+    VisitedLocation first = visitedLocation(1, NOW);
+    VisitedLocation second = visitedLocation(2, NOW);
+    history.append(first);
+    long sequence = history.append(second);
+
+    LocationSlice slice = history.getLocationsFrom(sequence);
+
+    assertLocations(List.of(second), slice.locations());
+    assertEquals(sequence + 1, slice.endSequence());
+    assertTrue(history.getLocationsFrom(slice.endSequence()).locations().isEmpty());
+  }
+
+  @Test
+  void clear() {
+    LocationHistory history = new LocationHistory(userId, 20, Duration.ofDays(1), clock);
+    history.append(visitedLocation(1, NOW));
+
+    history.clear();
+
+    assertTrue(history.isEmpty());
+    assertNull(history.getLast());
+    VisitedLocation visitedLocation = visitedLocation(2, NOW);
+    history.append(visitedLocation);
+    assertLocations(List.of(visitedLocation), history.getLocations());
+  }
+
+  @Test
+  void concurrentAppendsAndReads() {
+    LocationHistory history = new LocationHistory(userId, 100, Duration.ofDays(1), clock);
+    List<Integer> snapshotSizes = new ArrayList<>();
+    try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+      IntStream.range(0, 10_000).forEach(i -> executor.execute(() -> {
+        history.append(visitedLocation(i, NOW));
+        int size = history.getLocations().size();
+        synchronized (snapshotSizes) {
+          snapshotSizes.add(size);
+        }
+      }));
+    }
+
+    assertEquals(100, history.getLocations().size());
+    assertTrue(snapshotSizes.stream().allMatch(size -> size <= 100));
+    // every location read back is one that was written, never a mix of two
+    history.getLocations().forEach(visitedLocation ->
+            assertEquals(visitedLocation.location.latitude, -visitedLocation.location.longitude));
+  }
+
+  private VisitedLocation visitedLocation(double coordinate, Instant time) {
+    return new VisitedLocation(userId, new Location(coordinate, -coordinate), Date.from(time));
+  }
+
+  private void assertLocations(List<VisitedLocation> expected, List<VisitedLocation> actual) {
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      assertEquals(userId, actual.get(i).userId);
+      assertEquals(expected.get(i).location.latitude, actual.get(i).location.latitude);
+      assertEquals(expected.get(i).location.longitude, actual.get(i).location.longitude);
+      assertEquals(expected.get(i).timeVisited, actual.get(i).timeVisited);
+    }
+  }
+
+}